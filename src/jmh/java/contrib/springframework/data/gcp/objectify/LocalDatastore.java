@@ -0,0 +1,140 @@
+package contrib.springframework.data.gcp.objectify;
+
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.apphosting.api.ApiProxy;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyFactory;
+import com.googlecode.objectify.ObjectifyService;
+import com.googlecode.objectify.Ref;
+import com.googlecode.objectify.util.Closeable;
+import contrib.springframework.data.gcp.objectify.config.StaticObjectifyProxy;
+import contrib.springframework.data.gcp.objectify.repository.ObjectifyRepository;
+import contrib.springframework.data.gcp.objectify.support.AbstractObjectifyRepository;
+import contrib.springframework.data.gcp.objectify.translator.Jsr310Translators;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmark state backed by the local datastore stub, with a fresh Objectify factory, a repository for
+ * {@link TestStringEntity} and a batch of saved entities.
+ */
+@State(Scope.Thread)
+public class LocalDatastore {
+
+    /**
+     * Number of entities in {@link #getEntities()}.
+     */
+    public static final int BATCH_SIZE = 100;
+
+    private LocalServiceTestHelper helper;
+    private ApiProxy.Environment environment;
+    private Closeable session;
+    private ObjectifyProxy objectify;
+    private ObjectifyRepository<TestStringEntity, String> repository;
+    private List<TestStringEntity> entities;
+    private List<Key<TestStringEntity>> keys;
+    private List<String> webSafeKeys;
+    private List<Ref<TestStringEntity>> refs;
+
+    /**
+     * Benchmarks should take this state as a benchmark method argument only: JMH 1.19 creates a separate instance for
+     * a {@code @Setup} method argument, and both instances would share the static stub state of the test helper.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        helper = new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig().setApplyAllHighRepJobPolicy());
+        helper.setUp();
+        environment = ApiProxy.getCurrentEnvironment();
+
+        ObjectifyService.setFactory(new ObjectifyFactory());
+        Jsr310Translators.addTo(ObjectifyService.factory().getTranslators());
+        ObjectifyService.register(TestStringEntity.class);
+
+        objectify = new ObjectifyProxy() {
+        };
+        new StaticObjectifyProxy(objectify);
+        repository = new AbstractObjectifyRepository<>(objectify, null, TestStringEntity.class, String.class);
+
+        entities = IntStream.range(0, BATCH_SIZE)
+                .mapToObj(i -> new TestStringEntity("id" + i).setName("name" + i))
+                .collect(Collectors.toList());
+        Closeable setupSession = ObjectifyService.begin();
+        try {
+            keys = repository.getKey(repository.save(entities));
+            refs = Refs.refKeys(keys);
+        } finally {
+            setupSession.close();
+        }
+        webSafeKeys = keys.stream()
+                .map(Key::toWebSafeString)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * JMH may run iterations on different threads, so attach the stub environment and start an Objectify session on
+     * the current thread.
+     */
+    @Setup(Level.Iteration)
+    public void attach() {
+        ApiProxy.setEnvironmentForCurrentThread(environment);
+        session = ObjectifyService.begin();
+    }
+
+    @TearDown(Level.Iteration)
+    public void detach() {
+        session.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ApiProxy.setEnvironmentForCurrentThread(environment);
+        helper.tearDown();
+    }
+
+    /**
+     * Clear the Objectify session cache, so the next load reads from the datastore stub.
+     */
+    public void clearSession() {
+        objectify.ofy().clear();
+    }
+
+    public ObjectifyRepository<TestStringEntity, String> getRepository() {
+        return repository;
+    }
+
+    /**
+     * @return Saved entities.
+     */
+    public List<TestStringEntity> getEntities() {
+        return entities;
+    }
+
+    /**
+     * @return Keys of the saved entities.
+     */
+    public List<Key<TestStringEntity>> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return Web safe strings of {@link #getKeys()}.
+     */
+    public List<String> getWebSafeKeys() {
+        return webSafeKeys;
+    }
+
+    /**
+     * @return Refs to the saved entities.
+     */
+    public List<Ref<TestStringEntity>> getRefs() {
+        return refs;
+    }
+}
@@ -0,0 +1,37 @@
+package contrib.springframework.data.gcp.objectify;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Refs#load(java.util.Collection)} and {@link Refs#deref(java.util.Collection)} for a batch of
+ * {@value LocalDatastore#BATCH_SIZE} entities against the local datastore stub. The session cache is cleared before
+ * every load.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefsBenchmark {
+
+    @Benchmark
+    public List<TestStringEntity> load(LocalDatastore datastore) {
+        datastore.clearSession();
+        return Refs.load(datastore.getKeys());
+    }
+
+    @Benchmark
+    public List<TestStringEntity> deref(LocalDatastore datastore) {
+        datastore.clearSession();
+        return Refs.deref(datastore.getRefs());
+    }
+}
@@ -0,0 +1,42 @@
+package contrib.springframework.data.gcp.objectify.repository;
+
+import com.googlecode.objectify.Key;
+import contrib.springframework.data.gcp.objectify.LocalDatastore;
+import contrib.springframework.data.gcp.objectify.TestStringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link EntityManager} id and key helpers, for a single entity and for a batch of
+ * {@value LocalDatastore#BATCH_SIZE}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityManagerBenchmark {
+
+    @Benchmark
+    public String getId(LocalDatastore datastore) {
+        return datastore.getRepository().getId(datastore.getEntities().get(0));
+    }
+
+    @Benchmark
+    public Key<TestStringEntity> getKey(LocalDatastore datastore) {
+        return datastore.getRepository().getKey(datastore.getEntities().get(0));
+    }
+
+    @Benchmark
+    public Map<Key<TestStringEntity>, TestStringEntity> toKeyMap(LocalDatastore datastore) {
+        return datastore.getRepository().toKeyMap(datastore.getEntities());
+    }
+}
@@ -0,0 +1,59 @@
+package contrib.springframework.data.gcp.objectify.repository;
+
+import contrib.springframework.data.gcp.objectify.LocalDatastore;
+import contrib.springframework.data.gcp.objectify.TestStringEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SaveRepository} and {@link LoadRepository} against the local datastore stub, for single entities and
+ * batches of {@value LocalDatastore#BATCH_SIZE}. The session cache is cleared before every load.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    private TestStringEntity entity;
+
+    @Setup
+    public void setUp() {
+        entity = new TestStringEntity("single").setName("single");
+    }
+
+    @Benchmark
+    public TestStringEntity save(LocalDatastore datastore) {
+        return datastore.getRepository().save(entity);
+    }
+
+    @Benchmark
+    public List<TestStringEntity> saveBatch(LocalDatastore datastore) {
+        return datastore.getRepository().save(datastore.getEntities());
+    }
+
+    @Benchmark
+    public List<TestStringEntity> findAllByKeys(LocalDatastore datastore) {
+        datastore.clearSession();
+        return datastore.getRepository().findAll(datastore.getKeys());
+    }
+
+    @Benchmark
+    public List<TestStringEntity> findAllByWebSafeKey(LocalDatastore datastore) {
+        datastore.clearSession();
+        return datastore.getRepository().findAllByWebSafeKey(datastore.getWebSafeKeys());
+    }
+}
@@ -0,0 +1,83 @@
+package contrib.springframework.data.gcp.objectify.translator;
+
+import com.googlecode.objectify.impl.translate.ValueTranslator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures saving and loading a value with each of the JSR-310 translators.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranslatorBenchmark {
+
+    @Param({
+            "LocalDateDate", "LocalDateString",
+            "OffsetDateTimeDate", "OffsetDateTimeString",
+            "ZonedDateTimeDate", "ZonedDateTimeString"
+    })
+    public String translator;
+
+    private ValueTranslator<Object, Object> valueTranslator;
+    private Object value;
+    private Object saved;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        switch (translator) {
+            case "LocalDateDate":
+                valueTranslator = (ValueTranslator) new LocalDateDateTranslatorFactory().createValueTranslator(null, null, null);
+                value = LocalDate.parse("2017-12-01");
+                break;
+            case "LocalDateString":
+                valueTranslator = (ValueTranslator) new LocalDateStringTranslatorFactory().createValueTranslator(null, null, null);
+                value = LocalDate.parse("2017-12-01");
+                break;
+            case "OffsetDateTimeDate":
+                valueTranslator = (ValueTranslator) new OffsetDateTimeDateTranslatorFactory().createValueTranslator(null, null, null);
+                value = OffsetDateTime.parse("2017-12-01T01:02:03.456+10:00");
+                break;
+            case "OffsetDateTimeString":
+                valueTranslator = (ValueTranslator) new OffsetDateTimeStringTranslatorFactory().createValueTranslator(null, null, null);
+                value = OffsetDateTime.parse("2017-12-01T01:02:03.456+10:00");
+                break;
+            case "ZonedDateTimeDate":
+                valueTranslator = (ValueTranslator) new ZonedDateTimeDateTranslatorFactory().createValueTranslator(null, null, null);
+                value = ZonedDateTime.parse("2017-12-01T01:02:03.456+10:00[Australia/Sydney]");
+                break;
+            default:
+                valueTranslator = (ValueTranslator) new ZonedDateTimeStringTranslatorFactory().createValueTranslator(null, null, null);
+                value = ZonedDateTime.parse("2017-12-01T01:02:03.456+10:00[Australia/Sydney]");
+        }
+        saved = saveValue();
+    }
+
+    @Benchmark
+    public Object saveValue() {
+        return valueTranslator.save(value, true, null, null);
+    }
+
+    @Benchmark
+    public Object loadValue() {
+        return valueTranslator.load(saved, null, null);
+    }
+}
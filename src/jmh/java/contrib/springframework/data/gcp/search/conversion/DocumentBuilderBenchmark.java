@@ -0,0 +1,90 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a document with a precompiled {@link DocumentPlan} against the reflective
+ * metadata-map-and-{@link FieldBuilder} loop it replaced, which read each member with {@link java.lang.reflect.Field#get}
+ * or {@link Method#invoke}.
+ */
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentBuilderBenchmark {
+
+    private SearchMetadata searchMetadata;
+    private FieldBuilder fieldBuilder;
+    private DocumentBuilder documentBuilder;
+    private TestSearchEntity entity;
+
+    @Setup
+    public void setUp() {
+        DefaultSearchConversionService conversionService = new DefaultSearchConversionService();
+
+        searchMetadata = new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy());
+        fieldBuilder = new FieldBuilder(conversionService);
+        documentBuilder = new DocumentBuilder(searchMetadata, conversionService);
+        searchMetadata.getFields(TestSearchEntity.class).values()
+                .forEach(accessor -> ((AccessibleObject) accessor.getMember()).setAccessible(true));
+        entity = new TestSearchEntity("id")
+                .setStringField("A string value")
+                .setLongField(1234567890L)
+                .setGeoPointField(new GeoPoint(-33.86, 151.21))
+                .setStringArrayField(new String[]{"one", "two", "three"})
+                .setStringListField(Arrays.asList("four", "five", "six"));
+    }
+
+    @Benchmark
+    public Document documentPlan() {
+        return documentBuilder.apply("id", entity);
+    }
+
+    @Benchmark
+    public Document reflectiveLoop() throws ReflectiveOperationException {
+        Document.Builder builder = Document.newBuilder().setId("id");
+
+        Map<String, SearchFieldMetadata> accessors = searchMetadata.getFields(entity.getClass());
+        for (SearchFieldMetadata accessor : accessors.values()) {
+            List<Field> searchFields = fieldBuilder.apply(accessor, getValue(accessor.getMember()));
+            searchFields.forEach(builder::addField);
+        }
+
+        return builder.build();
+    }
+
+    private Object getValue(Member member) throws ReflectiveOperationException {
+        return member instanceof Method
+                ? ((Method) member).invoke(entity)
+                : ((java.lang.reflect.Field) member).get(entity);
+    }
+}
@@ -0,0 +1,152 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.GeoPoint;
+import contrib.springframework.data.gcp.search.SearchId;
+import contrib.springframework.data.gcp.search.SearchIndex;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DocumentBuilder#apply(Object, Object)} across entity shapes: a few fields, many fields, collections,
+ * dates and geo points.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentShapeBenchmark {
+
+    @Param({"few", "many", "collections", "dates", "geoPoints"})
+    public String shape;
+
+    private DocumentBuilder documentBuilder;
+    private Object entity;
+
+    @Setup
+    public void setUp() {
+        documentBuilder = new DocumentBuilder(
+                new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy()),
+                new DefaultSearchConversionService());
+
+        switch (shape) {
+            case "few":
+                entity = new FewFields();
+                break;
+            case "many":
+                entity = new ManyFields();
+                break;
+            case "collections":
+                entity = new CollectionFields();
+                break;
+            case "dates":
+                entity = new DateFields();
+                break;
+            default:
+                entity = new GeoPointFields();
+        }
+    }
+
+    @Benchmark
+    public Document apply() {
+        return documentBuilder.apply("id", entity);
+    }
+
+    @SuppressWarnings("unused")
+    public static class FewFields {
+        @SearchId
+        private String id = "id";
+        @SearchIndex
+        private String name = "A short name";
+        @SearchIndex
+        private long count = 42;
+    }
+
+    @SuppressWarnings("unused")
+    public static class ManyFields {
+        @SearchId
+        private String id = "id";
+        @SearchIndex
+        private String name = "A short name";
+        @SearchIndex
+        private String description = "A longer description of the entity, as found on most list views";
+        @SearchIndex
+        private String category = "category";
+        @SearchIndex
+        private String brand = "brand";
+        @SearchIndex
+        private String colour = "red";
+        @SearchIndex
+        private String size = "XL";
+        @SearchIndex
+        private long count = 42;
+        @SearchIndex
+        private int rating = 4;
+        @SearchIndex
+        private double price = 9.99;
+        @SearchIndex
+        private double weight = 1.5;
+        @SearchIndex
+        private Integer stock = 100;
+        @SearchIndex
+        private Long views = 12345L;
+    }
+
+    @SuppressWarnings("unused")
+    public static class CollectionFields {
+        @SearchId
+        private String id = "id";
+        @SearchIndex
+        private List<String> tags = Arrays.asList("one", "two", "three", "four", "five");
+        @SearchIndex
+        private String[] aliases = {"alias1", "alias2", "alias3"};
+        @SearchIndex
+        private Set<String> codes = new TreeSet<>(Arrays.asList("a", "b", "c", "d"));
+    }
+
+    @SuppressWarnings("unused")
+    public static class DateFields {
+        @SearchId
+        private String id = "id";
+        @SearchIndex
+        private Date created = new Date(1500000000000L);
+        @SearchIndex
+        private OffsetDateTime updated = OffsetDateTime.of(2017, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC);
+        @SearchIndex
+        private ZonedDateTime published = ZonedDateTime.of(2017, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC);
+    }
+
+    @SuppressWarnings("unused")
+    public static class GeoPointFields {
+        @SearchId
+        private String id = "id";
+        @SearchIndex
+        private GeoPoint origin = new GeoPoint(-33.86, 151.21);
+        @SearchIndex
+        private GeoPoint destination = new GeoPoint(51.50, -0.12);
+    }
+}
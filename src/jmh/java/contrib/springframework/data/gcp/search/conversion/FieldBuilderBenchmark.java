@@ -0,0 +1,68 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import contrib.springframework.data.gcp.search.IndexType;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.FieldSearchFieldMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FieldBuilder} for a single value of each {@link IndexType}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class FieldBuilderBenchmark {
+
+    @Param({"IDENTIFIER", "TEXT", "HTML", "NUMBER", "DATE", "GEOPOINT"})
+    public IndexType indexType;
+
+    private FieldBuilder fieldBuilder;
+    private SearchFieldMetadata metadata;
+    private Object value;
+
+    @Setup
+    public void setUp() throws Exception {
+        fieldBuilder = new FieldBuilder(new DefaultSearchConversionService());
+
+        BenchmarkEntity entity = new BenchmarkEntity();
+        String member = indexType.name().toLowerCase();
+        metadata = new FieldSearchFieldMetadata(BenchmarkEntity.class, BenchmarkEntity.class.getDeclaredField(member), indexType);
+        value = metadata.getValue(entity);
+    }
+
+    @Benchmark
+    public List<Field> apply() {
+        return fieldBuilder.apply(metadata, value);
+    }
+
+    @SuppressWarnings("unused")
+    public static class BenchmarkEntity {
+        private String identifier = "ag5zfnRlc3QtcHJvamVjdHIOCxIGRW50aXR5GICAgICAgIAKDA";
+        private String text = "A short description of the entity";
+        private String html = "<p>A <b>short</b> description of the entity</p>";
+        private long number = 1234567890L;
+        private OffsetDateTime date = OffsetDateTime.of(2017, 1, 2, 3, 4, 5, 0, ZoneOffset.UTC);
+        private GeoPoint geopoint = new GeoPoint(-33.86, 151.21);
+    }
+}
@@ -0,0 +1,37 @@
+package contrib.springframework.data.gcp.search.metadata.impl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FieldNameEncoder} for names that need no encoding, names with invalid characters and names with an
+ * invalid prefix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldNameEncoderBenchmark {
+
+    @Param({"stringField", "nested.field-name", "_123prefixedField"})
+    public String name;
+
+    private final FieldNameEncoder encoder = new FieldNameEncoder();
+
+    @Benchmark
+    public String apply() {
+        return encoder.apply(name);
+    }
+}
@@ -0,0 +1,117 @@
+package contrib.springframework.data.gcp.search.metadata.impl;
+
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading every indexed member of a document-sized entity through {@link MemberAccessors} against the
+ * per-read reflection previously used by {@link FieldSearchFieldMetadata} and {@link MethodSearchFieldMetadata}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemberAccessorBenchmark {
+
+    private BenchmarkEntity entity;
+    private Field[] fields;
+    private Method[] methods;
+    private SearchFieldMetadata[] fieldMetadata;
+    private SearchFieldMetadata[] methodMetadata;
+
+    @Setup
+    public void setUp() throws Exception {
+        entity = new BenchmarkEntity();
+        fields = BenchmarkEntity.class.getDeclaredFields();
+        methods = new Method[]{
+                BenchmarkEntity.class.getMethod("getName"),
+                BenchmarkEntity.class.getMethod("getDescription"),
+                BenchmarkEntity.class.getMethod("getCount"),
+                BenchmarkEntity.class.getMethod("getPrice"),
+                BenchmarkEntity.class.getMethod("getCategory")
+        };
+
+        fieldMetadata = new SearchFieldMetadata[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fieldMetadata[i] = new FieldSearchFieldMetadata(BenchmarkEntity.class, fields[i], new DefaultIndexTypeRegistry());
+        }
+        methodMetadata = new SearchFieldMetadata[methods.length];
+        for (int i = 0; i < methods.length; i++) {
+            methodMetadata[i] = new MethodSearchFieldMetadata(BenchmarkEntity.class, methods[i], new DefaultIndexTypeRegistry());
+        }
+    }
+
+    @Benchmark
+    public void fieldReflection(Blackhole blackhole) throws Exception {
+        for (Field field : fields) {
+            field.setAccessible(true);
+            blackhole.consume(field.get(entity));
+        }
+    }
+
+    @Benchmark
+    public void fieldAccessor(Blackhole blackhole) {
+        for (SearchFieldMetadata metadata : fieldMetadata) {
+            blackhole.consume(metadata.getValue(entity));
+        }
+    }
+
+    @Benchmark
+    public void methodReflection(Blackhole blackhole) throws Exception {
+        for (Method method : methods) {
+            blackhole.consume(method.invoke(entity));
+        }
+    }
+
+    @Benchmark
+    public void methodAccessor(Blackhole blackhole) {
+        for (SearchFieldMetadata metadata : methodMetadata) {
+            blackhole.consume(metadata.getValue(entity));
+        }
+    }
+
+    @SuppressWarnings("unused")
+    public static class BenchmarkEntity {
+        private String name = "name";
+        private String description = "description";
+        private long count = 10L;
+        private double price = 9.99;
+        private String category = "category";
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getPrice() {
+            return price;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package contrib.springframework.data.gcp.search.metadata.impl;
+
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.IndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SearchFieldMetadataRegistryImpl} lookups, both cold, analysing the entity class with an empty
+ * registry, and warm, from a registry that has already analysed it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchFieldMetadataRegistryBenchmark {
+
+    private IndexTypeRegistry indexTypeRegistry;
+    private SearchFieldMetadataRegistryImpl warmRegistry;
+
+    @Setup
+    public void setUp() {
+        indexTypeRegistry = new DefaultIndexTypeRegistry();
+        warmRegistry = new SearchFieldMetadataRegistryImpl(indexTypeRegistry);
+        warmRegistry.register(TestSearchEntity.class);
+    }
+
+    @Benchmark
+    public Map<String, SearchFieldMetadata> cold() {
+        return new SearchFieldMetadataRegistryImpl(indexTypeRegistry).get(TestSearchEntity.class);
+    }
+
+    @Benchmark
+    public SearchFieldMetadata warm() {
+        return warmRegistry.get(TestSearchEntity.class, "stringField");
+    }
+
+    @Benchmark
+    public SearchFieldMetadata warmByEncodedName() {
+        return warmRegistry.getByEncodedName(TestSearchEntity.class, "stringField");
+    }
+}
@@ -0,0 +1,71 @@
+package contrib.springframework.data.gcp.search.query;
+
+import contrib.springframework.data.gcp.search.Operator;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link QueryCompiler#apply(Query)}, compiling both the query string and the query options, for a simple
+ * query, an IN-list query and a query sorted by several fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryCompilerBenchmark {
+
+    @Param({"simple", "inList", "multiSort"})
+    public String shape;
+
+    private QueryCompiler compiler;
+    private Query<TestSearchEntity> query;
+
+    @Setup
+    public void setUp() {
+        compiler = new QueryCompiler(
+                new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy()),
+                new DefaultSearchConversionService());
+
+        QueryBuilder<TestSearchEntity> builder = new QueryImpl<>(TestSearchEntity.class);
+        switch (shape) {
+            case "simple":
+                builder.filter("stringField", Operator.EQUAL, "value").limit(20);
+                break;
+            case "inList":
+                builder.filterIn("id", "id1", "id2", "id3", "id4", "id5", "id6", "id7", "id8", "id9", "id10").limit(20);
+                break;
+            default:
+                builder.filter("stringField", Operator.EQUAL, "value")
+                        .filter("longField", Operator.GREATER_THAN_OR_EQUAL, 10)
+                        .order("longField", Sort.Direction.DESC)
+                        .order("stringField", Sort.Direction.ASC)
+                        .order("id", Sort.Direction.ASC)
+                        .limit(20);
+        }
+        query = builder.build();
+    }
+
+    @Benchmark
+    public com.google.appengine.api.search.Query apply() {
+        return compiler.apply(query);
+    }
+}
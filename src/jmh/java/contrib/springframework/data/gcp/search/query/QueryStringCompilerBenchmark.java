@@ -0,0 +1,103 @@
+package contrib.springframework.data.gcp.search.query;
+
+import contrib.springframework.data.gcp.search.Operator;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.MetadataUtils;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import org.apache.commons.text.StringEscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.convert.TypeDescriptor;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the in-place {@link QueryStringCompiler} against the {@code String.format} and {@code escapeJava} based
+ * compilation it replaced. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}, the bytes allocated per
+ * compiled query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryStringCompilerBenchmark {
+
+    @Param({"simple", "in", "escaped"})
+    public String shape;
+
+    private SearchMetadata searchMetadata;
+    private DefaultSearchConversionService conversionService;
+    private QueryStringCompiler compiler;
+    private Query<TestSearchEntity> query;
+
+    @Setup
+    public void setUp() {
+        conversionService = new DefaultSearchConversionService();
+        searchMetadata = new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy());
+        compiler = new QueryStringCompiler(searchMetadata, conversionService);
+
+        QueryBuilder<TestSearchEntity> builder = new QueryImpl<>(TestSearchEntity.class);
+        switch (shape) {
+            case "simple":
+                builder.filter("stringField", Operator.EQUAL, "value").filter("longField", Operator.GREATER_THAN, 3);
+                break;
+            case "in":
+                builder.filterIn("id", "id1", "id2", "id3", "id4", "id5", "id6", "id7", "id8");
+                break;
+            default:
+                builder.filter("stringField", Operator.EQUAL, "a \"quoted\" caf\u00e9").filter("stringField", Operator.STEM, "line\nbreak");
+        }
+        query = builder.build();
+
+        if (!compiler.apply(query).equals(formatted())) {
+            throw new IllegalStateException("Compiled query strings differ");
+        }
+    }
+
+    @Benchmark
+    public String inPlace() {
+        return compiler.apply(query);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public String formatted() {
+        return query.getFragments().stream()
+                .map(fragment -> {
+                    if (fragment.isRaw()) {
+                        return String.valueOf(fragment.getValue());
+                    }
+                    String field = searchMetadata.encodeFieldName(TestSearchEntity.class, fragment.getField());
+                    Object value = fragment.getValue();
+                    if (MetadataUtils.isCollectionType(value.getClass())) {
+                        List<String> values = (List<String>) conversionService.convert(value, TypeDescriptor.forObject(value),
+                                TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class)));
+                        String joined = values.stream().map(QueryStringCompilerBenchmark::escape).collect(Collectors.joining(" OR "));
+                        return String.format("%s%s(%s)", field, Operator.IS.getSymbol(), joined);
+                    }
+                    return String.format("%s%s%s", field, fragment.getOperator().getSymbol(), escape(conversionService.convert(value, String.class)));
+                })
+                .collect(Collectors.joining(" "));
+    }
+
+    private static String escape(String value) {
+        return "\"" + StringEscapeUtils.escapeJava(value) + "\"";
+    }
+}
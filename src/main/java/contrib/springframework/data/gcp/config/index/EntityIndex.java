@@ -0,0 +1,103 @@
+package contrib.springframework.data.gcp.config.index;
+
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Index of the entity classes found at compile time by the {@link EntityIndexProcessor}.
+ * <p>
+ * Every jar or class folder may contain its own index at {@link #LOCATION}; they are merged when loaded. The index
+ * replaces classpath scanning, so it must cover every class that scanning would have found. A jar compiled without
+ * the processor contributes no entries, so the roots that did contribute an index are recorded and can be checked with
+ * {@link #isIndexed(String)}.
+ */
+public final class EntityIndex {
+
+    /**
+     * Location of the index files.
+     */
+    public static final String LOCATION = "META-INF/spring-data-gcp.index";
+
+    private final Map<String, Set<String>> annotationsByClassName;
+    private final Set<String> roots;
+
+    EntityIndex(Map<String, Set<String>> annotationsByClassName, Set<String> roots) {
+        this.annotationsByClassName = annotationsByClassName;
+        this.roots = roots;
+    }
+
+    /**
+     * Load and merge all the index files visible to a class loader.
+     *
+     * @param classLoader Class loader to read the index files from.
+     * @return Entity index, or empty if there is no index file.
+     */
+    public static Optional<EntityIndex> load(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> urls = classLoader.getResources(LOCATION);
+            if (!urls.hasMoreElements()) {
+                return Optional.empty();
+            }
+
+            Map<String, Set<String>> annotationsByClassName = new TreeMap<>();
+            Set<String> roots = new HashSet<>();
+            for (URL url : Collections.list(urls)) {
+                String location = url.toString();
+                roots.add(location.substring(0, location.length() - LOCATION.length()));
+                read(url).forEach((className, annotations) -> annotationsByClassName
+                        .computeIfAbsent((String) className, name -> new HashSet<>())
+                        .addAll(StringUtils.commaDelimitedListToSet((String) annotations)));
+            }
+            return Optional.of(new EntityIndex(annotationsByClassName, roots));
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format("Unable to load entity index from %s", LOCATION), e);
+        }
+    }
+
+    /**
+     * Get the classes that carry an annotation and are within a base package or its descendants.
+     *
+     * @param basePackage Base package, or an empty string for all packages.
+     * @param annotation  Annotation type.
+     * @return Binary names of the matching classes.
+     */
+    public Stream<String> getClassNames(String basePackage, Class<? extends Annotation> annotation) {
+        String prefix = StringUtils.hasText(basePackage) ? basePackage + "." : "";
+        return annotationsByClassName.entrySet().stream()
+                .filter(entry -> entry.getKey().startsWith(prefix))
+                .filter(entry -> entry.getValue().contains(annotation.getName()))
+                .map(Map.Entry::getKey);
+    }
+
+    /**
+     * Check whether a jar or class folder contributed an index.
+     *
+     * @param root URL of the root of the jar or class folder, ending with a {@code /}.
+     * @return {@code true} if the root contains an index file.
+     */
+    public boolean isIndexed(String root) {
+        return roots.contains(root);
+    }
+
+    private static Properties read(URL url) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = url.openStream()) {
+            properties.load(in);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,150 @@
+package contrib.springframework.data.gcp.config.index;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor that writes the {@link EntityIndex} of the classes being compiled.
+ * <p>
+ * Records every concrete, independent class annotated with the Objectify {@code @Entity}, matching what classpath
+ * scanning would find. Entries from a previous compilation are kept as long as their class still exists and was not
+ * recompiled, so incremental builds produce the same index as full builds. The processor inspects every annotation type
+ * so it also runs, and drops stale entries, when the compiled classes no longer carry the annotation.
+ * <p>
+ * The processor is registered as a service in the separate {@code processor} artifact, not in the main jar, so it
+ * only runs in projects that put that artifact on their annotation processor path, e.g. with Gradle 4.6 or later:
+ * <pre>
+ * annotationProcessor 'com.github.n15g:spring-boot-gae:&lt;version&gt;:processor'
+ * </pre>
+ * Only Objectify entities are indexed; {@code @SearchIndex} classes are not.
+ */
+@SupportedAnnotationTypes("*")
+public class EntityIndexProcessor extends AbstractProcessor {
+    static final String ENTITY = "com.googlecode.objectify.annotation.Entity";
+
+    private final Map<String, Set<String>> annotationsByClassName = new TreeMap<>();
+    private final Set<String> compiledClassNames = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        addCompiledTypes(ElementFilter.typesIn(roundEnv.getRootElements()));
+
+        for (TypeElement annotation : annotations) {
+            if (!ENTITY.equals(annotation.getQualifiedName().toString())) {
+                continue;
+            }
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                TypeElement type = entityType(element);
+                if (type != null) {
+                    annotationsByClassName.computeIfAbsent(binaryName(type), name -> new TreeSet<>()).add(ENTITY);
+                }
+            }
+        }
+
+        if (roundEnv.processingOver()) {
+            writeIndex();
+        }
+        return false;
+    }
+
+    private void addCompiledTypes(Iterable<TypeElement> types) {
+        for (TypeElement type : types) {
+            compiledClassNames.add(binaryName(type));
+            addCompiledTypes(ElementFilter.typesIn(type.getEnclosedElements()));
+        }
+    }
+
+    /**
+     * @return The entity class, or {@code null} if classpath scanning would not consider it a candidate.
+     */
+    private TypeElement entityType(Element element) {
+        if (!element.getKind().isClass() || element.getModifiers().contains(Modifier.ABSTRACT)) {
+            return null;
+        }
+
+        TypeElement type = (TypeElement) element;
+        boolean independent = type.getNestingKind() == NestingKind.TOP_LEVEL
+                || type.getNestingKind() == NestingKind.MEMBER && type.getModifiers().contains(Modifier.STATIC);
+        return independent ? type : null;
+    }
+
+    private String binaryName(TypeElement type) {
+        return processingEnv.getElementUtils().getBinaryName(type).toString();
+    }
+
+    private void writeIndex() {
+        boolean previousIndex = readPreviousIndex();
+        if (annotationsByClassName.isEmpty() && !previousIndex) {
+            return;
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", EntityIndex.LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, Set<String>> entry : annotationsByClassName.entrySet()) {
+                    writer.write(entry.getKey() + "=" + String.join(",", entry.getValue()) + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write entity index: " + e);
+        }
+    }
+
+    /**
+     * Merge the entries of the index left by a previous compilation whose classes were not compiled this time.
+     *
+     * @return {@code true} if there was a previous index.
+     */
+    private boolean readPreviousIndex() {
+        Properties previous = new Properties();
+        try {
+            FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", EntityIndex.LOCATION);
+            try (InputStream in = file.openInputStream()) {
+                previous.load(in);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            return false;
+        }
+
+        for (String className : previous.stringPropertyNames()) {
+            if (!compiledClassNames.contains(className) && exists(className)) {
+                for (String annotationName : previous.getProperty(className).split(",")) {
+                    if (ENTITY.equals(annotationName)) {
+                        annotationsByClassName.computeIfAbsent(className, name -> new TreeSet<>()).add(annotationName);
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean exists(String className) {
+        return processingEnv.getElementUtils().getTypeElement(className.replace('$', '.')) != null;
+    }
+}
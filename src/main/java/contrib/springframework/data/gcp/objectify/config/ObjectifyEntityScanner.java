@@ -1,11 +1,22 @@
 package contrib.springframework.data.gcp.objectify.config;
 
 import com.googlecode.objectify.annotation.Entity;
+import contrib.springframework.data.gcp.config.index.EntityIndex;
+import contrib.springframework.data.gcp.config.index.EntityIndexProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -13,11 +24,24 @@ import java.util.stream.Stream;
 /**
  * Scan all classes annotated with {@link Entity} within a base package or its descendants. Allows
  * configuring additional classes manually that may fall outside of this package (e.g. from external libraries).
+ * <p>
+ * When the classpath contains an {@link EntityIndex} written by the {@link EntityIndexProcessor} the classes are read
+ * from the index instead of scanning the classpath, which shortens instance startup. The index is written when the
+ * processor artifact of this library is on the annotation processor path of the project that declares the entities,
+ * e.g. with Gradle:
+ * <pre>
+ * annotationProcessor 'com.github.n15g:spring-boot-gae:&lt;version&gt;:processor'
+ * </pre>
+ * The index is only trusted when every jar or class folder that contains the base package has an index of its own.
+ * Otherwise, or if the index has no entities within the base package, the roots without an index are logged and the
+ * classpath is scanned instead.
  */
 public class ObjectifyEntityScanner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObjectifyEntityScanner.class);
 
     private final String basePackage;
     private final Set<Class<?>> additionalClasses = new HashSet<>();
+    private boolean useIndex = true;
 
     public ObjectifyEntityScanner(String basePackage) {
         this.basePackage = basePackage;
@@ -29,24 +53,70 @@ public class ObjectifyEntityScanner {
         return this;
     }
 
+    /**
+     * Always scan the classpath, e.g. when some entities live in jars that were compiled without the index processor.
+     *
+     * @return This scanner, for method chaining.
+     */
+    public ObjectifyEntityScanner withoutIndex() {
+        useIndex = false;
+        return this;
+    }
+
     public Set<Class<?>> getEntityClasses() {
         return Stream.concat(getAnnotatedClasses(), additionalClasses.stream())
                 .collect(Collectors.toSet());
     }
 
     private Stream<Class<?>> getAnnotatedClasses() {
+        final ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        final Optional<EntityIndex> index = useIndex ? EntityIndex.load(classLoader) : Optional.empty();
+        if (index.isPresent()) {
+            final List<String> unindexedRoots = getUnindexedRoots(index.get(), classLoader);
+            final List<String> classNames = index.get().getClassNames(basePackage, Entity.class).collect(Collectors.toList());
+            if (!unindexedRoots.isEmpty()) {
+                LOGGER.warn("Classpath roots {} of package '{}' have no entity index, scanning the classpath instead", unindexedRoots, basePackage);
+            } else if (classNames.isEmpty()) {
+                LOGGER.warn("Entity index has no entities in package '{}', scanning the classpath instead", basePackage);
+            } else {
+                return classNames.stream()
+                        .map(className -> loadClass(className, classLoader));
+            }
+        }
+
         final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
         scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class, false, false));
         return scanner.findCandidateComponents(basePackage).stream()
-                .map(this::beanClass);
+                .map(BeanDefinition::getBeanClassName)
+                .map(className -> loadClass(className, classLoader));
+    }
+
+    /**
+     * @return The jar or class folder roots that contain the base package but have no entity index.
+     */
+    private List<String> getUnindexedRoots(EntityIndex index, ClassLoader classLoader) {
+        final String path = ClassUtils.convertClassNameToResourcePath(basePackage);
+        final String suffix = path.isEmpty() ? "" : path + "/";
+        final List<String> unindexedRoots = new ArrayList<>();
+        try {
+            for (URL url : Collections.list(classLoader.getResources(path))) {
+                final String location = url.toString().endsWith("/") ? url.toString() : url + "/";
+                final String root = location.endsWith(suffix) ? location.substring(0, location.length() - suffix.length()) : location;
+                if (!index.isIndexed(root)) {
+                    unindexedRoots.add(root);
+                }
+            }
+        } catch (IOException e) {
+            throw new InitializationException(String.format("Unable to find the classpath roots of package %s", basePackage), e);
+        }
+        return unindexedRoots;
     }
 
-    @SuppressWarnings("unchecked")
-    private Class<?> beanClass(BeanDefinition beanDefinition) {
+    private Class<?> loadClass(String className, ClassLoader classLoader) {
         try {
-            return Class.forName(beanDefinition.getBeanClassName());
-        } catch (ClassNotFoundException e) {
-            throw new InitializationException(String.format("Class not found %s", beanDefinition.getBeanClassName()), e);
+            return ClassUtils.forName(className, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            throw new InitializationException(String.format("Class not found %s", className), e);
         }
     }
 }
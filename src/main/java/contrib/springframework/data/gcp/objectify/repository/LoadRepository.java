@@ -9,6 +9,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -77,6 +78,25 @@ public interface LoadRepository<E, I extends Serializable> extends ObjectifyAwar
         return findAll(Arrays.asList(keys));
     }
 
+    /**
+     * Start loading the entities with the given keys.
+     * The batch get is issued immediately and completed by the returned supplier.
+     *
+     * @param keys List of keys to load.
+     * @return Supplier of the entities that exist, in the order of their keys.
+     */
+    @Nonnull
+    default Supplier<List<E>> findAllAsync(Collection<Key<E>> keys) {
+        Map<Key<E>, E> entities = ofy()
+                .load()
+                .keys(keys);
+
+        return () -> keys.stream()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Get the entities with the given web-safe key strings, if they exist.
      *
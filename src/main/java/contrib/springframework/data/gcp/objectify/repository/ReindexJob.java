@@ -0,0 +1,274 @@
+package contrib.springframework.data.gcp.objectify.repository;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.googlecode.objectify.cmd.Query;
+import contrib.springframework.data.gcp.search.IndexAlias;
+import contrib.springframework.data.gcp.search.ReindexingSearchService;
+import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.google.appengine.api.search.checkers.SearchApiLimits.PUT_MAXIMUM_DOCS_PER_REQUEST;
+
+/**
+ * Rebuilds the search index of a {@link SearchRepository} into a new versioned index without search downtime.
+ * <p>
+ * The job begins a rebuild, so that regular index operations are written to both the current and the new index, then
+ * streams every entity of the kind with datastore cursors and indexes them into the new index in parallel batches.
+ * Progress is checkpointed to the datastore after each completed batch, so a job that stops early because of its
+ * timeout, or fails, resumes from the last checkpoint when it is run again with the same version. The time at which
+ * a new rebuild has {@link #setSettleMillis(long) settled} is checkpointed as soon as it begins, so the wait is never
+ * repeated and is spread over as many runs as their timeouts require. Once every entity
+ * has been indexed the index alias is switched atomically and queries are served by the new index.
+ * <p>
+ * The search service of the repository must be a {@link ReindexingSearchService}, and index aliasing must be enabled
+ * on the {@link SearchServiceImpl}. The Objectify session cache is cleared after each
+ * batch so the job can stream kinds that do not fit in memory.
+ *
+ * @param <E> Entity type.
+ */
+public class ReindexJob<E> {
+    /**
+     * Datastore kind used to store job checkpoints.
+     */
+    public static final String CHECKPOINT_KIND = "SearchReindexCheckpoint";
+
+    private static final String PENDING = "pending";
+    private static final String CURSOR = "cursor";
+    private static final String COUNT = "count";
+    private static final String SETTLED_AT = "settledAt";
+
+    private final SearchRepository<E, ?> repository;
+    private final ReindexingSearchService searchService;
+    private final DatastoreService datastore;
+    private int batchSize = PUT_MAXIMUM_DOCS_PER_REQUEST;
+    private int maxConcurrentBatches = SearchServiceImpl.DEFAULT_MAX_CONCURRENT_BATCHES;
+    private Long settleMillis;
+
+    /**
+     * Create a new instance.
+     *
+     * @param repository The repository whose index will be rebuilt.
+     * @throws IllegalArgumentException If the search service of the repository can not rebuild indexes.
+     */
+    public ReindexJob(SearchRepository<E, ?> repository) {
+        this(repository, DatastoreServiceFactory.getDatastoreService());
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param repository The repository whose index will be rebuilt.
+     * @param datastore  Datastore service used to store checkpoints.
+     * @throws IllegalArgumentException If the search service of the repository can not rebuild indexes.
+     */
+    public ReindexJob(SearchRepository<E, ?> repository, DatastoreService datastore) {
+        Assert.isInstanceOf(ReindexingSearchService.class, repository.getSearchService(), "Search service can not rebuild indexes");
+        this.repository = repository;
+        this.searchService = (ReindexingSearchService) repository.getSearchService();
+        this.datastore = datastore;
+    }
+
+    /**
+     * Set the number of entities loaded and indexed per batch.
+     *
+     * @param batchSize Batch size, between 1 and the Search API limit of 200.
+     * @return This job, for method chaining.
+     */
+    public ReindexJob<E> setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0 && batchSize <= PUT_MAXIMUM_DOCS_PER_REQUEST,
+                "batchSize must be between 1 and " + PUT_MAXIMUM_DOCS_PER_REQUEST);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of batches that may be indexing at once.
+     *
+     * @param maxConcurrentBatches Maximum number of concurrent batches.
+     * @return This job, for method chaining.
+     */
+    public ReindexJob<E> setMaxConcurrentBatches(int maxConcurrentBatches) {
+        Assert.isTrue(maxConcurrentBatches > 0, "maxConcurrentBatches must be greater than zero");
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        return this;
+    }
+
+    /**
+     * Set how long to wait after beginning a new rebuild before streaming entities.
+     * This should be at least the index alias refresh interval, so every instance is writing to the new index before
+     * the entities they write are streamed; otherwise writes to the previous index only are lost when queries are
+     * switched. Defaults to the {@link ReindexingSearchService#getIndexAliasRefreshInterval() refresh interval} of the search
+     * service. A run never waits past its timeout; it stops early instead, and later runs wait for the remainder.
+     *
+     * @param settleMillis Settle time in milliseconds.
+     * @return This job, for method chaining.
+     */
+    public ReindexJob<E> setSettleMillis(long settleMillis) {
+        Assert.isTrue(settleMillis >= 0, "settleMillis must not be negative");
+        this.settleMillis = settleMillis;
+        return this;
+    }
+
+    /**
+     * Run the job, resuming from the last checkpoint if a rebuild into the same version was already started.
+     *
+     * @param version       Version of the new index.
+     * @param timeoutMillis Stop after this many milliseconds, or zero for no limit.
+     * @return The outcome of the run.
+     */
+    public ReindexResult run(String version, long timeoutMillis) {
+        Class<E> entityClass = repository.getEntityType();
+        long deadline = timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+
+        IndexAlias alias = searchService.beginReindex(entityClass, version);
+        Key checkpointKey = KeyFactory.createKey(CHECKPOINT_KIND, alias.getName());
+
+        Checkpoint checkpoint = loadCheckpoint(checkpointKey, alias.getPending());
+        if (checkpoint == null) {
+            checkpoint = new Checkpoint(null, 0, System.currentTimeMillis() + getSettleMillis());
+            saveCheckpoint(checkpointKey, alias, checkpoint);
+        }
+        if (!settle(checkpoint.settledAt, deadline)) {
+            return new ReindexResult(alias, checkpoint.count, false);
+        }
+
+        Deque<Batch> inFlight = new ArrayDeque<>();
+        Cursor cursor = checkpoint.cursor;
+        int count = checkpoint.count;
+
+        while (true) {
+            Query<E> query = repository.ofy().load().type(entityClass).limit(batchSize);
+            if (cursor != null) {
+                query = query.startAt(cursor);
+            }
+
+            QueryResultIterator<E> iterator = query.iterator();
+            Map<String, E> entities = new LinkedHashMap<>();
+            while (iterator.hasNext()) {
+                E entity = iterator.next();
+                entities.put(repository.getKey(entity).toWebSafeString(), entity);
+            }
+            if (entities.isEmpty()) {
+                break;
+            }
+
+            cursor = iterator.getCursor();
+            count += entities.size();
+            inFlight.addLast(new Batch(searchService.reindexAsync(entities), new Checkpoint(cursor, count, checkpoint.settledAt)));
+            repository.ofy().clear();
+
+            while (inFlight.size() >= maxConcurrentBatches) {
+                complete(checkpointKey, alias, inFlight.removeFirst());
+            }
+
+            if (entities.size() < batchSize) {
+                break;
+            }
+            if (System.currentTimeMillis() >= deadline) {
+                drain(checkpointKey, alias, inFlight);
+                return new ReindexResult(alias, count, false);
+            }
+        }
+
+        drain(checkpointKey, alias, inFlight);
+        IndexAlias completed = searchService.completeReindex(entityClass);
+        datastore.delete(checkpointKey);
+        return new ReindexResult(completed, count, true);
+    }
+
+    private void drain(Key checkpointKey, IndexAlias alias, Deque<Batch> inFlight) {
+        while (!inFlight.isEmpty()) {
+            complete(checkpointKey, alias, inFlight.removeFirst());
+        }
+    }
+
+    private void complete(Key checkpointKey, IndexAlias alias, Batch batch) {
+        batch.operation.run();
+        saveCheckpoint(checkpointKey, alias, batch.checkpoint);
+    }
+
+    private void saveCheckpoint(Key checkpointKey, IndexAlias alias, Checkpoint checkpoint) {
+        Entity entity = new Entity(checkpointKey);
+        entity.setUnindexedProperty(PENDING, alias.getPending());
+        entity.setUnindexedProperty(CURSOR, checkpoint.cursor != null ? checkpoint.cursor.toWebSafeString() : null);
+        entity.setUnindexedProperty(COUNT, checkpoint.count);
+        entity.setUnindexedProperty(SETTLED_AT, checkpoint.settledAt);
+        datastore.put(entity);
+    }
+
+    @Nullable
+    private Checkpoint loadCheckpoint(Key checkpointKey, String pending) {
+        try {
+            Entity entity = datastore.get(checkpointKey);
+            if (!pending.equals(entity.getProperty(PENDING))) {
+                return null;
+            }
+            String cursor = (String) entity.getProperty(CURSOR);
+            Number settledAt = (Number) entity.getProperty(SETTLED_AT);
+            return new Checkpoint(
+                    cursor != null ? Cursor.fromWebSafeString(cursor) : null,
+                    ((Number) entity.getProperty(COUNT)).intValue(),
+                    settledAt != null ? settledAt.longValue() : 0
+            );
+        } catch (EntityNotFoundException e) {
+            return null;
+        }
+    }
+
+    private long getSettleMillis() {
+        return settleMillis != null ? settleMillis : searchService.getIndexAliasRefreshInterval();
+    }
+
+    /**
+     * Wait until the rebuild has settled, but not past the deadline.
+     *
+     * @return {@code true} if the rebuild has settled.
+     */
+    private boolean settle(long settledAt, long deadline) {
+        long millis = Math.min(settledAt, deadline) - System.currentTimeMillis();
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for index aliases to refresh", e);
+            }
+        }
+        return System.currentTimeMillis() >= settledAt;
+    }
+
+    private static class Checkpoint {
+        private final Cursor cursor;
+        private final int count;
+        private final long settledAt;
+
+        Checkpoint(@Nullable Cursor cursor, int count, long settledAt) {
+            this.cursor = cursor;
+            this.count = count;
+            this.settledAt = settledAt;
+        }
+    }
+
+    private static class Batch {
+        private final Runnable operation;
+        private final Checkpoint checkpoint;
+
+        Batch(Runnable operation, Checkpoint checkpoint) {
+            this.operation = operation;
+            this.checkpoint = checkpoint;
+        }
+    }
+}
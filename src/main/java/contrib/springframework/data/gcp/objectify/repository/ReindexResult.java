@@ -0,0 +1,52 @@
+package contrib.springframework.data.gcp.objectify.repository;
+
+import contrib.springframework.data.gcp.search.IndexAlias;
+
+/**
+ * The outcome of running a {@link ReindexJob}.
+ */
+public class ReindexResult {
+
+    private final IndexAlias alias;
+    private final int count;
+    private final boolean complete;
+
+    /**
+     * Create a new instance.
+     *
+     * @param alias    The index alias after the job ran.
+     * @param count    Number of entities indexed into the new index so far.
+     * @param complete Whether the rebuild completed and queries were switched to the new index.
+     */
+    public ReindexResult(IndexAlias alias, int count, boolean complete) {
+        this.alias = alias;
+        this.count = count;
+        this.complete = complete;
+    }
+
+    /**
+     * @return The index alias after the job ran.
+     */
+    public IndexAlias getAlias() {
+        return alias;
+    }
+
+    /**
+     * @return Number of entities indexed into the new index so far, including those indexed by earlier runs.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return {@code true} if the rebuild completed, {@code false} if the job stopped early and should be run again.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return "ReindexResult{alias=" + alias + ", count=" + count + ", complete=" + complete + '}';
+    }
+}
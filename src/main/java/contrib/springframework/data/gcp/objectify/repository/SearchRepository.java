@@ -1,17 +1,22 @@
 package contrib.springframework.data.gcp.objectify.repository;
 
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Suppliers;
 import com.googlecode.objectify.Key;
 import contrib.springframework.data.gcp.search.SearchIndex;
 import contrib.springframework.data.gcp.search.SearchService;
 import contrib.springframework.data.gcp.search.query.Query;
 import contrib.springframework.data.gcp.search.query.QueryBuilder;
 import contrib.springframework.data.gcp.search.query.Result;
+import contrib.springframework.data.gcp.search.query.ResultImpl;
 import org.springframework.data.repository.NoRepositoryBean;
 
 import javax.annotation.Nonnull;
 import java.io.Serializable;
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * A searchable repository.
@@ -49,7 +54,56 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
      * @return Search result.
      */
     default Result<E> execute(Query<E> query) {
-        return getSearchService().execute(query, new SearchResultLoader<>(this::findAllByWebSafeKey));
+        return getSearchService().execute(query, new SearchResultLoader<>(this::findAllAsync));
+    }
+
+    /**
+     * Execute a search query and read the matching documents into a projection type, without loading the entities.
+     * Queries created by {@link #search()} return only ids, so select the {@link QueryBuilder#returnFields(String...)
+     * returned fields} that the projection needs.
+     *
+     * @param query          Search query.
+     * @param projectionType The type to read each document into.
+     * @param <T>            Projection type.
+     * @return Search result.
+     * @see SearchService#project(Query, Class)
+     */
+    default <T> Result<T> project(Query<E> query, Class<T> projectionType) {
+        return getSearchService().project(query, projectionType);
+    }
+
+    /**
+     * Start executing a search query.
+     * The search is issued immediately, but App Engine can not notify when its response arrives, so the entities are
+     * not loaded until the returned supplier is called. The supplier waits for the search response and then starts
+     * loading the matching entities; the load is completed when the entities of the result are first accessed.
+     *
+     * @param query Search query.
+     * @return Supplier of the search result.
+     * @see SearchService#executeAsync(Query)
+     */
+    @Nonnull
+    default Supplier<Result<E>> executeAsync(Query<E> query) {
+        SearchResultLoader<E> loader = new SearchResultLoader<>(this::findAllAsync);
+        Supplier<Result<ScoredDocument>> search = getSearchService().executeAsync(query);
+
+        return Suppliers.memoize(() -> {
+            Results<ScoredDocument> results = search.get().getMetadata();
+            List<E> entities = loader.apply(results);
+            return new ResultImpl<>(results, x -> entities);
+        });
+    }
+
+    /**
+     * Stream every entity matching a search query, following search cursors page by page.
+     * The stream is lazily evaluated and holds at most two pages of results at a time. The query limit sets the page
+     * size.
+     *
+     * @param query Search query.
+     * @return Entity stream.
+     */
+    default Stream<E> stream(Query<E> query) {
+        return getSearchService().stream(query, new SearchResultLoader<>(this::findAllAsync));
     }
 
     /**
@@ -99,7 +153,7 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
      * @param entity The entity to remove.
      */
     default void unIndex(E entity) {
-        unindexByKey(getKey(entity));
+        unindexAsync(entity).run();
     }
 
     /**
@@ -109,7 +163,7 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
      * @param entities The entities to remove.
      */
     default void unindex(Collection<E> entities) {
-        unindexByKey(getKey(entities));
+        unindexAsync(entities).run();
     }
 
     /**
@@ -130,7 +184,7 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
      * @param key Key of the entity to remove.
      */
     default void unindexByKey(Key<E> key) {
-        getSearchService().unindex(getEntityType(), key.toWebSafeString());
+        unindexByKeyAsync(key).run();
     }
 
     /**
@@ -140,7 +194,7 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
      * @param keys Keys of the entities to remove.
      */
     default void unindexByKey(Collection<Key<E>> keys) {
-        getSearchService().unindex(getEntityType(), keys.stream().map(Key::toWebSafeString));
+        unindexByKeyAsync(keys).run();
     }
 
     /**
@@ -154,6 +208,68 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
         unindexByKey(Arrays.asList(keys));
     }
 
+    /**
+     * Remove the given entity from search indexes.
+     * If the search service is not configured, no operation will be performed.
+     *
+     * @param entity The entity to remove.
+     * @return Runnable that can be used to synchronously complete the unindex operation.
+     */
+    @Nonnull
+    default Runnable unindexAsync(E entity) {
+        return unindexByKeyAsync(getKey(entity));
+    }
+
+    /**
+     * Remove the given entities from search indexes.
+     * If the search service is not configured, no operation will be performed.
+     *
+     * @param entities The entities to remove.
+     * @return Runnable that can be used to synchronously complete the unindex operation.
+     */
+    @Nonnull
+    default Runnable unindexAsync(Collection<E> entities) {
+        return unindexByKeyAsync(getKey(entities));
+    }
+
+    /**
+     * Remove the entity with the given key from search indexes.
+     * If the search service is not configured, no operation will be performed.
+     *
+     * @param key Key of the entity to remove.
+     * @return Runnable that can be used to synchronously complete the unindex operation.
+     */
+    @Nonnull
+    default Runnable unindexByKeyAsync(Key<E> key) {
+        return getSearchService().unindexAsync(getEntityType(), key.toWebSafeString());
+    }
+
+    /**
+     * Remove entities with the given keys from search indexes.
+     * If the search service is not configured, no operation will be performed.
+     *
+     * @param keys Keys of the entities to remove.
+     * @return Runnable that can be used to synchronously complete the unindex operation.
+     */
+    @Nonnull
+    default Runnable unindexByKeyAsync(Collection<Key<E>> keys) {
+        return getSearchService().unindexAsync(getEntityType(), keys.stream().map(Key::toWebSafeString));
+    }
+
+    /**
+     * Rebuild the search index for this repository into a new versioned index, without search downtime.
+     * A run that stops early resumes from its last checkpoint when it is run again with the same version.
+     * Index aliasing must be enabled.
+     *
+     * @param version       Version of the new index.
+     * @param timeoutMillis Stop after this many milliseconds, or zero for no limit.
+     * @return The outcome of the run.
+     * @see ReindexJob
+     */
+    default ReindexResult reindex(String version, long timeoutMillis) {
+        return new ReindexJob<>(this).run(version, timeoutMillis);
+    }
+
     /*--------- AsyncSaveRepository ---------*/
 
     @Nonnull
@@ -212,15 +328,25 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
     @Nonnull
     @Override
     default Runnable deleteAsync(E entity) {
-        unIndex(entity);
-        return DeleteRepository.super.deleteAsync(entity);
+        final Runnable unindexOperation = unindexAsync(entity);
+        final Runnable deleteOperation = DeleteRepository.super.deleteAsync(entity);
+
+        return () -> {
+            unindexOperation.run();
+            deleteOperation.run();
+        };
     }
 
     @Nonnull
     @Override
     default Runnable deleteAsync(Collection<E> entities) {
-        unindex(entities);
-        return DeleteRepository.super.deleteAsync(entities);
+        final Runnable unindexOperation = unindexAsync(entities);
+        final Runnable deleteOperation = DeleteRepository.super.deleteAsync(entities);
+
+        return () -> {
+            unindexOperation.run();
+            deleteOperation.run();
+        };
     }
 
     @Nonnull
@@ -233,15 +359,25 @@ public interface SearchRepository<E, I extends Serializable> extends LoadReposit
     @Nonnull
     @Override
     default Runnable deleteByKeyAsync(Key<E> key) {
-        unindexByKey(key);
-        return DeleteRepository.super.deleteByKeyAsync(key);
+        final Runnable unindexOperation = unindexByKeyAsync(key);
+        final Runnable deleteOperation = DeleteRepository.super.deleteByKeyAsync(key);
+
+        return () -> {
+            unindexOperation.run();
+            deleteOperation.run();
+        };
     }
 
     @Nonnull
     @Override
     default Runnable deleteByKeyAsync(Collection<Key<E>> keys) {
-        unindexByKey(keys);
-        return DeleteRepository.super.deleteByKeyAsync(keys);
+        final Runnable unindexOperation = unindexByKeyAsync(keys);
+        final Runnable deleteOperation = DeleteRepository.super.deleteByKeyAsync(keys);
+
+        return () -> {
+            unindexOperation.run();
+            deleteOperation.run();
+        };
     }
 
     @Nonnull
@@ -2,40 +2,67 @@ package contrib.springframework.data.gcp.objectify.repository;
 
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Suppliers;
+import com.googlecode.objectify.Key;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
 /**
  * Load a list of entities from a search query result.
+ * <p>
+ * The batch load is started as soon as the result is transformed, and the returned list completes it when it is
+ * first accessed, so the load overlaps with any work done in between, such as fetching the next page of a stream.
+ * Entities are returned in the order of the search result and missing entities are left out.
  *
  * @param <E> Entity type.
  */
 public class SearchResultLoader<E> implements Function<Results<ScoredDocument>, List<E>> {
-    private Function<List<String>, List<E>> entityLookup;
+    private final Function<Collection<Key<E>>, Supplier<List<E>>> entityLookup;
 
     /**
      * Create a new instance.
      *
-     * @param entityLookup Function used to look up entities by web-safe strings.
+     * @param entityLookup Function used to start loading entities by key, returning a supplier of the entities that
+     *                     exist in key order.
+     * @see LoadRepository#findAllAsync(Collection)
      */
-    public SearchResultLoader(Function<List<String>, List<E>> entityLookup) {
+    public SearchResultLoader(Function<Collection<Key<E>>, Supplier<List<E>>> entityLookup) {
         this.entityLookup = entityLookup;
     }
 
     @Override
     public List<E> apply(Results<ScoredDocument> results) {
-        List<String> webSafeKeys = results.getResults().stream().map(ScoredDocument::getId).collect(Collectors.toList());
+        List<Key<E>> keys = new ArrayList<>(results.getNumberReturned());
+        for (ScoredDocument document : results) {
+            keys.add(Key.create(document.getId()));
+        }
 
-        return entityLookup
-                .apply(webSafeKeys)
-                .stream()
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+        return new LoadingList<>(entityLookup.apply(keys));
+    }
+
+    /**
+     * A list that completes a load when it is first accessed.
+     */
+    private static class LoadingList<E> extends AbstractList<E> {
+        private final Supplier<List<E>> entities;
+
+        LoadingList(Supplier<List<E>> load) {
+            this.entities = Suppliers.memoize(load::get);
+        }
+
+        @Override
+        public E get(int index) {
+            return entities.get().get(index);
+        }
+
+        @Override
+        public int size() {
+            return entities.get().size();
+        }
     }
 }
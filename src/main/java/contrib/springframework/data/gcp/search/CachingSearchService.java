@@ -0,0 +1,390 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.Query;
+import contrib.springframework.data.gcp.search.query.QueryBuilder;
+import contrib.springframework.data.gcp.search.query.QueryCompiler;
+import contrib.springframework.data.gcp.search.query.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * A {@link SearchService} decorator that caches query results in memory.
+ * <p>
+ * Results are keyed by the namespace, the result type and the compiled query string and options, and held in a
+ * size-bounded cache that evicts the least recently used results. Each result expires after the time to live of its
+ * entity class. Indexing, unindexing or clearing an entity class invalidates every cached result for that class, both
+ * when the write is issued and when it completes.
+ * <p>
+ * In stale-while-revalidate mode an expired result is returned while it is refreshed in the background. Results that
+ * were invalidated by a write are never served.
+ * <p>
+ * Closing the service stops the background refreshes and closes the delegate, so a decorated
+ * {@link WriteBehindSearchService} is flushed. Index rebuilds are passed to the delegate, which must be a
+ * {@link ReindexingSearchService}.
+ */
+public class CachingSearchService implements ReindexingSearchService, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingSearchService.class);
+
+    private final SearchService delegate;
+    private final QueryCompiler queryCompiler;
+    private final Cache<CacheKey, CacheEntry> cache;
+    private final long defaultTimeToLiveMillis;
+    private final Map<Class<?>, Long> timeToLiveMillis = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CacheKey, Boolean> refreshing = new ConcurrentHashMap<>();
+    private Executor refreshExecutor;
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+
+    /**
+     * Create a new instance.
+     *
+     * @param delegate                The search service that executes queries.
+     * @param queryCompiler           Compiler used to build the canonical form of a query.
+     * @param maximumSize             Maximum number of cached results.
+     * @param defaultTimeToLiveMillis Time to live of cached results for entity classes without their own time to live.
+     */
+    public CachingSearchService(SearchService delegate, QueryCompiler queryCompiler, long maximumSize, long defaultTimeToLiveMillis) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than zero");
+        Assert.isTrue(defaultTimeToLiveMillis > 0, "defaultTimeToLiveMillis must be greater than zero");
+        this.delegate = delegate;
+        this.queryCompiler = queryCompiler;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.defaultTimeToLiveMillis = defaultTimeToLiveMillis;
+    }
+
+    /**
+     * Set the time to live of cached results for an entity class.
+     *
+     * @param entityClass The entity class.
+     * @param millis      Time to live in milliseconds.
+     * @return This service, for method chaining.
+     */
+    public CachingSearchService setTimeToLive(Class<?> entityClass, long millis) {
+        Assert.isTrue(millis > 0, "millis must be greater than zero");
+        timeToLiveMillis.put(entityClass, millis);
+        return this;
+    }
+
+    /**
+     * Enable stale-while-revalidate mode.
+     * On App Engine the executor must run tasks on threads with access to the API environment, e.g. threads created by
+     * {@link com.google.appengine.api.ThreadManager#backgroundThreadFactory()}.
+     *
+     * @param refreshExecutor Executor used to refresh expired results, or {@code null} to disable stale-while-revalidate.
+     * @return This service, for method chaining.
+     */
+    public CachingSearchService setStaleWhileRevalidate(@Nullable Executor refreshExecutor) {
+        this.refreshExecutor = refreshExecutor;
+        return this;
+    }
+
+    /**
+     * Shut down the refresh executor if it is an {@link ExecutorService}, waiting for running refreshes, then close
+     * the delegate if it is {@link AutoCloseable}. Expired results are loaded synchronously from then on.
+     *
+     * @throws Exception If the delegate fails to close.
+     */
+    @Override
+    public void close() throws Exception {
+        if (refreshExecutor instanceof ExecutorService) {
+            ExecutorService executor = (ExecutorService) refreshExecutor;
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (delegate instanceof AutoCloseable) {
+            ((AutoCloseable) delegate).close();
+        }
+    }
+
+    /**
+     * Discard every cached result.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return Number of queries answered from a fresh cached result.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return Number of queries answered from an expired result while it was refreshed.
+     */
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    /**
+     * @return Number of queries that were passed to the delegate service.
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return Number of cached results.
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    @Nonnull
+    @Override
+    public <E> QueryBuilder<E> createQuery(Class<E> entityClass) {
+        return delegate.createQuery(entityClass);
+    }
+
+    @Override
+    public Result<ScoredDocument> execute(Query<?> query) {
+        CacheKey key = new CacheKey(query.getResultType(), queryCompiler.apply(query).toString());
+        long generation = getGeneration(query.getResultType()).get();
+
+        CacheEntry entry = cache.getIfPresent(key);
+        if (entry != null && entry.generation == generation) {
+            if (!entry.isExpired()) {
+                hitCount.incrementAndGet();
+                return entry.result;
+            }
+            if (refreshExecutor != null && refreshInBackground(key, query)) {
+                staleHitCount.incrementAndGet();
+                return entry.result;
+            }
+        }
+
+        missCount.incrementAndGet();
+        return load(key, query, generation);
+    }
+
+    @Override
+    public MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        return delegate.executeAll(queries, limit);
+    }
+
+    @Override
+    public <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        return delegate.project(query, projectionType);
+    }
+
+    @Override
+    public <T> Stream<T> stream(Query<?> query, Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        return delegate.stream(query, resultTransformer);
+    }
+
+    @Override
+    public <E> String getId(E entity) {
+        return delegate.getId(entity);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(E entity, String id) {
+        return invalidating(entity.getClass(), delegate.indexAsync(entity, id));
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(Map<String, E> entities) {
+        if (entities.isEmpty()) {
+            return delegate.indexAsync(entities);
+        }
+        return invalidating(entities.values().iterator().next().getClass(), delegate.indexAsync(entities));
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids) {
+        return invalidating(entityClass, delegate.unindexAsync(entityClass, ids));
+    }
+
+    @Override
+    public <E> int clear(Class<E> entityClass) {
+        try {
+            return delegate.clear(entityClass);
+        } finally {
+            invalidate(entityClass);
+        }
+    }
+
+    @Override
+    public <E> ClearResult clear(Class<E> entityClass, @Nullable String startId, long timeoutMillis, @Nullable Consumer<ClearResult> progressListener) {
+        try {
+            return delegate.clear(entityClass, startId, timeoutMillis, progressListener);
+        } finally {
+            invalidate(entityClass);
+        }
+    }
+
+    @Override
+    public long getIndexAliasRefreshInterval() {
+        return delegate instanceof ReindexingSearchService ? ((ReindexingSearchService) delegate).getIndexAliasRefreshInterval() : 0;
+    }
+
+    @Override
+    public IndexAlias beginReindex(Class<?> entityClass, String version) {
+        return reindexingDelegate().beginReindex(entityClass, version);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable reindexAsync(Map<String, E> entities) {
+        return reindexingDelegate().reindexAsync(entities);
+    }
+
+    @Override
+    public IndexAlias completeReindex(Class<?> entityClass) {
+        try {
+            return reindexingDelegate().completeReindex(entityClass);
+        } finally {
+            invalidate(entityClass);
+        }
+    }
+
+    @Override
+    public IndexAlias abortReindex(Class<?> entityClass) {
+        return reindexingDelegate().abortReindex(entityClass);
+    }
+
+    private ReindexingSearchService reindexingDelegate() {
+        Assert.state(delegate instanceof ReindexingSearchService, "Rebuilding search indexes is not supported by " + delegate.getClass().getName());
+        return (ReindexingSearchService) delegate;
+    }
+
+    /**
+     * Invalidate the cached results for an entity class now and again once the write has completed, so a query that
+     * runs while the write is in flight cannot cache a result that misses it.
+     */
+    private Runnable invalidating(Class<?> entityClass, Runnable operation) {
+        invalidate(entityClass);
+        return () -> {
+            try {
+                operation.run();
+            } finally {
+                invalidate(entityClass);
+            }
+        };
+    }
+
+    private void invalidate(Class<?> entityClass) {
+        getGeneration(entityClass).incrementAndGet();
+    }
+
+    private AtomicLong getGeneration(Class<?> entityClass) {
+        return generations.computeIfAbsent(entityClass, type -> new AtomicLong());
+    }
+
+    private Result<ScoredDocument> load(CacheKey key, Query<?> query, long generation) {
+        Result<ScoredDocument> result = delegate.execute(query);
+        long ttl = timeToLiveMillis.getOrDefault(query.getResultType(), defaultTimeToLiveMillis);
+        cache.put(key, new CacheEntry(result, generation, System.currentTimeMillis() + ttl));
+        return result;
+    }
+
+    /**
+     * @return {@code true} if a refresh is running or has been scheduled.
+     */
+    private boolean refreshInBackground(CacheKey key, Query<?> query) {
+        if (refreshing.putIfAbsent(key, Boolean.TRUE) != null) {
+            return true;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                String previousNamespace = NamespaceManager.get();
+                NamespaceManager.set(key.namespace);
+                try {
+                    load(key, query, getGeneration(key.entityClass).get());
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Search result refresh failed for {}", key.query, e);
+                } finally {
+                    NamespaceManager.set(previousNamespace);
+                    refreshing.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            return false;
+        }
+    }
+
+    private static class CacheKey {
+        private final String namespace;
+        private final Class<?> entityClass;
+        private final String query;
+
+        CacheKey(Class<?> entityClass, String query) {
+            this.namespace = Strings.nullToEmpty(NamespaceManager.get());
+            this.entityClass = entityClass;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return entityClass == that.entityClass && namespace.equals(that.namespace) && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, entityClass, query);
+        }
+    }
+
+    private static class CacheEntry {
+        private final Result<ScoredDocument> result;
+        private final long generation;
+        private final long expiresAt;
+
+        CacheEntry(Result<ScoredDocument> result, long generation, long expiresAt) {
+            this.result = result;
+            this.generation = generation;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
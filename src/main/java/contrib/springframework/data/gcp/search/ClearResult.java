@@ -0,0 +1,55 @@
+package contrib.springframework.data.gcp.search;
+
+import javax.annotation.Nullable;
+
+/**
+ * The progress or outcome of clearing a search index.
+ */
+public class ClearResult {
+
+    private final int count;
+    private final String lastId;
+    private final boolean complete;
+
+    /**
+     * Create a new instance.
+     *
+     * @param count    Number of documents removed.
+     * @param lastId   Id of the last document removed, or {@code null} if none were removed.
+     * @param complete Whether the index has been completely cleared.
+     */
+    public ClearResult(int count, @Nullable String lastId, boolean complete) {
+        this.count = count;
+        this.lastId = lastId;
+        this.complete = complete;
+    }
+
+    /**
+     * @return Number of documents removed.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Documents are removed in id order, so an incomplete clear can be resumed from this id.
+     *
+     * @return Id of the last document removed, or {@code null} if none were removed.
+     */
+    @Nullable
+    public String getLastId() {
+        return lastId;
+    }
+
+    /**
+     * @return {@code true} if the index has been completely cleared, {@code false} if the clear stopped early.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return "ClearResult{count=" + count + ", lastId='" + lastId + "', complete=" + complete + '}';
+    }
+}
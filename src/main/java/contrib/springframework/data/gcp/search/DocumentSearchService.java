@@ -0,0 +1,47 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.search.Document;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * A search service that manages its own indexes and can build the search document of an entity separately from writing
+ * it, so the state of an entity can be captured when it is saved and its document written later, e.g. by a
+ * {@link WriteBehindSearchService}.
+ */
+public interface DocumentSearchService extends ReindexingSearchService {
+
+    /**
+     * Build the search document of an entity without writing it.
+     *
+     * @param id     The id of the document.
+     * @param entity The entity.
+     * @param <E>    Entity type.
+     * @return The document, or {@code null} if the entity type has no indexed fields.
+     * @throws OversizeDocumentException If the document exceeds the maximum document size and may not be truncated.
+     */
+    @Nullable
+    <E> Document buildDocument(String id, E entity);
+
+    /**
+     * Write documents built by {@link #buildDocument(String, Object)}.
+     * While the index is being rebuilt, documents are written to both the current and the pending index.
+     *
+     * @param entityClass The class of the entities the documents were built from.
+     * @param documents   The documents to write.
+     * @return {@link Runnable} that can be used to wait for the operation to complete.
+     */
+    @Nonnull
+    Runnable indexDocumentsAsync(Class<?> entityClass, List<Document> documents);
+
+    /**
+     * Get the name of the index an entity class is written to, before any index alias is resolved.
+     *
+     * @param entityClass The entity class.
+     * @return Index name.
+     */
+    String getIndexName(Class<?> entityClass);
+}
@@ -0,0 +1,81 @@
+package contrib.springframework.data.gcp.search;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Maps the index name of an entity class to the physical index that currently serves it.
+ * <p>
+ * While an index is being rebuilt the alias also has a pending target. Writes go to both targets and queries go to the
+ * current target until the rebuild is complete.
+ */
+public class IndexAlias {
+
+    private final String name;
+    private final String current;
+    private final String pending;
+
+    /**
+     * Create a new instance.
+     *
+     * @param name    The alias name, as produced by the index naming strategy.
+     * @param current Name of the index that currently serves queries.
+     * @param pending Name of the index being rebuilt, or {@code null}.
+     */
+    public IndexAlias(String name, String current, @Nullable String pending) {
+        this.name = name;
+        this.current = current;
+        this.pending = pending;
+    }
+
+    /**
+     * @return The alias name, as produced by the index naming strategy.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Name of the index that currently serves queries.
+     */
+    public String getCurrent() {
+        return current;
+    }
+
+    /**
+     * @return Name of the index being rebuilt, or {@code null} if no rebuild is in progress.
+     */
+    @Nullable
+    public String getPending() {
+        return pending;
+    }
+
+    /**
+     * @return {@code true} if a rebuild is in progress.
+     */
+    public boolean isRebuilding() {
+        return pending != null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        IndexAlias that = (IndexAlias) o;
+        return name.equals(that.name) && current.equals(that.current) && Objects.equals(pending, that.pending);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, current, pending);
+    }
+
+    @Override
+    public String toString() {
+        return "IndexAlias{name='" + name + "', current='" + current + "', pending='" + pending + "'}";
+    }
+}
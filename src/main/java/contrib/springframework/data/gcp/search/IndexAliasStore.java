@@ -0,0 +1,129 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Transaction;
+
+import javax.annotation.Nullable;
+import java.util.function.Function;
+
+/**
+ * Stores {@link IndexAlias}es in the datastore, in the current namespace.
+ * <p>
+ * Alias changes are made in a datastore transaction, so switching an alias to a rebuilt index is atomic.
+ */
+public class IndexAliasStore {
+    /**
+     * Datastore kind used to store aliases.
+     */
+    public static final String KIND = "SearchIndexAlias";
+
+    private static final String CURRENT = "current";
+    private static final String PENDING = "pending";
+
+    private final DatastoreService datastore;
+
+    /**
+     * Create a new instance.
+     *
+     * @param datastore Datastore service.
+     */
+    public IndexAliasStore(DatastoreService datastore) {
+        this.datastore = datastore;
+    }
+
+    /**
+     * Get an alias. An alias that has never been rebuilt targets the index of the same name.
+     *
+     * @param name Alias name.
+     * @return The alias.
+     */
+    public IndexAlias get(String name) {
+        return get(null, name);
+    }
+
+    /**
+     * Start rebuilding an alias into a new index. Writes will go to both the current and the pending index.
+     * Beginning a rebuild that is already in progress for the same pending index has no effect.
+     *
+     * @param name    Alias name.
+     * @param pending Name of the index to rebuild into.
+     * @return The updated alias.
+     * @throws IllegalStateException If a rebuild into a different index is already in progress.
+     */
+    public IndexAlias beginRebuild(String name, String pending) {
+        return update(name, alias -> {
+            if (alias.isRebuilding() && !alias.getPending().equals(pending)) {
+                throw new IllegalStateException(String.format("Index '%s' is already being rebuilt into '%s'", name, alias.getPending()));
+            }
+            if (alias.getCurrent().equals(pending)) {
+                throw new IllegalStateException(String.format("Index '%s' is already served by '%s'", name, pending));
+            }
+            return new IndexAlias(name, alias.getCurrent(), pending);
+        });
+    }
+
+    /**
+     * Atomically switch an alias to its pending index.
+     *
+     * @param name Alias name.
+     * @return The updated alias.
+     * @throws IllegalStateException If no rebuild is in progress.
+     */
+    public IndexAlias completeRebuild(String name) {
+        return update(name, alias -> {
+            if (!alias.isRebuilding()) {
+                throw new IllegalStateException(String.format("Index '%s' is not being rebuilt", name));
+            }
+            return new IndexAlias(name, alias.getPending(), null);
+        });
+    }
+
+    /**
+     * Abandon a rebuild, leaving the alias on its current index.
+     *
+     * @param name Alias name.
+     * @return The updated alias.
+     */
+    public IndexAlias abortRebuild(String name) {
+        return update(name, alias -> new IndexAlias(name, alias.getCurrent(), null));
+    }
+
+    private IndexAlias update(String name, Function<IndexAlias, IndexAlias> change) {
+        Transaction transaction = datastore.beginTransaction();
+        try {
+            IndexAlias updated = change.apply(get(transaction, name));
+
+            Entity entity = new Entity(getKey(name));
+            entity.setUnindexedProperty(CURRENT, updated.getCurrent());
+            entity.setUnindexedProperty(PENDING, updated.getPending());
+            datastore.put(transaction, entity);
+
+            transaction.commit();
+            return updated;
+        } finally {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+        }
+    }
+
+    private IndexAlias get(@Nullable Transaction transaction, String name) {
+        try {
+            return toAlias(datastore.get(transaction, getKey(name)));
+        } catch (EntityNotFoundException e) {
+            return new IndexAlias(name, name, null);
+        }
+    }
+
+    private static IndexAlias toAlias(Entity entity) {
+        return new IndexAlias(entity.getKey().getName(), (String) entity.getProperty(CURRENT), (String) entity.getProperty(PENDING));
+    }
+
+    private static Key getKey(String name) {
+        return KeyFactory.createKey(KIND, name);
+    }
+}
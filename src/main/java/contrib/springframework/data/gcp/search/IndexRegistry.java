@@ -0,0 +1,169 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.search.Index;
+import com.google.appengine.api.search.IndexSpec;
+import com.google.appengine.api.search.SearchServiceFactory;
+import com.google.common.base.Strings;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves and caches Search API {@link Index} handles for entity classes.
+ * <p>
+ * Handles are bound to the namespace that was active when they were created, so they are cached per namespace as well
+ * as per entity class. Call {@link #invalidate()} if the way the underlying {@link SearchMetadata} names indexes
+ * changes.
+ * <p>
+ * When an {@link IndexAliasStore} is configured, index names are resolved through their {@link IndexAlias} and
+ * re-read after the refresh interval, so an alias switch made by another instance is picked up. Queries use the
+ * current index of the alias and writes go to both the current and the pending index.
+ */
+public class IndexRegistry {
+
+    private final SearchMetadata searchMetadata;
+    private final IndexAliasStore aliasStore;
+    private final long refreshIntervalMillis;
+    private final ConcurrentMap<String, ConcurrentMap<Class<?>, IndexTarget>> targetsByNamespace = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new instance that does not use aliases.
+     *
+     * @param searchMetadata Search metadata used to resolve index names.
+     */
+    public IndexRegistry(SearchMetadata searchMetadata) {
+        this(searchMetadata, null, 0);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchMetadata        Search metadata used to resolve index names.
+     * @param aliasStore            Store used to resolve index aliases, or {@code null} to not use aliases.
+     * @param refreshIntervalMillis How long a resolved alias is cached before it is read again.
+     */
+    public IndexRegistry(SearchMetadata searchMetadata, @Nullable IndexAliasStore aliasStore, long refreshIntervalMillis) {
+        Assert.isTrue(aliasStore == null || refreshIntervalMillis > 0, "refreshIntervalMillis must be greater than zero");
+        this.searchMetadata = searchMetadata;
+        this.aliasStore = aliasStore;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    /**
+     * Get the index that serves queries for the given entity class in the current namespace.
+     *
+     * @param entityClass The entity class.
+     * @return Search index.
+     */
+    public Index get(Class<?> entityClass) {
+        return getTarget(entityClass).read;
+    }
+
+    /**
+     * Get the indexes that writes for the given entity class should go to in the current namespace.
+     * This is the current index, followed by the pending index if the index is being rebuilt.
+     *
+     * @param entityClass The entity class.
+     * @return Search indexes.
+     */
+    public List<Index> getWriteIndexes(Class<?> entityClass) {
+        return getTarget(entityClass).writes;
+    }
+
+    /**
+     * Get the alias for the given entity class in the current namespace.
+     *
+     * @param entityClass The entity class.
+     * @return Index alias.
+     */
+    public IndexAlias getAlias(Class<?> entityClass) {
+        return getTarget(entityClass).alias;
+    }
+
+    /**
+     * @return How long a resolved alias is cached, or zero if aliases are not used.
+     */
+    public long getRefreshIntervalMillis() {
+        return aliasStore != null ? refreshIntervalMillis : 0;
+    }
+
+    /**
+     * @return Alias store, or {@code null} if aliases are not used.
+     */
+    @Nullable
+    public IndexAliasStore getAliasStore() {
+        return aliasStore;
+    }
+
+    /**
+     * Get an index by its physical name in the current namespace.
+     *
+     * @param indexName The index name.
+     * @return Search index.
+     */
+    public Index getByName(String indexName) {
+        return SearchServiceFactory.getSearchService().getIndex(IndexSpec.newBuilder().setName(indexName));
+    }
+
+    /**
+     * Discard all cached index handles.
+     */
+    public void invalidate() {
+        targetsByNamespace.clear();
+    }
+
+    /**
+     * Discard the cached index handles for the given entity class in every namespace.
+     *
+     * @param entityClass The entity class.
+     */
+    public void invalidate(Class<?> entityClass) {
+        targetsByNamespace.values().forEach(targets -> targets.remove(entityClass));
+    }
+
+    private IndexTarget getTarget(Class<?> entityClass) {
+        ConcurrentMap<Class<?>, IndexTarget> targets = targetsByNamespace
+                .computeIfAbsent(Strings.nullToEmpty(NamespaceManager.get()), namespace -> new ConcurrentHashMap<>());
+
+        IndexTarget target = targets.computeIfAbsent(entityClass, this::resolve);
+        if (target.isExpired()) {
+            target = targets.compute(entityClass, (type, existing) -> existing != null && !existing.isExpired() ? existing : resolve(type));
+        }
+        return target;
+    }
+
+    private IndexTarget resolve(Class<?> entityClass) {
+        String name = searchMetadata.getIndexName(entityClass);
+        if (aliasStore == null) {
+            return new IndexTarget(new IndexAlias(name, name, null), Long.MAX_VALUE);
+        }
+        return new IndexTarget(aliasStore.get(name), System.currentTimeMillis() + refreshIntervalMillis);
+    }
+
+    private class IndexTarget {
+        private final IndexAlias alias;
+        private final Index read;
+        private final List<Index> writes;
+        private final long expiresAt;
+
+        IndexTarget(IndexAlias alias, long expiresAt) {
+            this.alias = alias;
+            this.read = getByName(alias.getCurrent());
+            this.writes = alias.isRebuilding()
+                    ? Collections.unmodifiableList(Arrays.asList(read, getByName(alias.getPending())))
+                    : Collections.singletonList(read);
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package contrib.springframework.data.gcp.search;
 
 import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.query.MultiResult;
 import contrib.springframework.data.gcp.search.query.Query;
 import contrib.springframework.data.gcp.search.query.QueryBuilder;
 import contrib.springframework.data.gcp.search.query.Result;
+import contrib.springframework.data.gcp.search.query.ResultImpl;
 
 import javax.annotation.Nonnull;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.google.common.util.concurrent.Runnables.doNothing;
@@ -29,6 +35,24 @@ public class NoOpSearchService implements SearchService {
         throw new java.lang.UnsupportedOperationException(NOPE);
     }
 
+    /**
+     * @return An empty result, with nothing found for any of the queries.
+     */
+    @Override
+    public MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        Map<Class<?>, Long> totals = new LinkedHashMap<>();
+        queries.forEach(query -> totals.put(query.getResultType(), 0L));
+        return new MultiResult(Collections.emptyList(), new IdentityHashMap<>(), totals);
+    }
+
+    /**
+     * @return An empty result.
+     */
+    @Override
+    public <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        return new ResultImpl<>(executeAll(Collections.singletonList(query), 0).getMetadata(), results -> Collections.emptyList());
+    }
+
     @Override
     public <E> String getId(E entity) {
         return null;
@@ -58,14 +82,10 @@ public class NoOpSearchService implements SearchService {
         return doNothing();
     }
 
+    @Nonnull
     @Override
-    public <E> void unindex(Class<E> entityClass, String id) {
-        //no-op
-    }
-
-    @Override
-    public <E> void unindex(Class<E> entityClass, Collection<String> ids) {
-        //no-op
+    public <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids) {
+        return doNothing();
     }
 
     @Override
@@ -0,0 +1,59 @@
+package contrib.springframework.data.gcp.search;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+
+/**
+ * A {@link SearchService} that can rebuild the index of an entity class into a new, versioned index without search
+ * downtime, as done by the {@link contrib.springframework.data.gcp.objectify.repository.ReindexJob}.
+ */
+public interface ReindexingSearchService extends SearchService {
+
+    /**
+     * Get how long an instance may keep using an index alias it has already resolved. Until this time has passed after
+     * an alias change, other instances may still be reading and writing the indexes of the previous alias.
+     *
+     * @return Alias refresh interval in milliseconds, or zero if aliases are not cached.
+     */
+    long getIndexAliasRefreshInterval();
+
+    /**
+     * Begin rebuilding the index for an entity class into a new, versioned index.
+     * Until the rebuild is {@link #completeReindex(Class) completed} queries are served by the current index, and
+     * index and unindex operations are applied to both indexes.
+     *
+     * @param entityClass Class of entity to rebuild the index for.
+     * @param version     Version of the new index.
+     * @return The index alias.
+     */
+    IndexAlias beginReindex(Class<?> entityClass, String version);
+
+    /**
+     * Add a collection of entities to the index that is being rebuilt for their entity class only.
+     * Note: The index operation is performed asynchronously. The returned {@link Runnable} can be invoked to
+     * wait for the operation to complete.
+     *
+     * @param entities Map of entities keyed by the entity id.
+     * @param <E>      Entity type.
+     * @return Index operation completion hook.
+     */
+    @Nonnull
+    <E> Runnable reindexAsync(Map<String, E> entities);
+
+    /**
+     * Atomically switch queries for an entity class to the rebuilt index.
+     * The previous index is left in place and can be cleared once no instance is using it.
+     *
+     * @param entityClass Class of entity the index was rebuilt for.
+     * @return The index alias.
+     */
+    IndexAlias completeReindex(Class<?> entityClass);
+
+    /**
+     * Abandon rebuilding the index for an entity class, leaving queries on the current index.
+     *
+     * @param entityClass Class of entity the index was being rebuilt for.
+     * @return The index alias.
+     */
+    IndexAlias abortReindex(Class<?> entityClass);
+}
@@ -36,4 +36,13 @@ public @interface SearchIndex {
      * @return Index type.
      */
     IndexType type() default IndexType.AUTO;
+
+    /**
+     * Also index the value as a facet, so matching documents can be counted by value or numeric range with
+     * {@link contrib.springframework.data.gcp.search.query.QueryBuilder#facet(String) facet requests}.
+     * Only {@link IndexType#NUMBER} values and values indexed as strings can be facets.
+     *
+     * @return Whether the value is indexed as a facet.
+     */
+    boolean facet() default false;
 }
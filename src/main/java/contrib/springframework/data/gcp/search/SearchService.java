@@ -2,14 +2,24 @@ package contrib.springframework.data.gcp.search;
 
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.conversion.DocumentReader;
+import contrib.springframework.data.gcp.search.query.DefaultPreparedQuery;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.PagingResultIterator;
+import contrib.springframework.data.gcp.search.query.PreparedQuery;
 import contrib.springframework.data.gcp.search.query.Query;
 import contrib.springframework.data.gcp.search.query.QueryBuilder;
+import contrib.springframework.data.gcp.search.query.QueryParameter;
 import contrib.springframework.data.gcp.search.query.Result;
 import contrib.springframework.data.gcp.search.query.ResultImpl;
+import contrib.springframework.data.gcp.search.query.ResultMerger;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -50,6 +60,105 @@ public interface SearchService {
         return new ResultImpl<>(rawResult, resultTransformer);
     }
 
+    /**
+     * Start executing a {@link Query}.
+     * The search is issued immediately and completed by the returned supplier, so several searches can be started and
+     * then completed in turn, overlapping their round trips. By default the query is executed synchronously.
+     *
+     * @param query The query.
+     * @return Supplier of the query result.
+     */
+    @Nonnull
+    default Supplier<Result<ScoredDocument>> executeAsync(Query<?> query) {
+        Result<ScoredDocument> result = execute(query);
+        return () -> result;
+    }
+
+    /**
+     * Start executing a {@link Query}.
+     *
+     * @param query             The query.
+     * @param resultTransformer Transformer used to transform the result.
+     * @param <T>               Result type.
+     * @return Supplier of the query result.
+     * @see #executeAsync(Query)
+     */
+    @Nonnull
+    default <T> Supplier<Result<T>> executeAsync(Query<?> query, Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        Supplier<Result<ScoredDocument>> search = executeAsync(query);
+        return () -> new ResultImpl<>(search.get().getMetadata(), resultTransformer);
+    }
+
+    /**
+     * Execute queries against the indexes of several entity classes and merge their results.
+     * The queries are issued concurrently, so the latency is that of the slowest index. Results are merged by the
+     * common sort of the queries, or by document rank when they are not sorted.
+     *
+     * @param queries The queries, one per entity class.
+     * @param limit   Maximum number of merged results to return.
+     * @return Merged result, with the number of documents found for each entity class.
+     * @throws IllegalArgumentException If the queries are not sorted alike, or are sorted and only retrieve ids.
+     * @see ResultMerger
+     */
+    default MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        throw new UnsupportedOperationException("Multi-index search is not supported by " + getClass().getName());
+    }
+
+    /**
+     * Execute a {@link Query} and read each matching document into a projection type, without loading the entities.
+     * Only the fields of the projection type that are {@link SearchIndex} fields of the entity are populated, along with
+     * a field annotated with {@link SearchId}. Set the {@link QueryBuilder#returnFields(String...) returned fields} of
+     * the query to limit the document fields fetched from the index.
+     *
+     * @param query          The query.
+     * @param projectionType The type to read each document into.
+     * @param <T>            Projection type.
+     * @return Query result.
+     * @see DocumentReader
+     */
+    default <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        throw new UnsupportedOperationException("Projections are not supported by " + getClass().getName());
+    }
+
+    /**
+     * Stream every result of a {@link Query}, following cursors page by page.
+     * The stream is lazily evaluated and holds at most two pages at a time. The query limit sets the page size.
+     *
+     * @param query The query.
+     * @return Result stream.
+     */
+    default Stream<ScoredDocument> stream(Query<?> query) {
+        return stream(query, results -> new ArrayList<>(results.getResults()));
+    }
+
+    /**
+     * Stream every result of a {@link Query}, following cursors page by page.
+     *
+     * @param query             The query.
+     * @param resultTransformer Transformer used to transform each page of results.
+     * @param <T>               Result type.
+     * @return Result stream.
+     * @see #stream(Query)
+     */
+    default <T> Stream<T> stream(Query<?> query, Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        return PagingResultIterator.stream(query, page -> {
+            Supplier<Result<ScoredDocument>> search = executeAsync(page);
+            return () -> search.get().getMetadata();
+        }, resultTransformer);
+    }
+
+    /**
+     * Prepare a {@link Query} for repeated execution.
+     * Filter values may be {@link QueryParameter} placeholders that are bound each time the query is executed.
+     *
+     * @param query The query.
+     * @param <E>   Result type.
+     * @return Prepared query.
+     */
+    default <E> PreparedQuery<E> prepare(Query<E> query) {
+        return new DefaultPreparedQuery<>(this, query);
+    }
+
     /**
      * Get the id of a search entity.
      *
@@ -214,7 +323,9 @@ public interface SearchService {
      * @param id          The entity id.
      * @param <E>         Entity type.
      */
-    <E> void unindex(Class<E> entityClass, String id);
+    default <E> void unindex(Class<E> entityClass, String id) {
+        unindexAsync(entityClass, id).run();
+    }
 
     /**
      * Remove a collection of entities from the search indexes by id.
@@ -223,7 +334,9 @@ public interface SearchService {
      * @param ids         The entity ids.
      * @param <E>         Entity type.
      */
-    <E> void unindex(Class<E> entityClass, Collection<String> ids);
+    default <E> void unindex(Class<E> entityClass, Collection<String> ids) {
+        unindexAsync(entityClass, ids).run();
+    }
 
     /**
      * Remove a collection of entities from the search indexes by id.
@@ -247,6 +360,49 @@ public interface SearchService {
         unindex(entityClass, Arrays.asList(ids));
     }
 
+    /**
+     * Remove an entity from the search indexes by id.
+     * Note: The unindex operation is performed asynchronously. The returned {@link Runnable} can be invoked to
+     * wait for the operation to complete.
+     *
+     * @param entityClass Class of entity to unindex.
+     * @param id          The entity id.
+     * @param <E>         Entity type.
+     * @return Unindex operation completion hook.
+     */
+    @Nonnull
+    default <E> Runnable unindexAsync(Class<E> entityClass, String id) {
+        return unindexAsync(entityClass, Collections.singletonList(id));
+    }
+
+    /**
+     * Remove a collection of entities from the search indexes by id.
+     * Note: The unindex operation is performed asynchronously. The returned {@link Runnable} can be invoked to
+     * wait for the operation to complete.
+     *
+     * @param entityClass Class of entity to unindex.
+     * @param ids         The entity ids.
+     * @param <E>         Entity type.
+     * @return Unindex operation completion hook.
+     */
+    @Nonnull
+    <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids);
+
+    /**
+     * Remove a collection of entities from the search indexes by id.
+     * Note: The unindex operation is performed asynchronously. The returned {@link Runnable} can be invoked to
+     * wait for the operation to complete.
+     *
+     * @param entityClass Class of entity to unindex.
+     * @param ids         The entity ids.
+     * @param <E>         Entity type.
+     * @return Unindex operation completion hook.
+     */
+    @Nonnull
+    default <E> Runnable unindexAsync(Class<E> entityClass, Stream<String> ids) {
+        return unindexAsync(entityClass, ids.collect(Collectors.toList()));
+    }
+
     /**
      * Clear a search index of all entries.
      *
@@ -255,4 +411,26 @@ public interface SearchService {
      * @return Number of entries removed.
      */
     <E> int clear(Class<E> entityClass);
+
+    /**
+     * Clear a search index, resuming after a given document id and stopping once a timeout has elapsed.
+     * Documents are removed in id order, so an incomplete clear can be resumed by passing the
+     * {@link ClearResult#getLastId() last id} of the previous result as the start id.
+     * <p>
+     * Implementations that do not support resumable clears remove all entries in one call.
+     *
+     * @param entityClass      Class of entity to clear index for.
+     * @param startId          Only remove documents with ids after this id, or {@code null} to start at the beginning.
+     * @param timeoutMillis    Stop after this many milliseconds, or zero for no limit.
+     * @param progressListener Notified after each batch of documents is submitted for removal, may be {@code null}.
+     * @param <E>              Entity type.
+     * @return The outcome of the clear.
+     */
+    default <E> ClearResult clear(Class<E> entityClass, @Nullable String startId, long timeoutMillis, @Nullable Consumer<ClearResult> progressListener) {
+        ClearResult result = new ClearResult(clear(entityClass), null, true);
+        if (progressListener != null) {
+            progressListener.accept(result);
+        }
+        return result;
+    }
 }
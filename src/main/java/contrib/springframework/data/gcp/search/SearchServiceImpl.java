@@ -2,41 +2,91 @@ package contrib.springframework.data.gcp.search;
 
 import com.google.appengine.api.search.Document;
 import com.google.appengine.api.search.GetRequest;
+import com.google.appengine.api.search.GetResponse;
 import com.google.appengine.api.search.Index;
-import com.google.appengine.api.search.IndexSpec;
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
-import com.google.appengine.api.search.SearchServiceFactory;
-import com.google.common.util.concurrent.Runnables;
+import com.google.common.base.Suppliers;
+import com.google.common.base.Throwables;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
 import contrib.springframework.data.gcp.search.conversion.DocumentBuilder;
+import contrib.springframework.data.gcp.search.conversion.DocumentReader;
+import contrib.springframework.data.gcp.search.conversion.OversizePolicy;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metrics.NoOpSearchMetrics;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import contrib.springframework.data.gcp.search.metrics.SearchOperation;
+import contrib.springframework.data.gcp.search.metrics.TimedFuture;
+import contrib.springframework.data.gcp.search.misc.BatchPipeline;
+import contrib.springframework.data.gcp.search.misc.DocumentFingerprintCache;
+import contrib.springframework.data.gcp.search.misc.DocumentSizeEstimator;
 import contrib.springframework.data.gcp.search.misc.IndexOperation;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.PreparedQuery;
 import contrib.springframework.data.gcp.search.query.Query;
 import contrib.springframework.data.gcp.search.query.QueryBuilder;
 import contrib.springframework.data.gcp.search.query.QueryCompiler;
 import contrib.springframework.data.gcp.search.query.QueryImpl;
+import contrib.springframework.data.gcp.search.query.QueryPlan;
 import contrib.springframework.data.gcp.search.query.Result;
 import contrib.springframework.data.gcp.search.query.ResultImpl;
+import contrib.springframework.data.gcp.search.query.ResultMerger;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.google.appengine.api.search.checkers.SearchApiLimits.PUT_MAXIMUM_DOCS_PER_REQUEST;
 import static com.google.common.util.concurrent.Runnables.doNothing;
 
 /**
  * {@link SearchService} implementation.
  */
-public class SearchServiceImpl implements SearchService {
+public class SearchServiceImpl implements DocumentSearchService, AutoCloseable {
+
+    /**
+     * Default number of batch requests that may be in flight at once.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 5;
+
+    /**
+     * Default maximum estimated size in bytes of the documents sent in a single put request.
+     */
+    public static final long DEFAULT_MAX_BATCH_BYTES = 10 * 1024 * 1024;
 
     private final SearchMetadata searchMetadata;
     private final DocumentBuilder documentBuilder;
-    private final ConversionService conversionService;
+    private IndexRegistry indexRegistry;
     private QueryCompiler queryCompiler;
+    private ResultMerger resultMerger;
+    private DocumentReader documentReader;
+    private int batchSize = PUT_MAXIMUM_DOCS_PER_REQUEST;
+    private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
+    private long maxBatchBytes = DEFAULT_MAX_BATCH_BYTES;
+    private DocumentFingerprintCache fingerprintCache;
+    private SearchMetrics metrics = new NoOpSearchMetrics();
+    private Executor metricsExecutor;
 
     /**
      * Create a new instance.
@@ -46,9 +96,148 @@ public class SearchServiceImpl implements SearchService {
      */
     public SearchServiceImpl(SearchMetadata searchMetadata, ConversionService conversionService) {
         this.searchMetadata = searchMetadata;
-        this.conversionService = conversionService;
         documentBuilder = new DocumentBuilder(searchMetadata, conversionService);
+        indexRegistry = new IndexRegistry(searchMetadata);
         queryCompiler = new QueryCompiler(searchMetadata, conversionService);
+        resultMerger = new ResultMerger(searchMetadata);
+        documentReader = new DocumentReader(searchMetadata, conversionService);
+    }
+
+    /**
+     * Set the maximum number of documents sent to the Search API in a single request.
+     *
+     * @param batchSize Batch size, between 1 and the Search API limit of 200.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setBatchSize(int batchSize) {
+        Assert.isTrue(batchSize > 0 && batchSize <= PUT_MAXIMUM_DOCS_PER_REQUEST,
+                "batchSize must be between 1 and " + PUT_MAXIMUM_DOCS_PER_REQUEST);
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of batch requests that may be in flight at once when indexing large collections.
+     *
+     * @param maxConcurrentBatches Maximum number of concurrent batch requests.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setMaxConcurrentBatches(int maxConcurrentBatches) {
+        Assert.isTrue(maxConcurrentBatches > 0, "maxConcurrentBatches must be greater than zero");
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        return this;
+    }
+
+    /**
+     * Set the maximum estimated size of the documents sent to the Search API in a single put request.
+     * A batch is sent once it reaches either the {@link #setBatchSize(int) batch size} or this size.
+     *
+     * @param maxBatchBytes Maximum batch size in bytes.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setMaxBatchBytes(long maxBatchBytes) {
+        Assert.isTrue(maxBatchBytes > 0, "maxBatchBytes must be greater than zero");
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    /**
+     * Set the maximum estimated size of a single document.
+     *
+     * @param maxDocumentSize Maximum document size in bytes.
+     * @return This service, for method chaining.
+     * @see DocumentBuilder#setMaxDocumentSize(long)
+     */
+    public SearchServiceImpl setMaxDocumentSize(long maxDocumentSize) {
+        documentBuilder.setMaxDocumentSize(maxDocumentSize);
+        return this;
+    }
+
+    /**
+     * Set what to do with fields that would take a document over the maximum document size.
+     *
+     * @param oversizePolicy Oversize policy.
+     * @return This service, for method chaining.
+     * @see DocumentBuilder#setOversizePolicy(OversizePolicy)
+     */
+    public SearchServiceImpl setOversizePolicy(OversizePolicy oversizePolicy) {
+        documentBuilder.setOversizePolicy(oversizePolicy);
+        return this;
+    }
+
+    /**
+     * Set the registry used to resolve indexes, e.g. to enable index aliasing.
+     *
+     * @param indexRegistry Index registry.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setIndexRegistry(IndexRegistry indexRegistry) {
+        Assert.notNull(indexRegistry, "indexRegistry must not be null");
+        this.indexRegistry = indexRegistry;
+        return this;
+    }
+
+    /**
+     * Set the metrics used to instrument Search API calls, document building and query compilation.
+     *
+     * @param metrics Search metrics.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setMetrics(SearchMetrics metrics) {
+        Assert.notNull(metrics, "metrics must not be null");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Set the executor used to wait for asynchronous Search API calls, so their duration is recorded as soon as they
+     * complete rather than when their result is collected, or never if it is not.
+     * On App Engine the executor must run tasks on threads with access to the API environment, e.g. threads created by
+     * {@link com.google.appengine.api.ThreadManager#backgroundThreadFactory()}.
+     *
+     * @param metricsExecutor Executor used to time Search API calls, or {@code null} to time them when collected.
+     * @return This service, for method chaining.
+     * @see TimedFuture
+     */
+    public SearchServiceImpl setMetricsExecutor(@Nullable Executor metricsExecutor) {
+        this.metricsExecutor = metricsExecutor;
+        return this;
+    }
+
+    /**
+     * Shut down the metrics executor if it is an {@link ExecutorService}, waiting for outstanding calls to be recorded.
+     * Calls issued from then on are timed when their result is collected.
+     */
+    @Override
+    public void close() {
+        if (metricsExecutor instanceof ExecutorService) {
+            ExecutorService executor = (ExecutorService) metricsExecutor;
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Enable fingerprint mode. Documents whose fields are unchanged since they were last indexed are not re-indexed.
+     *
+     * @param fingerprintCache Fingerprint cache, or {@code null} to always index documents.
+     * @return This service, for method chaining.
+     */
+    public SearchServiceImpl setFingerprintCache(@Nullable DocumentFingerprintCache fingerprintCache) {
+        this.fingerprintCache = fingerprintCache;
+        return this;
+    }
+
+    /**
+     * @return The fingerprint cache, or {@code null} if fingerprint mode is disabled.
+     */
+    @Nullable
+    public DocumentFingerprintCache getFingerprintCache() {
+        return fingerprintCache;
     }
 
     @Nonnull
@@ -59,12 +248,109 @@ public class SearchServiceImpl implements SearchService {
 
     @Override
     public Result<ScoredDocument> execute(Query<?> query) {
-        Results<ScoredDocument> result = getIndex(query.getResultType())
-                .search(queryCompiler.apply(query));
+        return execute(query.getResultType(), () -> queryCompiler.apply(query));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The query is compiled into a {@link QueryPlan} that is shared by every query of the same shape, so executing it
+     * only converts and escapes the parameter values.
+     */
+    @Override
+    public <E> PreparedQuery<E> prepare(Query<E> query) {
+        QueryPlan plan = queryCompiler.prepare(query);
+        return new PreparedQuery<E>() {
+            @Override
+            public Class<E> getResultType() {
+                return query.getResultType();
+            }
+
+            @Override
+            public Set<String> getParameterNames() {
+                return plan.getParameterNames();
+            }
+
+            @Override
+            public Result<ScoredDocument> execute(Map<String, ?> parameters) {
+                return SearchServiceImpl.this.execute(query.getResultType(), () -> plan.bind(parameters));
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The search is issued with {@link Index#searchAsync} and the returned supplier waits for its response once, on
+     * the first call. Nothing that depends on the response, such as loading entities, can start before then.
+     */
+    @Nonnull
+    @Override
+    public Supplier<Result<ScoredDocument>> executeAsync(Query<?> query) {
+        Index index = getIndex(query.getResultType());
+
+        long compileStart = System.nanoTime();
+        com.google.appengine.api.search.Query compiled = queryCompiler.apply(query);
+        metrics.recordQueryCompile(query.getResultType(), System.nanoTime() - compileStart);
+
+        Future<Results<ScoredDocument>> search = timed(index.searchAsync(compiled), index, SearchOperation.SEARCH);
+        return Suppliers.memoize(() -> {
+            Results<ScoredDocument> result = getResult(search);
+            metrics.recordSearchResult(index.getName(), result.getNumberFound(), result.getNumberReturned());
+            return new ResultImpl<>(result, x -> new ArrayList<>(x.getResults()));
+        });
+    }
+
+    @Override
+    public MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        List<Supplier<Result<ScoredDocument>>> searches = queries.stream()
+                .map(this::executeAsync)
+                .collect(Collectors.toList());
+
+        List<Result<ScoredDocument>> results = searches.stream()
+                .map(Supplier::get)
+                .collect(Collectors.toList());
+        return resultMerger.merge(queries, results, limit);
+    }
+
+    @Override
+    public <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        return new ResultImpl<>(execute(query).getMetadata(), documentReader.reader(query.getResultType(), projectionType));
+    }
+
+    private Result<ScoredDocument> execute(Class<?> resultType, Supplier<com.google.appengine.api.search.Query> compiler) {
+        Index index = getIndex(resultType);
+
+        long compileStart = System.nanoTime();
+        com.google.appengine.api.search.Query compiled = compiler.get();
+        metrics.recordQueryCompile(resultType, System.nanoTime() - compileStart);
+
+        long searchStart = System.nanoTime();
+        Results<ScoredDocument> result;
+        try {
+            result = index.search(compiled);
+        } catch (RuntimeException e) {
+            metrics.recordOperation(index.getName(), SearchOperation.SEARCH, System.nanoTime() - searchStart, false);
+            throw e;
+        }
+        metrics.recordOperation(index.getName(), SearchOperation.SEARCH, System.nanoTime() - searchStart, true);
+        metrics.recordSearchResult(index.getName(), result.getNumberFound(), result.getNumberReturned());
 
         return new ResultImpl<>(result, x -> new ArrayList<>(x.getResults()));
     }
 
+    /**
+     * Wait for an asynchronous Search API call, rethrowing an unchecked failure as is.
+     */
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
     @Override
     public <E> String getId(E entity) {
         return searchMetadata.getId(entity);
@@ -73,74 +359,303 @@ public class SearchServiceImpl implements SearchService {
     @Nonnull
     @Override
     public <E> Runnable indexAsync(E entity, String id) {
+        return indexAsync(Collections.singletonMap(id, entity));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * While the index is being rebuilt, documents are written to both the current and the pending index.
+     */
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(Map<String, E> entities) {
+        Class<?> entityClass = getEntityClass(entities);
+        if (entityClass == null) {
+            return doNothing();
+        }
+        return putAsync(indexRegistry.getWriteIndexes(entityClass), entities);
+    }
+
+    @Nullable
+    @Override
+    public <E> Document buildDocument(String id, E entity) {
         if (!searchMetadata.hasIndexedFields(entity.getClass())) {
-            return Runnables.doNothing();
+            return null;
         }
 
-        Index index = getIndex(entity.getClass());
+        long start = System.nanoTime();
         Document document = documentBuilder.apply(id, entity);
-
-        return new IndexOperation(
-                index.putAsync(document)
-        );
+        metrics.recordDocumentBuild(entity.getClass(), System.nanoTime() - start);
+        return document;
     }
 
     @Nonnull
     @Override
-    public <E> Runnable indexAsync(Map<String, E> entities) {
-        if (entities.isEmpty()) {
+    public Runnable indexDocumentsAsync(Class<?> entityClass, List<Document> documents) {
+        if (documents.isEmpty()) {
             return doNothing();
         }
+        return putAsync(indexRegistry.getWriteIndexes(entityClass), documents, Collections.emptyList());
+    }
 
-        Class<?> entityClass = entities.values().toArray()[0].getClass();
-        if (!searchMetadata.hasIndexedFields(entityClass)) {
+    @Override
+    public String getIndexName(Class<?> entityClass) {
+        return searchMetadata.getIndexName(entityClass);
+    }
+
+    @Override
+    public long getIndexAliasRefreshInterval() {
+        return indexRegistry.getRefreshIntervalMillis();
+    }
+
+    @Override
+    public IndexAlias beginReindex(Class<?> entityClass, String version) {
+        IndexAlias alias = getAliasStore().beginRebuild(
+                searchMetadata.getIndexName(entityClass),
+                searchMetadata.getIndexNamingStrategy().getVersionedName(entityClass, version)
+        );
+        indexRegistry.invalidate(entityClass);
+        return alias;
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable reindexAsync(Map<String, E> entities) {
+        Class<?> entityClass = getEntityClass(entities);
+        if (entityClass == null) {
             return doNothing();
         }
 
-        List<Document> documents = entities.entrySet().stream()
-                .map(entry -> documentBuilder.apply(entry.getKey(), entry.getValue()))
-                .collect(Collectors.toList());
+        IndexAlias alias = indexRegistry.getAlias(entityClass);
+        Assert.state(alias.isRebuilding(), "Index '" + alias.getName() + "' is not being rebuilt");
+        return putAsync(Collections.singletonList(indexRegistry.getByName(alias.getPending())), entities);
+    }
 
-        Index index = getIndex(entityClass);
-        return new IndexOperation(
-                index.putAsync(documents)
-        );
+    @Override
+    public IndexAlias completeReindex(Class<?> entityClass) {
+        IndexAlias alias = getAliasStore().completeRebuild(searchMetadata.getIndexName(entityClass));
+        indexRegistry.invalidate(entityClass);
+        return alias;
     }
 
     @Override
-    public <E> void unindex(Class<E> entityClass, String id) {
-        String idString = conversionService.convert(id, String.class);
-        getIndex(entityClass).delete(idString);
+    public IndexAlias abortReindex(Class<?> entityClass) {
+        IndexAlias alias = getAliasStore().abortRebuild(searchMetadata.getIndexName(entityClass));
+        indexRegistry.invalidate(entityClass);
+        return alias;
+    }
+
+    /**
+     * Build and put documents in Search API sized batches, keeping up to
+     * {@link #setMaxConcurrentBatches(int) maxConcurrentBatches} requests in flight.
+     * Each document is built once, as its batch is filled, and written to every given index.
+     * <p>
+     * Documents rejected for being oversize are left out of their batch. Once the other documents have been written,
+     * the returned operation throws an {@link OversizeDocumentException} listing the rejected ids.
+     */
+    private <E> Runnable putAsync(List<Index> indexes, Map<String, E> entities) {
+        List<String> rejected = new ArrayList<>();
+        Iterable<Document> documents = () -> entities.entrySet().stream()
+                .map(entry -> {
+                    try {
+                        return buildDocument(entry.getKey(), entry.getValue());
+                    } catch (OversizeDocumentException e) {
+                        rejected.addAll(e.getIds());
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .iterator();
+        return putAsync(indexes, documents, rejected);
+    }
+
+    /**
+     * Put documents in Search API sized batches, keeping up to
+     * {@link #setMaxConcurrentBatches(int) maxConcurrentBatches} requests in flight.
+     * A batch is sent when it reaches either the {@link #setBatchSize(int) batch size} or
+     * {@link #setMaxBatchBytes(long) maxBatchBytes}.
+     *
+     * @param rejected Ids of documents that were rejected while iterating the documents, reported once the rest have
+     *                 been written.
+     */
+    private Runnable putAsync(List<Index> indexes, Iterable<Document> documents, List<String> rejected) {
+        BatchPipeline pipeline = new BatchPipeline(maxConcurrentBatches);
+        Map<Index, List<Document>> indexed = new LinkedHashMap<>();
+        Map<Index, Long> generations = new HashMap<>();
+
+        List<Document> batch = new ArrayList<>();
+        long batchBytes = 0;
+        for (Document document : documents) {
+            long size = DocumentSizeEstimator.estimate(document);
+            indexes.forEach(index -> metrics.recordDocumentSize(index.getName(), size));
+
+            if (!batch.isEmpty() && (batch.size() >= batchSize || batchBytes + size > maxBatchBytes)) {
+                submitPut(pipeline, indexes, batch, indexed, generations);
+                batch = new ArrayList<>();
+                batchBytes = 0;
+            }
+            batch.add(document);
+            batchBytes += size;
+        }
+        if (!batch.isEmpty()) {
+            submitPut(pipeline, indexes, batch, indexed, generations);
+        }
+
+        IndexOperation operation = pipeline.complete();
+        if (fingerprintCache == null && rejected.isEmpty()) {
+            return operation;
+        }
+
+        // Fingerprints are only recorded once the put has completed successfully, so a failed put is retried in full.
+        // They are tagged with the generation read before the put was issued, so a concurrent clear discards them.
+        return () -> {
+            operation.run();
+            if (fingerprintCache != null) {
+                indexed.forEach((index, written) -> fingerprintCache.remember(index, written, generations.get(index)));
+            }
+            if (!rejected.isEmpty()) {
+                throw new OversizeDocumentException(rejected.size() + " documents exceeded the maximum document size and were not indexed: " + rejected, rejected);
+            }
+        };
     }
 
+    private void submitPut(BatchPipeline pipeline, List<Index> indexes, List<Document> documents, Map<Index, List<Document>> indexed, Map<Index, Long> generations) {
+        for (Index index : indexes) {
+            List<Document> request = documents;
+            if (fingerprintCache != null) {
+                request = fingerprintCache.filterChanged(index, documents);
+                if (request.isEmpty()) {
+                    continue;
+                }
+                generations.computeIfAbsent(index, fingerprintCache::getGeneration);
+                indexed.computeIfAbsent(index, key -> new ArrayList<>()).addAll(request);
+            }
+
+            List<Document> toPut = request;
+            metrics.recordPut(index.getName(), toPut.size());
+            pipeline.submit(() -> timed(index.putAsync(toPut), index, SearchOperation.PUT));
+        }
+    }
+
+    @Nullable
+    private Class<?> getEntityClass(Map<String, ?> entities) {
+        if (entities.isEmpty()) {
+            return null;
+        }
+
+        Class<?> entityClass = entities.values().iterator().next().getClass();
+        return searchMetadata.hasIndexedFields(entityClass) ? entityClass : null;
+    }
+
+    private IndexAliasStore getAliasStore() {
+        IndexAliasStore aliasStore = indexRegistry.getAliasStore();
+        Assert.state(aliasStore != null, "Index aliasing must be enabled to rebuild search indexes");
+        return aliasStore;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Ids are deleted in Search API sized chunks, with up to {@link #setMaxConcurrentBatches(int) maxConcurrentBatches}
+     * chunks in flight at once. While the index is being rebuilt, ids are deleted from both the current and the
+     * pending index.
+     */
+    @Nonnull
     @Override
-    public <E> void unindex(Class<E> entityClass, Collection<String> ids) {
-        getIndex(entityClass).delete(ids);
+    public <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return doNothing();
+        }
+
+        BatchPipeline pipeline = new BatchPipeline(maxConcurrentBatches);
+
+        for (Index index : indexRegistry.getWriteIndexes(entityClass)) {
+            for (List<String> batch : Iterables.partition(ids, PUT_MAXIMUM_DOCS_PER_REQUEST)) {
+                pipeline.submit(() -> timed(index.deleteAsync(batch), index, SearchOperation.DELETE));
+            }
+
+            if (fingerprintCache != null) {
+                fingerprintCache.forget(index, ids);
+            }
+        }
+        return pipeline.complete();
     }
 
     @Override
     public <E> int clear(Class<E> entityClass) {
+        return clear(entityClass, null, 0, null).getCount();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The next page of ids is fetched while the previous page is being deleted, and up to
+     * {@link #setMaxConcurrentBatches(int) maxConcurrentBatches} deletes are kept in flight.
+     */
+    @Override
+    public <E> ClearResult clear(Class<E> entityClass, @Nullable String startId, long timeoutMillis, @Nullable Consumer<ClearResult> progressListener) {
         Index index = getIndex(entityClass);
+        long deadline = timeoutMillis > 0 ? System.currentTimeMillis() + timeoutMillis : Long.MAX_VALUE;
+        BatchPipeline pipeline = new BatchPipeline(maxConcurrentBatches);
 
-        GetRequest request = GetRequest.newBuilder()
+        int count = 0;
+        String lastId = startId;
+        Future<GetResponse<Document>> page = getDocumentIdsAsync(index, startId);
+
+        while (true) {
+            List<String> ids = IndexOperation.complete(page).getResults().stream()
+                    .map(Document::getId)
+                    .collect(Collectors.toList());
+
+            if (ids.isEmpty()) {
+                pipeline.complete().run();
+                if (fingerprintCache != null) {
+                    fingerprintCache.forgetAll(index);
+                }
+                return new ClearResult(count, lastId, true);
+            }
+
+            lastId = ids.get(ids.size() - 1);
+            boolean timedOut = System.currentTimeMillis() >= deadline;
+            if (!timedOut) {
+                page = getDocumentIdsAsync(index, lastId);
+            }
+
+            pipeline.submit(() -> timed(index.deleteAsync(ids), index, SearchOperation.DELETE));
+            if (fingerprintCache != null) {
+                fingerprintCache.forget(index, ids);
+            }
+
+            count += ids.size();
+            ClearResult progress = new ClearResult(count, lastId, false);
+            if (progressListener != null) {
+                progressListener.accept(progress);
+            }
+
+            if (timedOut) {
+                pipeline.complete().run();
+                return progress;
+            }
+        }
+    }
+
+    private Future<GetResponse<Document>> getDocumentIdsAsync(Index index, @Nullable String startId) {
+        GetRequest.Builder request = GetRequest.newBuilder()
                 .setReturningIdsOnly(true)
-                .setLimit(200) //Delete only allows 200 records at a time.
-                .build();
+                .setLimit(PUT_MAXIMUM_DOCS_PER_REQUEST); //Delete only allows 200 records at a time.
 
-        int count = 0;
-        for (List<Document> documents = getDocumentIds(index, request); !documents.isEmpty(); documents = getDocumentIds(index, request)) {
-            count += documents.size();
-            unindex(entityClass, documents.stream().map(Document::getId));
+        if (startId != null) {
+            request.setStartId(startId).setIncludeStart(false);
         }
-        return count;
+        return timed(index.getRangeAsync(request), index, SearchOperation.GET_RANGE);
     }
 
-    private List<Document> getDocumentIds(Index index, GetRequest request) {
-        return index.getRange(request).getResults();
+    private <T> Future<T> timed(Future<T> call, Index index, SearchOperation operation) {
+        return new TimedFuture<>(call, metrics, index.getName(), operation, metricsExecutor);
     }
 
     private <E> Index getIndex(Class<E> entityClass) {
-        return SearchServiceFactory.getSearchService()
-                .getIndex(IndexSpec.newBuilder().setName(searchMetadata.getIndexName(entityClass)));
+        return indexRegistry.get(entityClass);
     }
 }
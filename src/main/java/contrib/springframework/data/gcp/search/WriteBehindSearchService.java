@@ -0,0 +1,545 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Strings;
+import contrib.springframework.data.gcp.search.metrics.NoOpSearchMetrics;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.PreparedQuery;
+import contrib.springframework.data.gcp.search.query.Query;
+import contrib.springframework.data.gcp.search.query.QueryBuilder;
+import contrib.springframework.data.gcp.search.query.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.google.common.util.concurrent.Runnables.doNothing;
+
+/**
+ * A write-behind {@link SearchService} decorator.
+ * <p>
+ * Index and unindex requests are placed in a bounded in-memory queue and return immediately, so callers no longer wait
+ * on Search API round trips. Documents are built when they are queued, so later changes to an entity do not leak into
+ * the index. Requests for the same document id in the same index are coalesced, with the last write winning, and the
+ * queue is flushed to the delegate service in API sized batches by a background worker. The depth and lag of the queue
+ * are reported to the {@link #setMetrics(SearchMetrics) metrics} whenever it is flushed.
+ * <p>
+ * When the queue is full the calling thread flushes it synchronously, after its own request has been queued, so a failed
+ * flush never loses the caller's write. Writes that fail are retried on later flushes until they have failed
+ * {@link #setMaxAttempts(int) max attempts} times, and are then dropped and logged. Pending work is flushed when the
+ * service is {@link #close() closed}. Queries are passed straight to the delegate, so recently written documents may not yet be
+ * searchable.
+ */
+public class WriteBehindSearchService implements ReindexingSearchService, AutoCloseable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindSearchService.class);
+
+    private final DocumentSearchService delegate;
+    private final int maxQueueSize;
+    private int maxAttempts = 5;
+    private SearchMetrics metrics = new NoOpSearchMetrics();
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    private LinkedHashMap<PendingKey, PendingOperation> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService worker;
+
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * Create a new instance. No background worker is started until {@link #start(long, ThreadFactory)} is called.
+     *
+     * @param delegate     The search service that performs the writes.
+     * @param maxQueueSize Maximum number of distinct documents that may be pending.
+     */
+    public WriteBehindSearchService(DocumentSearchService delegate, int maxQueueSize) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(maxQueueSize > 0, "maxQueueSize must be greater than zero");
+        this.delegate = delegate;
+        this.maxQueueSize = maxQueueSize;
+    }
+
+    /**
+     * Set how many times a write is attempted before it is dropped.
+     *
+     * @param maxAttempts Maximum number of attempts per write.
+     * @return This service, for method chaining.
+     */
+    public WriteBehindSearchService setMaxAttempts(int maxAttempts) {
+        Assert.isTrue(maxAttempts > 0, "maxAttempts must be greater than zero");
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Set the metrics the depth and lag of the queue are reported to.
+     *
+     * @param metrics Search metrics.
+     * @return This service, for method chaining.
+     */
+    public WriteBehindSearchService setMetrics(SearchMetrics metrics) {
+        Assert.notNull(metrics, "metrics must not be null");
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Start the background worker.
+     * On App Engine the thread factory must create threads with access to the API environment, e.g.
+     * {@link com.google.appengine.api.ThreadManager#backgroundThreadFactory()}.
+     *
+     * @param flushIntervalMillis Interval between flushes.
+     * @param threadFactory       Factory used to create the worker thread.
+     * @return This service, for method chaining.
+     */
+    public WriteBehindSearchService start(long flushIntervalMillis, ThreadFactory threadFactory) {
+        Assert.isTrue(flushIntervalMillis > 0, "flushIntervalMillis must be greater than zero");
+        synchronized (lock) {
+            Assert.state(worker == null, "Write-behind worker has already been started");
+            worker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            worker.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        return this;
+    }
+
+    /**
+     * Stop the background worker, flush all pending work, then close the delegate if it is {@link AutoCloseable}.
+     *
+     * @throws IllegalStateException If the delegate fails to close with a checked exception.
+     */
+    @Override
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (lock) {
+            current = worker;
+            worker = null;
+        }
+
+        if (current != null) {
+            current.shutdown();
+            try {
+                current.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+
+        if (delegate instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) delegate).close();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Unable to close the write-behind delegate", e);
+            }
+        }
+    }
+
+    /**
+     * Write all pending work to the delegate service.
+     * Groups that fail are returned to the queue, unless a newer request for the same document has arrived or they have
+     * run out of attempts, and the first failure is rethrown.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            Map<PendingKey, PendingOperation> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                metrics.recordWriteBehindFlush(pending.size(), getLagMillis(pending));
+                batch = pending;
+                pending = new LinkedHashMap<>();
+            }
+
+            RuntimeException failure = null;
+            for (Map.Entry<Group, Map<PendingKey, PendingOperation>> group : groupByIndex(batch).entrySet()) {
+                try {
+                    write(group.getKey(), group.getValue());
+                    flushedCount.addAndGet(group.getValue().size());
+                } catch (RuntimeException e) {
+                    requeue(group.getValue(), e);
+                    if (failure == null) {
+                        failure = e;
+                    }
+                }
+            }
+
+            if (failure != null) {
+                failedFlushCount.incrementAndGet();
+                throw failure;
+            }
+        }
+    }
+
+    /**
+     * @return Number of document writes dropped after failing {@link #setMaxAttempts(int) max attempts} times.
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * @return Number of distinct documents waiting to be written.
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * @return Age in milliseconds of the oldest pending request, or zero if the queue is empty.
+     */
+    public long getLagMillis() {
+        synchronized (lock) {
+            return getLagMillis(pending);
+        }
+    }
+
+    /**
+     * @return Number of document writes passed to the delegate service.
+     */
+    public long getFlushedCount() {
+        return flushedCount.get();
+    }
+
+    /**
+     * @return Number of requests that replaced a pending request for the same document.
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * @return Number of flushes that failed.
+     */
+    public long getFailedFlushCount() {
+        return failedFlushCount.get();
+    }
+
+    @Nonnull
+    @Override
+    public <E> QueryBuilder<E> createQuery(Class<E> entityClass) {
+        return delegate.createQuery(entityClass);
+    }
+
+    @Override
+    public <E> PreparedQuery<E> prepare(Query<E> query) {
+        return delegate.prepare(query);
+    }
+
+    @Override
+    public Result<ScoredDocument> execute(Query<?> query) {
+        return delegate.execute(query);
+    }
+
+    @Nonnull
+    @Override
+    public Supplier<Result<ScoredDocument>> executeAsync(Query<?> query) {
+        return delegate.executeAsync(query);
+    }
+
+    @Override
+    public MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        return delegate.executeAll(queries, limit);
+    }
+
+    @Override
+    public <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        return delegate.project(query, projectionType);
+    }
+
+    @Override
+    public <T> Stream<T> stream(Query<?> query, Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        return delegate.stream(query, resultTransformer);
+    }
+
+    @Override
+    public <E> String getId(E entity) {
+        return delegate.getId(entity);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(E entity, String id) {
+        Document document = delegate.buildDocument(id, entity);
+        if (document != null) {
+            enqueue(entity.getClass(), id, document);
+        }
+        return doNothing();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Documents rejected for being oversize are not queued. The returned operation throws an
+     * {@link OversizeDocumentException} listing their ids.
+     */
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(Map<String, E> entities) {
+        List<String> rejected = new ArrayList<>();
+        entities.forEach((id, entity) -> {
+            try {
+                Document document = delegate.buildDocument(id, entity);
+                if (document != null) {
+                    enqueue(entity.getClass(), id, document);
+                }
+            } catch (OversizeDocumentException e) {
+                rejected.addAll(e.getIds());
+            }
+        });
+
+        if (rejected.isEmpty()) {
+            return doNothing();
+        }
+        return () -> {
+            throw new OversizeDocumentException(rejected.size() + " documents exceeded the maximum document size and were not indexed: " + rejected, rejected);
+        };
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids) {
+        ids.forEach(id -> enqueue(entityClass, id, null));
+        return doNothing();
+    }
+
+    @Override
+    public <E> int clear(Class<E> entityClass) {
+        discardPending(entityClass);
+        return delegate.clear(entityClass);
+    }
+
+    @Override
+    public <E> ClearResult clear(Class<E> entityClass, @Nullable String startId, long timeoutMillis, @Nullable Consumer<ClearResult> progressListener) {
+        discardPending(entityClass);
+        return delegate.clear(entityClass, startId, timeoutMillis, progressListener);
+    }
+
+    @Override
+    public long getIndexAliasRefreshInterval() {
+        return delegate.getIndexAliasRefreshInterval();
+    }
+
+    @Override
+    public IndexAlias beginReindex(Class<?> entityClass, String version) {
+        return delegate.beginReindex(entityClass, version);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable reindexAsync(Map<String, E> entities) {
+        return delegate.reindexAsync(entities);
+    }
+
+    /**
+     * Pending writes are flushed first, so they reach both indexes before queries are switched.
+     */
+    @Override
+    public IndexAlias completeReindex(Class<?> entityClass) {
+        flush();
+        return delegate.completeReindex(entityClass);
+    }
+
+    @Override
+    public IndexAlias abortReindex(Class<?> entityClass) {
+        return delegate.abortReindex(entityClass);
+    }
+
+    private void discardPending(Class<?> entityClass) {
+        String namespace = getNamespace();
+        String indexName = delegate.getIndexName(entityClass);
+        synchronized (lock) {
+            pending.keySet().removeIf(key -> key.indexName.equals(indexName) && key.namespace.equals(namespace));
+        }
+    }
+
+    /**
+     * Queue a request. Requests are keyed by the index they write to, so index and unindex requests for the same
+     * document coalesce whichever class they were made with.
+     *
+     * @param document The document to index, or {@code null} to unindex.
+     */
+    private void enqueue(Class<?> entityClass, String id, @Nullable Document document) {
+        PendingKey key = new PendingKey(getNamespace(), delegate.getIndexName(entityClass), id);
+
+        boolean full;
+        synchronized (lock) {
+            PendingOperation previous = pending.get(key);
+            if (previous != null) {
+                coalescedCount.incrementAndGet();
+            }
+            pending.put(key, new PendingOperation(entityClass, document, previous != null ? previous.enqueuedAt : System.currentTimeMillis(), 0));
+            full = pending.size() > maxQueueSize;
+        }
+        if (full) {
+            flushQuietly();
+        }
+    }
+
+    private void requeue(Map<PendingKey, PendingOperation> operations, RuntimeException failure) {
+        int dropped = 0;
+        synchronized (lock) {
+            for (Map.Entry<PendingKey, PendingOperation> entry : operations.entrySet()) {
+                PendingOperation operation = entry.getValue();
+                if (operation.attempts + 1 >= maxAttempts) {
+                    dropped++;
+                } else {
+                    pending.putIfAbsent(entry.getKey(), new PendingOperation(operation.entityClass, operation.document, operation.enqueuedAt, operation.attempts + 1));
+                }
+            }
+        }
+
+        if (dropped > 0) {
+            droppedCount.addAndGet(dropped);
+            LOGGER.error("Dropped {} write-behind search writes after {} failed attempts", dropped, maxAttempts, failure);
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Write-behind search flush failed, {} documents pending", getQueueDepth(), e);
+        }
+    }
+
+    private static Map<Group, Map<PendingKey, PendingOperation>> groupByIndex(Map<PendingKey, PendingOperation> batch) {
+        Map<Group, Map<PendingKey, PendingOperation>> groups = new LinkedHashMap<>();
+        batch.forEach((key, operation) -> groups
+                .computeIfAbsent(new Group(key.namespace, operation.entityClass), group -> new LinkedHashMap<>())
+                .put(key, operation));
+        return groups;
+    }
+
+    private static long getLagMillis(Map<PendingKey, PendingOperation> operations) {
+        return operations.values().stream()
+                .mapToLong(operation -> System.currentTimeMillis() - operation.enqueuedAt)
+                .max()
+                .orElse(0L);
+    }
+
+    private void write(Group group, Map<PendingKey, PendingOperation> operations) {
+        List<Document> toIndex = new ArrayList<>();
+        List<String> toUnindex = new ArrayList<>();
+        operations.forEach((key, operation) -> {
+            if (operation.document != null) {
+                toIndex.add(operation.document);
+            } else {
+                toUnindex.add(key.id);
+            }
+        });
+
+        String previousNamespace = NamespaceManager.get();
+        NamespaceManager.set(group.namespace);
+        try {
+            Runnable unindexOperation = toUnindex.isEmpty() ? doNothing() : delegate.unindexAsync(group.entityClass, toUnindex);
+            Runnable indexOperation = toIndex.isEmpty() ? doNothing() : delegate.indexDocumentsAsync(group.entityClass, toIndex);
+
+            unindexOperation.run();
+            indexOperation.run();
+        } finally {
+            NamespaceManager.set(previousNamespace);
+        }
+    }
+
+    private static String getNamespace() {
+        return Strings.nullToEmpty(NamespaceManager.get());
+    }
+
+    private static class PendingKey {
+        private final String namespace;
+        private final String indexName;
+        private final String id;
+
+        PendingKey(String namespace, String indexName, String id) {
+            this.namespace = namespace;
+            this.indexName = indexName;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PendingKey that = (PendingKey) o;
+            return indexName.equals(that.indexName) && namespace.equals(that.namespace) && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, indexName, id);
+        }
+    }
+
+    private static class PendingOperation {
+        private final Class<?> entityClass;
+        private final Document document;
+        private final long enqueuedAt;
+        private final int attempts;
+
+        PendingOperation(Class<?> entityClass, @Nullable Document document, long enqueuedAt, int attempts) {
+            this.entityClass = entityClass;
+            this.document = document;
+            this.enqueuedAt = enqueuedAt;
+            this.attempts = attempts;
+        }
+    }
+
+    private static class Group {
+        private final String namespace;
+        private final Class<?> entityClass;
+
+        Group(String namespace, Class<?> entityClass) {
+            this.namespace = namespace;
+            this.entityClass = entityClass;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Group that = (Group) o;
+            return entityClass == that.entityClass && namespace.equals(that.namespace);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, entityClass);
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package contrib.springframework.data.gcp.search.config;
 
+import com.google.appengine.api.ThreadManager;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import contrib.springframework.data.gcp.search.CachingSearchService;
+import contrib.springframework.data.gcp.search.DocumentSearchService;
+import contrib.springframework.data.gcp.search.IndexAliasStore;
+import contrib.springframework.data.gcp.search.IndexRegistry;
 import contrib.springframework.data.gcp.search.SearchService;
 import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import contrib.springframework.data.gcp.search.WriteBehindSearchService;
 import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.memory.InMemorySearchService;
 import contrib.springframework.data.gcp.search.metadata.IndexNamingStrategy;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
 import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
 import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import contrib.springframework.data.gcp.search.metrics.NoOpSearchMetrics;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import contrib.springframework.data.gcp.search.misc.DocumentFingerprintCache;
+import contrib.springframework.data.gcp.search.query.QueryCompiler;
 import org.springframework.beans.factory.BeanInitializationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -17,6 +30,7 @@ import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 /**
  * Automatic GCP Search Service configuration.
@@ -27,6 +41,8 @@ public class SearchAutoConfiguration {
 
     List<SearchConfigurer> configurers = new ArrayList<>();
 
+    SearchMetrics searchMetrics = new NoOpSearchMetrics();
+
     /**
      * Gather all the {@link SearchConfigurer} beans registered with the container.
      * These will be used to configure the beans created here.
@@ -40,6 +56,16 @@ public class SearchAutoConfiguration {
         }
     }
 
+    /**
+     * Use the registered {@link SearchMetrics} bean, if any, to instrument the search service.
+     *
+     * @param searchMetrics Search metrics.
+     */
+    @Autowired(required = false)
+    public void setSearchMetrics(SearchMetrics searchMetrics) {
+        this.searchMetrics = searchMetrics;
+    }
+
     /**
      * @return Search properties bean.
      */
@@ -51,14 +77,84 @@ public class SearchAutoConfiguration {
     /**
      * Configures and registers the search service.
      * Also configures the {@link org.springframework.core.convert.ConversionService} used by the search API.
+     * When in-memory search is enabled an {@link InMemorySearchService} is used instead of the Search API.
+     * When write-behind is enabled the service is wrapped in a {@link WriteBehindSearchService}, which is flushed
+     * when the context is closed. When the result cache is enabled the service is wrapped in a {@link CachingSearchService},
+     * which stops its background refreshes and closes the service it wraps when the context is closed. When
+     * {@link SearchProperties#isMetricsTimedOnCompletion()} is set, each Search API call is timed by a request thread that
+     * waits for it and ends with the call, so there is nothing to stop when the context is closed.
      *
      * @return Search service bean.
      */
     @Bean
     public SearchService searchService() {
         ConversionService conversionService = createConversionService();
+        SearchProperties properties = searchProperties();
+
+        DocumentSearchService documentSearchService = properties.isInMemoryEnabled()
+                ? new InMemorySearchService(searchMetadata(), conversionService)
+                : createSearchApiService(properties, conversionService);
+
+        SearchService searchService = documentSearchService;
+        if (properties.isWriteBehindEnabled()) {
+            searchService = new WriteBehindSearchService(documentSearchService, properties.getWriteBehindQueueSize())
+                    .setMaxAttempts(properties.getWriteBehindMaxAttempts())
+                    .setMetrics(searchMetrics)
+                    .start(properties.getWriteBehindFlushInterval(), ThreadManager.backgroundThreadFactory());
+        }
+
+        if (properties.isResultCacheEnabled()) {
+            searchService = createResultCache(searchService, properties, conversionService);
+        }
+        return searchService;
+    }
+
+    /**
+     * Wrap the search service in a {@link CachingSearchService} and let the configurers customise it.
+     *
+     * @param searchService     The search service.
+     * @param properties        Search properties.
+     * @param conversionService Search conversion service.
+     * @return Caching search service.
+     */
+    private SearchService createResultCache(SearchService searchService, SearchProperties properties, ConversionService conversionService) {
+        CachingSearchService resultCache = new CachingSearchService(
+                searchService,
+                new QueryCompiler(searchMetadata(), conversionService),
+                properties.getResultCacheSize(),
+                properties.getResultCacheTimeToLive()
+        );
+
+        if (properties.isResultCacheStaleWhileRevalidate()) {
+            resultCache.setStaleWhileRevalidate(Executors.newSingleThreadExecutor(ThreadManager.backgroundThreadFactory()));
+        }
+
+        configurers.forEach(configurer -> configurer.configureResultCache(resultCache));
+        return resultCache;
+    }
+
+    /**
+     * Create the search service backed by the Search API.
+     *
+     * @param properties        Search properties.
+     * @param conversionService Search conversion service.
+     * @return Search service.
+     */
+    private DocumentSearchService createSearchApiService(SearchProperties properties, ConversionService conversionService) {
+        SearchServiceImpl searchService = new SearchServiceImpl(searchMetadata(), conversionService);
+        if (properties.isMetricsTimedOnCompletion() && !(searchMetrics instanceof NoOpSearchMetrics)) {
+            searchService.setMetricsExecutor(task -> ThreadManager.currentRequestThreadFactory().newThread(task).start());
+        }
 
-        return new SearchServiceImpl(searchMetadata(), conversionService);
+        return searchService
+                .setIndexRegistry(createIndexRegistry(properties))
+                .setMetrics(searchMetrics)
+                .setBatchSize(properties.getBatchSize())
+                .setMaxConcurrentBatches(properties.getMaxConcurrentBatches())
+                .setMaxBatchBytes(properties.getMaxBatchBytes())
+                .setMaxDocumentSize(properties.getMaxDocumentSize())
+                .setOversizePolicy(properties.getOversizePolicy())
+                .setFingerprintCache(createFingerprintCache(properties));
     }
 
     /**
@@ -89,6 +185,41 @@ public class SearchAutoConfiguration {
         }
     }
 
+    /**
+     * Create the index registry, resolving index names through datastore aliases if aliasing is enabled.
+     *
+     * @param properties Search properties.
+     * @return Index registry.
+     */
+    private IndexRegistry createIndexRegistry(SearchProperties properties) {
+        if (!properties.isIndexAliasingEnabled()) {
+            return new IndexRegistry(searchMetadata());
+        }
+
+        return new IndexRegistry(
+                searchMetadata(),
+                new IndexAliasStore(DatastoreServiceFactory.getDatastoreService()),
+                properties.getIndexAliasRefreshInterval()
+        );
+    }
+
+    /**
+     * Create the document fingerprint cache, if fingerprinting is enabled.
+     *
+     * @param properties Search properties.
+     * @return Fingerprint cache, or {@code null}.
+     */
+    private DocumentFingerprintCache createFingerprintCache(SearchProperties properties) {
+        if (!properties.isFingerprintEnabled()) {
+            return null;
+        }
+
+        return new DocumentFingerprintCache(
+                properties.getFingerprintCacheSize(),
+                properties.isFingerprintMemcacheEnabled() ? MemcacheServiceFactory.getMemcacheService() : null
+        );
+    }
+
     /**
      * Create the search {@link ConversionService}.
      * We want to register this as a bean as it may interfere with the default Boot {@link ConversionService} and
@@ -1,5 +1,6 @@
 package contrib.springframework.data.gcp.search.config;
 
+import contrib.springframework.data.gcp.search.CachingSearchService;
 import contrib.springframework.data.gcp.search.SearchService;
 import contrib.springframework.data.gcp.search.metadata.IndexTypeRegistry;
 import org.springframework.core.convert.ConversionService;
@@ -28,4 +29,14 @@ public interface SearchConfigurer {
     default void registerSearchConverters(ConversionService conversionService) {
         //no-op
     }
+
+    /**
+     * Configure the query result cache, e.g. to set per entity class time to live values.
+     * Only called when the result cache is enabled.
+     *
+     * @param resultCache The caching search service.
+     */
+    default void configureResultCache(CachingSearchService resultCache) {
+        //no-op
+    }
 }
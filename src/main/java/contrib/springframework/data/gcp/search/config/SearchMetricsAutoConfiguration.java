@@ -0,0 +1,32 @@
+package contrib.springframework.data.gcp.search.config;
+
+import contrib.springframework.data.gcp.search.metrics.MicrometerSearchMetrics;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Automatic search metrics configuration.
+ * Registers a Micrometer backed {@link SearchMetrics} bean when Micrometer is on the classpath, recording to the
+ * application's {@link MeterRegistry} bean or, if there is none, the global registry.
+ */
+@Configuration
+@ConditionalOnClass(MeterRegistry.class)
+public class SearchMetricsAutoConfiguration {
+
+    /**
+     * @param meterRegistry Application meter registry, if any.
+     * @return Search metrics bean.
+     */
+    @Bean
+    @ConditionalOnMissingBean(SearchMetrics.class)
+    public SearchMetrics searchMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        return new MicrometerSearchMetrics(registry != null ? registry : Metrics.globalRegistry);
+    }
+}
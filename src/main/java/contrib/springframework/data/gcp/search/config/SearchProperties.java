@@ -1,10 +1,15 @@
 package contrib.springframework.data.gcp.search.config;
 
+import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import contrib.springframework.data.gcp.search.conversion.OversizePolicy;
 import contrib.springframework.data.gcp.search.metadata.IndexNamingStrategy;
 import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import static com.google.appengine.api.search.checkers.SearchApiLimits.MAXIMUM_DOCUMENT_LENGTH;
+import static com.google.appengine.api.search.checkers.SearchApiLimits.PUT_MAXIMUM_DOCS_PER_REQUEST;
+
 /**
  * GCP Search configuration properties.
  */
@@ -17,6 +22,109 @@ public class SearchProperties {
      */
     private Class<? extends IndexNamingStrategy> indexNamingStrategy = DefaultIndexNamingStrategy.class;
 
+    /**
+     * Keep search indexes in process memory instead of using the Search API, e.g. for local runs and load tests.
+     */
+    private boolean inMemoryEnabled = false;
+
+    /**
+     * Maximum number of documents sent to the Search API in a single put request. Cannot exceed the API limit of 200.
+     */
+    private int batchSize = PUT_MAXIMUM_DOCS_PER_REQUEST;
+
+    /**
+     * Maximum number of batch requests that may be in flight at once when indexing large collections.
+     */
+    private int maxConcurrentBatches = SearchServiceImpl.DEFAULT_MAX_CONCURRENT_BATCHES;
+
+    /**
+     * Maximum estimated size in bytes of the documents sent to the Search API in a single put request.
+     */
+    private long maxBatchBytes = SearchServiceImpl.DEFAULT_MAX_BATCH_BYTES;
+
+    /**
+     * Maximum estimated size in bytes of a single search document.
+     */
+    private long maxDocumentSize = MAXIMUM_DOCUMENT_LENGTH;
+
+    /**
+     * What to do with fields that would take a document over the maximum document size.
+     */
+    private OversizePolicy oversizePolicy = OversizePolicy.REJECT_DOCUMENT;
+
+    /**
+     * Skip re-indexing documents whose fields are unchanged since they were last indexed.
+     */
+    private boolean fingerprintEnabled = false;
+
+    /**
+     * Maximum number of document fingerprints held in the local cache when fingerprinting is enabled.
+     */
+    private long fingerprintCacheSize = 10000;
+
+    /**
+     * Store document fingerprints in memcache so they are shared between instances. Without memcache, fingerprints are
+     * held per instance and fingerprinting is only correct when a single instance writes to the search indexes.
+     */
+    private boolean fingerprintMemcacheEnabled = false;
+
+    /**
+     * Queue index and unindex requests and write them to the Search API from a background worker.
+     */
+    private boolean writeBehindEnabled = false;
+
+    /**
+     * Maximum number of distinct documents that may be pending when write-behind is enabled.
+     */
+    private int writeBehindQueueSize = 10000;
+
+    /**
+     * Interval in milliseconds between write-behind flushes.
+     */
+    private long writeBehindFlushInterval = 1000;
+
+    /**
+     * Number of times a write-behind write is attempted before it is dropped and logged.
+     */
+    private int writeBehindMaxAttempts = 5;
+
+    /**
+     * Cache query results in memory. Results are invalidated when their entity class is indexed, unindexed or cleared.
+     */
+    private boolean resultCacheEnabled = false;
+
+    /**
+     * Maximum number of cached query results.
+     */
+    private long resultCacheSize = 1000;
+
+    /**
+     * Time to live in milliseconds of cached query results, unless configured per entity class by a {@link SearchConfigurer}.
+     */
+    private long resultCacheTimeToLive = 60000;
+
+    /**
+     * Return expired query results while they are refreshed in the background.
+     */
+    private boolean resultCacheStaleWhileRevalidate = false;
+
+    /**
+     * Resolve index names through aliases stored in the datastore, which allows indexes to be rebuilt without downtime.
+     */
+    private boolean indexAliasingEnabled = false;
+
+    /**
+     * Interval in milliseconds after which a cached index alias is read from the datastore again.
+     */
+    private long indexAliasRefreshInterval = 60000;
+
+    /**
+     * Record the duration of Search API calls as soon as they complete, starting a request thread to wait for each call.
+     * Only applies when a {@link contrib.springframework.data.gcp.search.metrics.SearchMetrics} bean is registered.
+     * When disabled, or when no thread can be created, calls are timed when their result is collected.
+     */
+    private boolean metricsTimedOnCompletion = false;
+
     public Class<? extends IndexNamingStrategy> getIndexNamingStrategy() {
         return indexNamingStrategy;
     }
@@ -25,4 +133,184 @@ public class SearchProperties {
         this.indexNamingStrategy = indexNamingStrategy;
         return this;
     }
+
+    public boolean isInMemoryEnabled() {
+        return inMemoryEnabled;
+    }
+
+    public SearchProperties setInMemoryEnabled(boolean inMemoryEnabled) {
+        this.inMemoryEnabled = inMemoryEnabled;
+        return this;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public SearchProperties setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public int getMaxConcurrentBatches() {
+        return maxConcurrentBatches;
+    }
+
+    public SearchProperties setMaxConcurrentBatches(int maxConcurrentBatches) {
+        this.maxConcurrentBatches = maxConcurrentBatches;
+        return this;
+    }
+
+    public long getMaxBatchBytes() {
+        return maxBatchBytes;
+    }
+
+    public SearchProperties setMaxBatchBytes(long maxBatchBytes) {
+        this.maxBatchBytes = maxBatchBytes;
+        return this;
+    }
+
+    public long getMaxDocumentSize() {
+        return maxDocumentSize;
+    }
+
+    public SearchProperties setMaxDocumentSize(long maxDocumentSize) {
+        this.maxDocumentSize = maxDocumentSize;
+        return this;
+    }
+
+    public OversizePolicy getOversizePolicy() {
+        return oversizePolicy;
+    }
+
+    public SearchProperties setOversizePolicy(OversizePolicy oversizePolicy) {
+        this.oversizePolicy = oversizePolicy;
+        return this;
+    }
+
+    public boolean isFingerprintEnabled() {
+        return fingerprintEnabled;
+    }
+
+    public SearchProperties setFingerprintEnabled(boolean fingerprintEnabled) {
+        this.fingerprintEnabled = fingerprintEnabled;
+        return this;
+    }
+
+    public long getFingerprintCacheSize() {
+        return fingerprintCacheSize;
+    }
+
+    public SearchProperties setFingerprintCacheSize(long fingerprintCacheSize) {
+        this.fingerprintCacheSize = fingerprintCacheSize;
+        return this;
+    }
+
+    public boolean isFingerprintMemcacheEnabled() {
+        return fingerprintMemcacheEnabled;
+    }
+
+    public SearchProperties setFingerprintMemcacheEnabled(boolean fingerprintMemcacheEnabled) {
+        this.fingerprintMemcacheEnabled = fingerprintMemcacheEnabled;
+        return this;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    public SearchProperties setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+        return this;
+    }
+
+    public int getWriteBehindQueueSize() {
+        return writeBehindQueueSize;
+    }
+
+    public SearchProperties setWriteBehindQueueSize(int writeBehindQueueSize) {
+        this.writeBehindQueueSize = writeBehindQueueSize;
+        return this;
+    }
+
+    public long getWriteBehindFlushInterval() {
+        return writeBehindFlushInterval;
+    }
+
+    public SearchProperties setWriteBehindFlushInterval(long writeBehindFlushInterval) {
+        this.writeBehindFlushInterval = writeBehindFlushInterval;
+        return this;
+    }
+
+    public int getWriteBehindMaxAttempts() {
+        return writeBehindMaxAttempts;
+    }
+
+    public SearchProperties setWriteBehindMaxAttempts(int writeBehindMaxAttempts) {
+        this.writeBehindMaxAttempts = writeBehindMaxAttempts;
+        return this;
+    }
+
+    public boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    public SearchProperties setResultCacheEnabled(boolean resultCacheEnabled) {
+        this.resultCacheEnabled = resultCacheEnabled;
+        return this;
+    }
+
+    public long getResultCacheSize() {
+        return resultCacheSize;
+    }
+
+    public SearchProperties setResultCacheSize(long resultCacheSize) {
+        this.resultCacheSize = resultCacheSize;
+        return this;
+    }
+
+    public long getResultCacheTimeToLive() {
+        return resultCacheTimeToLive;
+    }
+
+    public SearchProperties setResultCacheTimeToLive(long resultCacheTimeToLive) {
+        this.resultCacheTimeToLive = resultCacheTimeToLive;
+        return this;
+    }
+
+    public boolean isResultCacheStaleWhileRevalidate() {
+        return resultCacheStaleWhileRevalidate;
+    }
+
+    public SearchProperties setResultCacheStaleWhileRevalidate(boolean resultCacheStaleWhileRevalidate) {
+        this.resultCacheStaleWhileRevalidate = resultCacheStaleWhileRevalidate;
+        return this;
+    }
+
+    public boolean isIndexAliasingEnabled() {
+        return indexAliasingEnabled;
+    }
+
+    public SearchProperties setIndexAliasingEnabled(boolean indexAliasingEnabled) {
+        this.indexAliasingEnabled = indexAliasingEnabled;
+        return this;
+    }
+
+    public long getIndexAliasRefreshInterval() {
+        return indexAliasRefreshInterval;
+    }
+
+    public SearchProperties setIndexAliasRefreshInterval(long indexAliasRefreshInterval) {
+        this.indexAliasRefreshInterval = indexAliasRefreshInterval;
+        return this;
+    }
+
+    public boolean isMetricsTimedOnCompletion() {
+        return metricsTimedOnCompletion;
+    }
+
+    public SearchProperties setMetricsTimedOnCompletion(boolean metricsTimedOnCompletion) {
+        this.metricsTimedOnCompletion = metricsTimedOnCompletion;
+        return this;
+    }
 }
@@ -1,16 +1,21 @@
 package contrib.springframework.data.gcp.search.conversion;
 
+import contrib.springframework.data.gcp.search.conversion.converter.DateToOffsetDateTimeConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.DateToStringConverter;
+import contrib.springframework.data.gcp.search.conversion.converter.DateToZonedDateTimeConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.GeoPointToStringConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.OffsetDateTimeToDateConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.OffsetDateTimeToStringConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.ZonedDateTimeToDateConverter;
 import contrib.springframework.data.gcp.search.conversion.converter.ZonedDateTimeToStringConverter;
+import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.ConverterRegistry;
+import org.springframework.core.convert.converter.GenericConverter;
 import org.springframework.core.convert.support.DefaultConversionService;
 
 /**
- * Converters used by the search API to convert from application data types to SearchAPI data types.
+ * Converters used by the search API to convert from application data types to SearchAPI data types, and to read
+ * projected document fields back into application data types.
  */
 public class DefaultSearchConversionService extends DefaultConversionService {
 
@@ -36,5 +41,20 @@ public class DefaultSearchConversionService extends DefaultConversionService {
         registry.addConverter(new ZonedDateTimeToDateConverter());
 
         registry.addConverter(new GeoPointToStringConverter());
+
+        registry.addConverter(new DateToOffsetDateTimeConverter());
+        registry.addConverter(new DateToZonedDateTimeConverter());
+    }
+
+    /**
+     * Resolve the converter used to convert between the given types, allowing callers on hot paths to invoke it directly.
+     *
+     * @param sourceType The source type.
+     * @param targetType The target type.
+     * @return The converter, or {@code null} if no suitable converter exists.
+     */
+    @Override
+    public GenericConverter getConverter(TypeDescriptor sourceType, TypeDescriptor targetType) {
+        return super.getConverter(sourceType, targetType);
     }
 }
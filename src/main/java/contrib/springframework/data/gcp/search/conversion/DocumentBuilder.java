@@ -1,23 +1,33 @@
 package contrib.springframework.data.gcp.search.conversion;
 
 import com.google.appengine.api.search.Document;
-import com.google.appengine.api.search.Field;
-import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.misc.DocumentSizeEstimator;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
 
-import java.util.List;
-import java.util.Map;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.BiFunction;
 
+import static com.google.appengine.api.search.checkers.SearchApiLimits.MAXIMUM_DOCUMENT_LENGTH;
+
 /**
  * Build a search API {@link Document} from a collection of field values.
+ * A {@link DocumentPlan} is compiled once for each entity class and reused for every subsequent document.
+ * <p>
+ * The size of each document is estimated while it is built. Fields that would take the document over the
+ * {@link #setMaxDocumentSize(long) maximum document size} are handled according to the {@link OversizePolicy}.
  */
 public class DocumentBuilder implements BiFunction<Object, Object, Document> {
 
     final SearchMetadata searchMetadata;
     final ConversionService conversionService;
-    final BiFunction<SearchFieldMetadata, Object, List<Field>> fieldBuilder;
+    private final ConcurrentMap<Class<?>, DocumentPlan> plans = new ConcurrentHashMap<>();
+    private long maxDocumentSize = MAXIMUM_DOCUMENT_LENGTH;
+    private OversizePolicy oversizePolicy = OversizePolicy.REJECT_DOCUMENT;
 
     /**
      * Create a new instance.
@@ -28,25 +38,62 @@ public class DocumentBuilder implements BiFunction<Object, Object, Document> {
     public DocumentBuilder(SearchMetadata searchMetadata, ConversionService conversionService) {
         this.conversionService = conversionService;
         this.searchMetadata = searchMetadata;
-        this.fieldBuilder = new FieldBuilder(conversionService);
     }
 
+    /**
+     * Set the maximum estimated size of a document.
+     *
+     * @param maxDocumentSize Maximum document size in bytes, defaults to the Search API limit of 1MB.
+     * @return This builder, for method chaining.
+     */
+    public DocumentBuilder setMaxDocumentSize(long maxDocumentSize) {
+        Assert.isTrue(maxDocumentSize > 0, "maxDocumentSize must be greater than zero");
+        this.maxDocumentSize = maxDocumentSize;
+        return this;
+    }
+
+    /**
+     * Set what to do with fields that would take a document over the maximum document size.
+     *
+     * @param oversizePolicy Oversize policy, defaults to {@link OversizePolicy#REJECT_DOCUMENT}.
+     * @return This builder, for method chaining.
+     */
+    public DocumentBuilder setOversizePolicy(OversizePolicy oversizePolicy) {
+        Assert.notNull(oversizePolicy, "oversizePolicy must not be null");
+        this.oversizePolicy = oversizePolicy;
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws OversizeDocumentException If the document exceeds the maximum document size and the oversize policy is
+     *                                   {@link OversizePolicy#REJECT_DOCUMENT}.
+     */
     @Override
     public Document apply(Object id, Object entity) {
-        String idValue = conversionService.convert(id, String.class);
+        String idValue = id instanceof String ? (String) id : conversionService.convert(id, String.class);
 
         Document.Builder builder = createDocument(idValue);
-
-        Map<String, SearchFieldMetadata> accessors = searchMetadata.getFields(entity.getClass());
-        accessors.values().forEach((accessor) -> {
-            List<Field> searchFields = fieldBuilder.apply(accessor, accessor.getValue(entity));
-
-            searchFields.forEach(builder::addField);
-        });
+        try {
+            getPlan(entity.getClass()).write(builder, entity, maxDocumentSize - DocumentSizeEstimator.DOCUMENT_OVERHEAD - DocumentSizeEstimator.encodedLength(idValue), oversizePolicy);
+        } catch (OversizeDocumentException e) {
+            throw new OversizeDocumentException(e.getMessage() + ", document id: " + idValue, Collections.singleton(idValue));
+        }
 
         return builder.build();
     }
 
+    /**
+     * Get the compiled document plan for an entity class, compiling it on first use.
+     *
+     * @param entityClass The entity class.
+     * @return Document plan.
+     */
+    public DocumentPlan getPlan(Class<?> entityClass) {
+        return plans.computeIfAbsent(entityClass, type -> new DocumentPlan(type, searchMetadata, conversionService));
+    }
+
     private Document.Builder createDocument(String idValue) {
         Document.Builder builder = Document.newBuilder();
         builder.setId(idValue);
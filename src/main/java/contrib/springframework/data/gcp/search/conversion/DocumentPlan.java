@@ -0,0 +1,234 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Facet;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import contrib.springframework.data.gcp.search.IndexType;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.misc.DocumentSizeEstimator;
+import contrib.springframework.data.gcp.search.misc.IndexException;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.convert.ConversionService;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+import static contrib.springframework.data.gcp.search.IndexType.DATE;
+import static contrib.springframework.data.gcp.search.IndexType.NUMBER;
+
+/**
+ * A precompiled plan for writing the search fields of a single entity class into a {@link Document}.
+ * <p>
+ * Member accessors, index types and value converters are resolved once, when the plan is created, so writing a
+ * document is a single pass over an ordered array of field writers. Members marked as
+ * {@link contrib.springframework.data.gcp.search.SearchIndex#facet() facets} are written as both a field and a facet.
+ */
+public class DocumentPlan {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentPlan.class);
+
+    private final Class<?> entityClass;
+    private final FieldWriter[] writers;
+
+    /**
+     * Compile a plan for the given entity class.
+     *
+     * @param entityClass       The entity class.
+     * @param searchMetadata    Search metadata.
+     * @param conversionService Conversion service used to convert field values to Search API types.
+     */
+    public DocumentPlan(Class<?> entityClass, SearchMetadata searchMetadata, ConversionService conversionService) {
+        this.entityClass = entityClass;
+        this.writers = searchMetadata.getFields(entityClass).values().stream()
+                .sorted(Comparator.comparing(SearchFieldMetadata::getMemberName))
+                .map(searchFieldMetadata -> new FieldWriter(searchFieldMetadata, conversionService))
+                .toArray(FieldWriter[]::new);
+    }
+
+    /**
+     * @return The entity class this plan was compiled for.
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return The number of indexed members written by this plan.
+     */
+    public int getFieldCount() {
+        return writers.length;
+    }
+
+    /**
+     * Write the search fields of an entity into a document.
+     *
+     * @param document The document to write to.
+     * @param entity   The entity to read field values from.
+     */
+    public void write(Document.Builder document, Object entity) {
+        write(document, entity, Long.MAX_VALUE, OversizePolicy.REJECT_DOCUMENT);
+    }
+
+    /**
+     * Write the search fields of an entity into a document, keeping the estimated size of the written fields within
+     * the given limit.
+     *
+     * @param document The document to write to.
+     * @param entity   The entity to read field values from.
+     * @param maxBytes Maximum estimated size of the written fields.
+     * @param policy   What to do with a field that does not fit.
+     * @return Estimated size of the written fields.
+     * @throws OversizeDocumentException If a field does not fit and the policy is {@link OversizePolicy#REJECT_DOCUMENT}.
+     */
+    public long write(Document.Builder document, Object entity, long maxBytes, OversizePolicy policy) {
+        long remaining = maxBytes;
+        for (FieldWriter writer : writers) {
+            remaining = writer.write(document, entity, remaining, policy);
+        }
+        return maxBytes - remaining;
+    }
+
+    /**
+     * Writes a single indexed member as one or more search {@link Field}s.
+     */
+    private static class FieldWriter {
+        private final SearchFieldMetadata searchFieldMetadata;
+        private final String name;
+        private final long fixedSize;
+        private final boolean singleValued;
+        private final ResolvedConverter converter;
+        private final BiConsumer<Field.Builder, Object> mutator;
+        private final BiFunction<String, Object, Facet> facetFactory;
+
+        FieldWriter(SearchFieldMetadata searchFieldMetadata, ConversionService conversionService) {
+            IndexType indexType = searchFieldMetadata.getIndexType();
+
+            this.searchFieldMetadata = searchFieldMetadata;
+            this.name = searchFieldMetadata.getEncodedName();
+            this.fixedSize = DocumentSizeEstimator.FIELD_OVERHEAD + DocumentSizeEstimator.encodedLength(name);
+            this.singleValued = indexType == NUMBER || indexType == DATE;
+            this.converter = new ResolvedConverter(conversionService, getTargetType(indexType));
+            this.mutator = getMutator(indexType);
+            this.facetFactory = searchFieldMetadata.isFacet() ? getFacetFactory(indexType) : null;
+        }
+
+        long write(Document.Builder document, Object entity, long remaining, OversizePolicy policy) {
+            Object value = searchFieldMetadata.getValue(entity);
+
+            if (value instanceof Collection) {
+                assertMultiValued();
+                for (Object item : (Collection<?>) value) {
+                    remaining = writeField(document, item, remaining, policy);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                assertMultiValued();
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    remaining = writeField(document, Array.get(value, i), remaining, policy);
+                }
+            } else {
+                remaining = writeField(document, value, remaining, policy);
+            }
+            return remaining;
+        }
+
+        /**
+         * Convert and add a single value, applying the oversize policy if it does not fit in the remaining space.
+         *
+         * @return Space remaining after the field has been written.
+         */
+        private long writeField(Document.Builder document, @Nullable Object value, long remaining, OversizePolicy policy) {
+            Object converted = converter.convert(value);
+            boolean facet = facetFactory != null && converted != null;
+            long size = (fixedSize + DocumentSizeEstimator.estimateValue(converted)) * (facet ? 2 : 1);
+
+            if (size > remaining) {
+                if (policy == OversizePolicy.REJECT_DOCUMENT) {
+                    throw new OversizeDocumentException("Document exceeds the maximum document size. Offending member: " + searchFieldMetadata.getMember(), Collections.emptyList());
+                }
+
+                long available = facet ? remaining / 2 : remaining;
+                if (policy == OversizePolicy.TRUNCATE && converted instanceof String && available > fixedSize) {
+                    converted = DocumentSizeEstimator.truncate((String) converted, available - fixedSize);
+                    size = (fixedSize + DocumentSizeEstimator.estimateValue(converted)) * (facet ? 2 : 1);
+                    LOGGER.warn("Truncated search field {} to fit the maximum document size", searchFieldMetadata.getMember());
+                } else {
+                    LOGGER.warn("Dropped search field {} to fit the maximum document size", searchFieldMetadata.getMember());
+                    return remaining;
+                }
+            }
+
+            document.addField(createField(converted));
+            if (facet) {
+                document.addFacet(facetFactory.apply(name, converted));
+            }
+            return remaining - size;
+        }
+
+        /**
+         * Search only supports multiple values if the index type is not {@link IndexType#NUMBER} or {@link IndexType#DATE}.
+         * See https://cloud.google.com/appengine/docs/standard/java/search/ - Multi-valued fields.
+         */
+        private void assertMultiValued() {
+            if (singleValued) {
+                throw new IndexException("Search does not support multiplicity on NUMBER or DATE index types. Offending member: " + searchFieldMetadata.getMember());
+            }
+        }
+
+        private Field createField(@Nullable Object converted) {
+            Field.Builder field = Field.newBuilder().setName(name);
+            mutator.accept(field, converted);
+            return field.build();
+        }
+
+        private BiFunction<String, Object, Facet> getFacetFactory(IndexType indexType) {
+            switch (indexType) {
+                case NUMBER:
+                    return (name, value) -> Facet.withNumber(name, (Double) value);
+                case DATE:
+                case GEOPOINT:
+                    throw new IndexException("Search only supports facets on NUMBER and string index types. Offending member: " + searchFieldMetadata.getMember());
+                default:
+                    return (name, value) -> Facet.withAtom(name, (String) value);
+            }
+        }
+
+        private static Class<?> getTargetType(IndexType indexType) {
+            switch (indexType) {
+                case NUMBER:
+                    return Double.class;
+                case DATE:
+                    return Date.class;
+                case GEOPOINT:
+                    return GeoPoint.class;
+                default:
+                    return String.class;
+            }
+        }
+
+        private static BiConsumer<Field.Builder, Object> getMutator(IndexType indexType) {
+            switch (indexType) {
+                case IDENTIFIER:
+                    return (field, value) -> field.setAtom((String) value);
+                case NUMBER:
+                    return (field, value) -> field.setNumber((Double) value);
+                case HTML:
+                    return (field, value) -> field.setHTML((String) value);
+                case DATE:
+                    return (field, value) -> field.setDate((Date) value);
+                case GEOPOINT:
+                    return (field, value) -> field.setGeoPoint((GeoPoint) value);
+                default:
+                    return (field, value) -> field.setText((String) value);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.SearchId;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.springframework.beans.BeanUtils;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.util.ReflectionUtils;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Reads search {@link Document}s into objects, reversing the {@link DocumentBuilder}.
+ * <p>
+ * Each document field is decoded to the name of the entity member it was built from and written to the field of the
+ * same name on the target type, converted with the search conversion service. Target fields without a matching
+ * document field are left unset, and a field annotated with {@link SearchId} receives the document id. The target type
+ * may be the entity class itself or any class with a no-argument constructor, such as a DTO for a list view.
+ */
+public class DocumentReader {
+
+    private final SearchMetadata searchMetadata;
+    private final ConversionService conversionService;
+    private final Map<List<Class<?>>, Projection> projections = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchMetadata    Search metadata.
+     * @param conversionService Conversion service used to convert field values to the target field types.
+     */
+    public DocumentReader(SearchMetadata searchMetadata, ConversionService conversionService) {
+        this.searchMetadata = searchMetadata;
+        this.conversionService = conversionService;
+    }
+
+    /**
+     * Read a document.
+     *
+     * @param document   The document.
+     * @param entityType The entity class the document was built from.
+     * @param targetType The type to read the document into.
+     * @param <T>        Target type.
+     * @return New instance of the target type.
+     */
+    public <T> T read(Document document, Class<?> entityType, Class<T> targetType) {
+        return targetType.cast(getProjection(entityType, targetType).read(document));
+    }
+
+    /**
+     * Create a result transformer that reads every document of a search result.
+     *
+     * @param entityType The entity class the documents were built from.
+     * @param targetType The type to read the documents into.
+     * @param <T>        Target type.
+     * @return Result transformer.
+     */
+    public <T> Function<Results<ScoredDocument>, List<T>> reader(Class<?> entityType, Class<T> targetType) {
+        Projection projection = getProjection(entityType, targetType);
+        return results -> {
+            List<T> list = new ArrayList<>(results.getNumberReturned());
+            for (ScoredDocument document : results) {
+                list.add(targetType.cast(projection.read(document)));
+            }
+            return list;
+        };
+    }
+
+    private Projection getProjection(Class<?> entityType, Class<?> targetType) {
+        List<Class<?>> key = new ArrayList<>(2);
+        key.add(entityType);
+        key.add(targetType);
+        return projections.computeIfAbsent(key, types -> new Projection(entityType, targetType));
+    }
+
+    /**
+     * The mapping from document fields to the target fields of one entity and target type.
+     */
+    private class Projection {
+        private final Class<?> targetType;
+        private final Map<String, java.lang.reflect.Field> targetFields = new HashMap<>();
+        private java.lang.reflect.Field idField;
+
+        Projection(Class<?> entityType, Class<?> targetType) {
+            this.targetType = targetType;
+
+            searchMetadata.getFields(entityType).values().forEach(field -> {
+                java.lang.reflect.Field target = ReflectionUtils.findField(targetType, field.getMemberName());
+                if (target != null) {
+                    ReflectionUtils.makeAccessible(target);
+                    targetFields.put(field.getEncodedName(), target);
+                }
+            });
+
+            ReflectionUtils.doWithFields(targetType, field -> {
+                ReflectionUtils.makeAccessible(field);
+                idField = field;
+            }, field -> field.isAnnotationPresent(SearchId.class));
+        }
+
+        Object read(Document document) {
+            Object target = BeanUtils.instantiateClass(targetType);
+
+            Map<java.lang.reflect.Field, List<Object>> values = new HashMap<>();
+            for (Field field : document.getFields()) {
+                java.lang.reflect.Field targetField = targetFields.get(field.getName());
+                Object value = getValue(field);
+                if (targetField != null && value != null) {
+                    values.computeIfAbsent(targetField, f -> new ArrayList<>()).add(value);
+                }
+            }
+
+            values.forEach((field, fieldValues) -> ReflectionUtils.setField(field, target, convert(field, fieldValues)));
+            if (idField != null) {
+                ReflectionUtils.setField(idField, target, conversionService.convert(document.getId(), TypeDescriptor.valueOf(String.class), new TypeDescriptor(idField)));
+            }
+            return target;
+        }
+
+        private Object convert(java.lang.reflect.Field field, List<Object> values) {
+            TypeDescriptor targetType = new TypeDescriptor(field);
+            if (targetType.isArray() || targetType.isCollection()) {
+                return conversionService.convert(values, TypeDescriptor.collection(List.class, TypeDescriptor.forObject(values.get(0))), targetType);
+            }
+            Object value = values.get(0);
+            return conversionService.convert(value, TypeDescriptor.forObject(value), targetType);
+        }
+    }
+
+    @Nullable
+    private static Object getValue(Field field) {
+        if (field.getType() == null) {
+            return null;
+        }
+        switch (field.getType()) {
+            case NUMBER:
+                return field.getNumber();
+            case DATE:
+                return field.getDate();
+            case GEO_POINT:
+                return field.getGeoPoint();
+            case ATOM:
+                return field.getAtom();
+            case HTML:
+                return field.getHTML();
+            case UNTOKENIZED_PREFIX:
+                return field.getUntokenizedPrefix();
+            case TOKENIZED_PREFIX:
+                return field.getTokenizedPrefix();
+            case TEXT:
+                return field.getText();
+            default:
+                return null;
+        }
+    }
+}
@@ -24,7 +24,11 @@ import static contrib.springframework.data.gcp.search.IndexType.NUMBER;
 
 /**
  * Build an array of search service {@link Field}s from a field {@link SearchFieldMetadata}.
+ *
+ * @deprecated Documents are built by {@link DocumentBuilder} from a precompiled {@link DocumentPlan}, which resolves
+ * the converter and field type of each member once per entity class. This class is no longer used and will be removed.
  */
+@Deprecated
 public class FieldBuilder implements BiFunction<SearchFieldMetadata, Object, List<Field>> {
 
     private final ConversionService conversionService;
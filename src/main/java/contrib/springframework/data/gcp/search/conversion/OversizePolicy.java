@@ -0,0 +1,21 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+/**
+ * What to do with a field that would take a search document over its maximum size.
+ */
+public enum OversizePolicy {
+    /**
+     * Truncate string values to the space that remains in the document. Other values that do not fit are dropped.
+     */
+    TRUNCATE,
+
+    /**
+     * Leave the field out of the document.
+     */
+    DROP_FIELD,
+
+    /**
+     * Reject the document. Other documents in the same batch are still indexed.
+     */
+    REJECT_DOCUMENT
+}
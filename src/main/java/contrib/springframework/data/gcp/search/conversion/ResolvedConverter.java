@@ -0,0 +1,89 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import org.springframework.core.convert.ConversionFailedException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Converts values to a fixed target type, resolving the conversion path once per source type.
+ * <p>
+ * Field values are almost always of the same runtime type, so the last resolved source type is remembered and reused.
+ * When the {@link ConversionService} is a {@link DefaultSearchConversionService} the underlying {@link GenericConverter}
+ * is resolved and invoked directly, bypassing the per-call converter cache lookup.
+ */
+class ResolvedConverter {
+
+    private final ConversionService conversionService;
+    private final Class<?> targetClass;
+    private final TypeDescriptor targetType;
+    private volatile Resolution resolution;
+
+    /**
+     * Create a new instance.
+     *
+     * @param conversionService Conversion service used to resolve converters.
+     * @param targetClass       The type values will be converted to.
+     */
+    ResolvedConverter(ConversionService conversionService, Class<?> targetClass) {
+        this.conversionService = conversionService;
+        this.targetClass = targetClass;
+        this.targetType = TypeDescriptor.valueOf(targetClass);
+    }
+
+    /**
+     * Convert a value to the target type.
+     *
+     * @param value The value to convert.
+     * @return Converted value.
+     */
+    @Nullable
+    Object convert(@Nullable Object value) {
+        if (value == null) {
+            return null;
+        }
+
+        Class<?> sourceClass = value.getClass();
+        if (sourceClass == targetClass) {
+            return value;
+        }
+
+        Resolution current = resolution;
+        if (current == null || current.sourceClass != sourceClass) {
+            current = new Resolution(sourceClass);
+            resolution = current;
+        }
+
+        return current.convert(value);
+    }
+
+    private class Resolution {
+        private final Class<?> sourceClass;
+        private final TypeDescriptor sourceType;
+        private final GenericConverter converter;
+
+        Resolution(Class<?> sourceClass) {
+            this.sourceClass = sourceClass;
+            this.sourceType = TypeDescriptor.valueOf(sourceClass);
+            this.converter = conversionService instanceof DefaultSearchConversionService
+                    ? ((DefaultSearchConversionService) conversionService).getConverter(sourceType, targetType)
+                    : null;
+        }
+
+        Object convert(Object value) {
+            if (converter == null) {
+                return conversionService.convert(value, sourceType, targetType);
+            }
+
+            try {
+                return converter.convert(value, sourceType, targetType);
+            } catch (ConversionFailedException e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new ConversionFailedException(sourceType, targetType, value, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package contrib.springframework.data.gcp.search.conversion.converter;
+
+import org.springframework.core.convert.converter.Converter;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+
+/**
+ * Convert {@link Date} values read from the search index to {@link OffsetDateTime} values in UTC.
+ */
+public class DateToOffsetDateTimeConverter implements Converter<Date, OffsetDateTime> {
+    @Override
+    public OffsetDateTime convert(Date source) {
+        return OffsetDateTime.ofInstant(source.toInstant(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,17 @@
+package contrib.springframework.data.gcp.search.conversion.converter;
+
+import org.springframework.core.convert.converter.Converter;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+
+/**
+ * Convert {@link Date} values read from the search index to {@link ZonedDateTime} values in UTC.
+ */
+public class DateToZonedDateTimeConverter implements Converter<Date, ZonedDateTime> {
+    @Override
+    public ZonedDateTime convert(Date source) {
+        return ZonedDateTime.ofInstant(source.toInstant(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,466 @@
+package contrib.springframework.data.gcp.search.memory;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoublePredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A single in-memory search index.
+ * <p>
+ * Documents are numbered densely in the order they are added and kept, so queries can return their fields. Text and
+ * atom values are held in postings lists of document numbers, per field and token, while number and date values are
+ * held in a primitive column per field.
+ * Replacing or removing a document only marks its number as deleted. Deleted numbers are reclaimed by compacting the
+ * index once they make up half of it.
+ * <p>
+ * The columns only speed up matching and sorting; every document is still held on the heap as it was added, alongside
+ * the first value of each of its text and atom fields, so an index uses somewhat more memory than its documents alone.
+ * This suits the test and development data sets the in-memory service is meant for, not large indexes.
+ */
+public class InMemoryIndex {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> numbers = new HashMap<>();
+    private final Map<String, Map<String, Postings>> postings = new HashMap<>();
+    private final Map<String, double[]> numberColumns = new HashMap<>();
+    private final Map<String, String[]> textColumns = new HashMap<>();
+    private Document[] documents = new Document[INITIAL_CAPACITY];
+    private BitSet live = new BitSet();
+    private int size;
+
+    /**
+     * Add documents, replacing any existing documents with the same id.
+     *
+     * @param documents The documents.
+     */
+    public void put(Collection<Document> documents) {
+        lock.writeLock().lock();
+        try {
+            documents.forEach(this::put);
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove documents.
+     *
+     * @param documentIds Ids of the documents to remove.
+     */
+    public void delete(Collection<String> documentIds) {
+        lock.writeLock().lock();
+        try {
+            for (String id : documentIds) {
+                Integer number = numbers.remove(id);
+                if (number != null) {
+                    live.clear(number);
+                }
+            }
+            compactIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove every document.
+     *
+     * @return Number of documents removed.
+     */
+    public int clear() {
+        lock.writeLock().lock();
+        try {
+            int count = numbers.size();
+            numbers.clear();
+            postings.clear();
+            numberColumns.clear();
+            textColumns.clear();
+            documents = new Document[INITIAL_CAPACITY];
+            live = new BitSet();
+            size = 0;
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Number of documents in the index.
+     */
+    public int getDocumentCount() {
+        lock.readLock().lock();
+        try {
+            return numbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Read the index while holding its read lock. Document numbers are only stable within a single read.
+     *
+     * @param reader Function that reads the index.
+     * @param <T>    Result type.
+     * @return Result of the reader.
+     */
+    public <T> T read(Function<InMemoryIndex, T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.apply(this);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Numbers of all documents in the index.
+     */
+    BitSet all() {
+        return (BitSet) live.clone();
+    }
+
+    /**
+     * @param field Encoded field name.
+     * @param token Lower case token.
+     * @return Numbers of the documents whose field contains the token.
+     */
+    BitSet match(String field, String token) {
+        Postings list = postings.getOrDefault(field, Collections.emptyMap()).get(token);
+        return list != null ? list.toBitSet(live) : new BitSet();
+    }
+
+    /**
+     * @param field       Encoded field name.
+     * @param tokenFilter Predicate that selects tokens.
+     * @return Numbers of the documents whose field contains a selected token.
+     */
+    BitSet match(String field, Predicate<String> tokenFilter) {
+        BitSet result = new BitSet();
+        postings.getOrDefault(field, Collections.emptyMap()).forEach((token, list) -> {
+            if (tokenFilter.test(token)) {
+                result.or(list.toBitSet(live));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * @param token Lower case token.
+     * @return Numbers of the documents in which any field contains the token.
+     */
+    BitSet matchAnyField(String token) {
+        BitSet result = new BitSet();
+        postings.keySet().forEach(field -> result.or(match(field, token)));
+        return result;
+    }
+
+    /**
+     * @param field     Encoded field name.
+     * @param predicate Predicate applied to the number or date value.
+     * @return Numbers of the documents with a matching value.
+     */
+    BitSet matchNumber(String field, DoublePredicate predicate) {
+        BitSet result = new BitSet();
+        double[] column = numberColumns.get(field);
+        if (column != null) {
+            for (int number = live.nextSetBit(0); number >= 0 && number < column.length; number = live.nextSetBit(number + 1)) {
+                if (!Double.isNaN(column[number]) && predicate.test(column[number])) {
+                    result.set(number);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param field     Encoded field name.
+     * @param predicate Predicate applied to the first text value.
+     * @return Numbers of the documents with a matching value.
+     */
+    BitSet matchText(String field, Predicate<String> predicate) {
+        BitSet result = new BitSet();
+        String[] column = textColumns.get(field);
+        if (column != null) {
+            for (int number = live.nextSetBit(0); number >= 0 && number < column.length; number = live.nextSetBit(number + 1)) {
+                if (column[number] != null && predicate.test(column[number])) {
+                    result.set(number);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param field  Encoded field name.
+     * @param number Document number.
+     * @return The number or date value of the field, or {@link Double#NaN} if the document has none.
+     */
+    double getNumber(String field, int number) {
+        double[] column = numberColumns.get(field);
+        return column != null && number < column.length ? column[number] : Double.NaN;
+    }
+
+    /**
+     * @param field  Encoded field name.
+     * @param number Document number.
+     * @return The first text value of the field, or {@code null} if the document has none.
+     */
+    @Nullable
+    String getText(String field, int number) {
+        String[] column = textColumns.get(field);
+        return column != null && number < column.length ? column[number] : null;
+    }
+
+    /**
+     * @param number Document number.
+     * @return Document id.
+     */
+    String getId(int number) {
+        return documents[number].getId();
+    }
+
+    /**
+     * @param number Document number.
+     * @return The indexed document.
+     */
+    Document getDocument(int number) {
+        return documents[number];
+    }
+
+    /**
+     * Split a text value into lower case tokens on any character that is not a letter or digit.
+     *
+     * @param text The text.
+     * @return Tokens.
+     */
+    static List<String> tokenize(@Nullable String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void put(Document document) {
+        Integer previous = numbers.get(document.getId());
+        if (previous != null) {
+            live.clear(previous);
+        }
+
+        int number = size++;
+        if (number == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        documents[number] = document;
+        numbers.put(document.getId(), number);
+        live.set(number);
+
+        for (Field field : document.getFields()) {
+            if (field.getType() == null) {
+                continue;
+            }
+
+            switch (field.getType()) {
+                case NUMBER:
+                    setNumber(field.getName(), number, field.getNumber());
+                    break;
+                case DATE:
+                    if (field.getDate() != null) {
+                        setNumber(field.getName(), number, toDay(field.getDate().getTime()));
+                    }
+                    break;
+                case ATOM:
+                    if (field.getAtom() != null) {
+                        addToken(field.getName(), field.getAtom().toLowerCase(Locale.ROOT), number);
+                        setText(field.getName(), number, field.getAtom());
+                    }
+                    break;
+                case HTML:
+                    addText(field.getName(), field.getHTML(), number);
+                    break;
+                case TEXT:
+                    addText(field.getName(), field.getText(), number);
+                    break;
+                default:
+                    //Geopoint, vector and prefix fields are not indexed
+            }
+        }
+    }
+
+    /**
+     * The Search API only stores the date component of date fields.
+     *
+     * @param millis Milliseconds since the epoch.
+     * @return Milliseconds since the epoch at the start of the UTC day.
+     */
+    static double toDay(long millis) {
+        return Math.floorDiv(millis, TimeUnit.DAYS.toMillis(1)) * TimeUnit.DAYS.toMillis(1);
+    }
+
+    private void addText(String field, @Nullable String text, int number) {
+        if (text == null) {
+            return;
+        }
+        tokenize(text).forEach(token -> addToken(field, token, number));
+        setText(field, number, text);
+    }
+
+    private void addToken(String field, String token, int number) {
+        postings.computeIfAbsent(field, key -> new HashMap<>())
+                .computeIfAbsent(token, key -> new Postings())
+                .add(number);
+    }
+
+    private void setNumber(String field, int number, double value) {
+        double[] column = numberColumns.get(field);
+        if (column == null || column.length <= number) {
+            column = grow(column, number);
+            numberColumns.put(field, column);
+        }
+        column[number] = value;
+    }
+
+    private void setText(String field, int number, String value) {
+        String[] column = textColumns.get(field);
+        if (column == null || column.length <= number) {
+            column = column == null ? new String[documents.length] : Arrays.copyOf(column, documents.length);
+            textColumns.put(field, column);
+        }
+        if (column[number] == null) {
+            column[number] = value;
+        }
+    }
+
+    private double[] grow(@Nullable double[] column, int number) {
+        int oldLength = column != null ? column.length : 0;
+        double[] grown = column != null ? Arrays.copyOf(column, Math.max(documents.length, number + 1)) : new double[Math.max(documents.length, number + 1)];
+        Arrays.fill(grown, oldLength, grown.length, Double.NaN);
+        return grown;
+    }
+
+    /**
+     * Renumber the live documents once deleted numbers make up half of the index.
+     */
+    private void compactIfSparse() {
+        if (size < INITIAL_CAPACITY || numbers.size() * 2 > size) {
+            return;
+        }
+
+        int[] renumbered = new int[size];
+        int liveCount = 0;
+        for (int number = 0; number < size; number++) {
+            renumbered[number] = live.get(number) ? liveCount++ : -1;
+        }
+
+        Document[] compactDocuments = new Document[Math.max(INITIAL_CAPACITY, liveCount * 2)];
+        for (int number = live.nextSetBit(0); number >= 0; number = live.nextSetBit(number + 1)) {
+            compactDocuments[renumbered[number]] = documents[number];
+            numbers.put(documents[number].getId(), renumbered[number]);
+        }
+
+        postings.values().forEach(tokens -> {
+            tokens.values().forEach(list -> list.renumber(renumbered));
+            tokens.values().removeIf(Postings::isEmpty);
+        });
+        postings.values().removeIf(Map::isEmpty);
+
+        numberColumns.replaceAll((field, column) -> {
+            double[] compact = new double[compactDocuments.length];
+            Arrays.fill(compact, Double.NaN);
+            for (int number = 0; number < Math.min(column.length, size); number++) {
+                if (renumbered[number] >= 0) {
+                    compact[renumbered[number]] = column[number];
+                }
+            }
+            return compact;
+        });
+
+        textColumns.replaceAll((field, column) -> {
+            String[] compact = new String[compactDocuments.length];
+            for (int number = 0; number < Math.min(column.length, size); number++) {
+                if (renumbered[number] >= 0) {
+                    compact[renumbered[number]] = column[number];
+                }
+            }
+            return compact;
+        });
+
+        documents = compactDocuments;
+        live = new BitSet();
+        live.set(0, liveCount);
+        size = liveCount;
+    }
+
+    /**
+     * An ascending list of document numbers held in a primitive array.
+     */
+    private static class Postings {
+        private int[] numbers = new int[2];
+        private int size;
+
+        void add(int number) {
+            if (size > 0 && numbers[size - 1] == number) {
+                return;
+            }
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size * 2);
+            }
+            numbers[size++] = number;
+        }
+
+        BitSet toBitSet(BitSet live) {
+            BitSet result = new BitSet();
+            for (int i = 0; i < size; i++) {
+                if (live.get(numbers[i])) {
+                    result.set(numbers[i]);
+                }
+            }
+            return result;
+        }
+
+        void renumber(int[] renumbered) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int number = renumbered[numbers[i]];
+                if (number >= 0) {
+                    numbers[count++] = number;
+                }
+            }
+            size = count;
+            numbers = Arrays.copyOf(numbers, Math.max(2, count));
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package contrib.springframework.data.gcp.search.memory;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Strings;
+import contrib.springframework.data.gcp.search.DocumentSearchService;
+import contrib.springframework.data.gcp.search.IndexAlias;
+import contrib.springframework.data.gcp.search.SearchService;
+import contrib.springframework.data.gcp.search.conversion.DocumentBuilder;
+import contrib.springframework.data.gcp.search.conversion.DocumentReader;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.Query;
+import contrib.springframework.data.gcp.search.query.QueryBuilder;
+import contrib.springframework.data.gcp.search.query.QueryImpl;
+import contrib.springframework.data.gcp.search.query.Result;
+import contrib.springframework.data.gcp.search.query.ResultImpl;
+import contrib.springframework.data.gcp.search.query.ResultMerger;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static com.google.common.util.concurrent.Runnables.doNothing;
+
+/**
+ * A {@link SearchService} that keeps its indexes in process memory, for local runs and load tests that should not
+ * depend on the Search API or its development stubs.
+ * <p>
+ * Documents are built exactly as they would be for the Search API and held in an {@link InMemoryIndex} per index name
+ * and namespace. Writes are applied immediately, so the returned operations have nothing left to do. Queries return the
+ * fields of the indexed documents like the Search API does, and support the subset of the query syntax generated by the
+ * query compiler:
+ * <ul>
+ * <li>filters with every {@link contrib.springframework.data.gcp.search.Operator}, where text fields match when they
+ * contain every token of the value and identifier fields match the whole value;</li>
+ * <li>collection and array filter values, which match any of their elements;</li>
+ * <li>raw fragments made of terms, which match any field, and the {@code AND}, {@code OR} and {@code NOT} keywords,
+ * which are applied from left to right;</li>
+ * <li>sorting, offsets, limits, cursors, returned fields and ids only queries.</li>
+ * </ul>
+ * Raw fragments using any other syntax, such as parentheses, field restrictions or comparisons, are rejected with an
+ * {@link IllegalArgumentException}. Facets and scores are not computed.
+ * <p>
+ * Indexes can be rebuilt like with an aliased {@link contrib.springframework.data.gcp.search.SearchServiceImpl}: while
+ * a rebuild is in progress writes go to both the current and the pending index, and completing the rebuild switches
+ * queries to the pending index. Aliases are held in memory and are only visible to this instance.
+ */
+public class InMemorySearchService implements DocumentSearchService {
+
+    private final SearchMetadata searchMetadata;
+    private final DocumentBuilder documentBuilder;
+    private final DocumentReader documentReader;
+    private final QueryEvaluator queryEvaluator;
+    private final ResultMerger resultMerger;
+    private final ConcurrentMap<String, InMemoryIndex> indexes = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IndexAlias> aliases = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchMetadata    Search metadata.
+     * @param conversionService Conversion service.
+     */
+    public InMemorySearchService(SearchMetadata searchMetadata, ConversionService conversionService) {
+        this.searchMetadata = searchMetadata;
+        this.documentBuilder = new DocumentBuilder(searchMetadata, conversionService);
+        this.documentReader = new DocumentReader(searchMetadata, conversionService);
+        this.queryEvaluator = new QueryEvaluator(searchMetadata, conversionService);
+        this.resultMerger = new ResultMerger(searchMetadata);
+    }
+
+    @Nonnull
+    @Override
+    public <E> QueryBuilder<E> createQuery(Class<E> entityClass) {
+        return new QueryImpl<>(entityClass);
+    }
+
+    @Override
+    public Result<ScoredDocument> execute(Query<?> query) {
+        InMemoryIndex index = getIndex(query.getResultType());
+        return new ResultImpl<>(index.read(reader -> queryEvaluator.evaluate(query, reader)), x -> new ArrayList<>(x.getResults()));
+    }
+
+    @Override
+    public MultiResult executeAll(List<? extends Query<?>> queries, int limit) {
+        List<Result<ScoredDocument>> results = queries.stream()
+                .map(this::execute)
+                .collect(Collectors.toList());
+        return resultMerger.merge(queries, results, limit);
+    }
+
+    @Override
+    public <T> Result<T> project(Query<?> query, Class<T> projectionType) {
+        return new ResultImpl<>(execute(query).getMetadata(), documentReader.reader(query.getResultType(), projectionType));
+    }
+
+    @Override
+    public <E> String getId(E entity) {
+        return searchMetadata.getId(entity);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(E entity, String id) {
+        if (searchMetadata.hasIndexedFields(entity.getClass())) {
+            List<Document> documents = Collections.singletonList(documentBuilder.apply(id, entity));
+            getWriteIndexes(entity.getClass()).forEach(index -> index.put(documents));
+        }
+        return doNothing();
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable indexAsync(Map<String, E> entities) {
+        if (entities.isEmpty()) {
+            return doNothing();
+        }
+
+        Class<?> entityClass = entities.values().iterator().next().getClass();
+        if (searchMetadata.hasIndexedFields(entityClass)) {
+            List<Document> documents = buildDocuments(entities);
+            getWriteIndexes(entityClass).forEach(index -> index.put(documents));
+        }
+        return doNothing();
+    }
+
+    @Nullable
+    @Override
+    public <E> Document buildDocument(String id, E entity) {
+        return searchMetadata.hasIndexedFields(entity.getClass()) ? documentBuilder.apply(id, entity) : null;
+    }
+
+    @Nonnull
+    @Override
+    public Runnable indexDocumentsAsync(Class<?> entityClass, List<Document> documents) {
+        if (!documents.isEmpty()) {
+            getWriteIndexes(entityClass).forEach(index -> index.put(documents));
+        }
+        return doNothing();
+    }
+
+    @Override
+    public String getIndexName(Class<?> entityClass) {
+        return searchMetadata.getIndexName(entityClass);
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable unindexAsync(Class<E> entityClass, Collection<String> ids) {
+        if (!ids.isEmpty()) {
+            getWriteIndexes(entityClass).forEach(index -> index.delete(ids));
+        }
+        return doNothing();
+    }
+
+    @Override
+    public <E> int clear(Class<E> entityClass) {
+        return getIndex(entityClass).clear();
+    }
+
+    /**
+     * @return Zero, aliases are held by this instance only.
+     */
+    @Override
+    public long getIndexAliasRefreshInterval() {
+        return 0;
+    }
+
+    @Override
+    public IndexAlias beginReindex(Class<?> entityClass, String version) {
+        String pending = searchMetadata.getIndexNamingStrategy().getVersionedName(entityClass, version);
+        return updateAlias(entityClass, alias -> {
+            if (alias.isRebuilding() && !alias.getPending().equals(pending)) {
+                throw new IllegalStateException(String.format("Index '%s' is already being rebuilt into '%s'", alias.getName(), alias.getPending()));
+            }
+            if (alias.getCurrent().equals(pending)) {
+                throw new IllegalStateException(String.format("Index '%s' is already served by '%s'", alias.getName(), pending));
+            }
+            return new IndexAlias(alias.getName(), alias.getCurrent(), pending);
+        });
+    }
+
+    @Nonnull
+    @Override
+    public <E> Runnable reindexAsync(Map<String, E> entities) {
+        if (entities.isEmpty()) {
+            return doNothing();
+        }
+
+        Class<?> entityClass = entities.values().iterator().next().getClass();
+        IndexAlias alias = getAlias(entityClass);
+        Assert.state(alias.isRebuilding(), "Index '" + alias.getName() + "' is not being rebuilt");
+        if (searchMetadata.hasIndexedFields(entityClass)) {
+            getIndexByName(alias.getPending()).put(buildDocuments(entities));
+        }
+        return doNothing();
+    }
+
+    @Override
+    public IndexAlias completeReindex(Class<?> entityClass) {
+        return updateAlias(entityClass, alias -> {
+            if (!alias.isRebuilding()) {
+                throw new IllegalStateException(String.format("Index '%s' is not being rebuilt", alias.getName()));
+            }
+            return new IndexAlias(alias.getName(), alias.getPending(), null);
+        });
+    }
+
+    @Override
+    public IndexAlias abortReindex(Class<?> entityClass) {
+        return updateAlias(entityClass, alias -> new IndexAlias(alias.getName(), alias.getCurrent(), null));
+    }
+
+    /**
+     * Get the index that serves queries for an entity class in the current namespace.
+     *
+     * @param entityClass The entity class.
+     * @return In-memory index.
+     */
+    public InMemoryIndex getIndex(Class<?> entityClass) {
+        return getIndexByName(getAlias(entityClass).getCurrent());
+    }
+
+    /**
+     * Get the alias for an entity class in the current namespace.
+     * An alias that has never been rebuilt targets the index of the same name.
+     *
+     * @param entityClass The entity class.
+     * @return Index alias.
+     */
+    public IndexAlias getAlias(Class<?> entityClass) {
+        String name = searchMetadata.getIndexName(entityClass);
+        return aliases.getOrDefault(getKey(name), new IndexAlias(name, name, null));
+    }
+
+    private List<InMemoryIndex> getWriteIndexes(Class<?> entityClass) {
+        IndexAlias alias = getAlias(entityClass);
+        return alias.isRebuilding()
+                ? Arrays.asList(getIndexByName(alias.getCurrent()), getIndexByName(alias.getPending()))
+                : Collections.singletonList(getIndexByName(alias.getCurrent()));
+    }
+
+    private InMemoryIndex getIndexByName(String indexName) {
+        return indexes.computeIfAbsent(getKey(indexName), key -> new InMemoryIndex());
+    }
+
+    private IndexAlias updateAlias(Class<?> entityClass, UnaryOperator<IndexAlias> change) {
+        String name = searchMetadata.getIndexName(entityClass);
+        return aliases.compute(getKey(name), (key, alias) -> change.apply(alias != null ? alias : new IndexAlias(name, name, null)));
+    }
+
+    private <E> List<Document> buildDocuments(Map<String, E> entities) {
+        List<Document> documents = new ArrayList<>(entities.size());
+        entities.forEach((id, entity) -> documents.add(documentBuilder.apply(id, entity)));
+        return documents;
+    }
+
+    private static String getKey(String name) {
+        return Strings.nullToEmpty(NamespaceManager.get()) + ":" + name;
+    }
+}
@@ -0,0 +1,373 @@
+package contrib.springframework.data.gcp.search.memory;
+
+import com.google.appengine.api.search.Cursor;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.OperationResult;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.appengine.api.search.StatusCode;
+import contrib.springframework.data.gcp.search.IndexType;
+import contrib.springframework.data.gcp.search.Operator;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.MetadataUtils;
+import contrib.springframework.data.gcp.search.query.Query;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.lang.reflect.Array;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.DoublePredicate;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static contrib.springframework.data.gcp.search.query.SortOptionsCompiler.HIGH_STRING_CHAR;
+
+/**
+ * Evaluates a {@link Query} against an {@link InMemoryIndex}.
+ * <p>
+ * Predicate fragments support the operators generated by the query compiler. Text fields match when they contain every
+ * token of the value, identifier fields match the whole value, and ranges compare numbers and dates by value and text
+ * by its first value. Collection values match any of their elements. Raw fragments may contain terms, which match any
+ * field, and the {@code AND}, {@code OR} and {@code NOT} keywords, which are applied from left to right.
+ * <p>
+ * Results are ordered by the query sort, or by most recently indexed first. Like the Search API they contain every field
+ * of the document, only the requested fields when the query returns fields, or only the id for ids only queries. Cursors
+ * record the position of the next result, so unlike Search API cursors they are affected by writes between pages.
+ */
+class QueryEvaluator {
+    /**
+     * The Search API limit applied when a query does not specify one.
+     */
+    static final int DEFAULT_LIMIT = 20;
+
+    private final SearchMetadata searchMetadata;
+    private final ConversionService conversionService;
+
+    QueryEvaluator(SearchMetadata searchMetadata, ConversionService conversionService) {
+        this.searchMetadata = searchMetadata;
+        this.conversionService = conversionService;
+    }
+
+    Results<ScoredDocument> evaluate(Query<?> query, InMemoryIndex index) {
+        BitSet matches = filter(query, index);
+        int start = query.getCursor().map(QueryEvaluator::decodeCursor).orElseGet(() -> query.getSkip().orElse(0));
+        int limit = query.getLimit().orElse(DEFAULT_LIMIT);
+        boolean perResultCursors = query.getCursor().isPresent() && query.isPerResultCursors();
+
+        Set<String> fieldsToReturn = query.getFieldsToReturn().stream()
+                .map(field -> searchMetadata.encodeFieldName(query.getResultType(), field))
+                .collect(Collectors.toSet());
+        boolean idsOnly = query.getFieldsToReturn().isEmpty() && query.isIdsOnly();
+
+        List<ScoredDocument> documents = new ArrayList<>(Math.min(limit, matches.cardinality()));
+        int position = 0;
+        for (int number : order(query, index, matches, start + limit)) {
+            if (position++ < start) {
+                continue;
+            }
+            ScoredDocument.Builder document = ScoredDocument.newBuilder();
+            document.setId(index.getId(number));
+            if (!idsOnly) {
+                for (Field field : index.getDocument(number).getFields()) {
+                    if (fieldsToReturn.isEmpty() || fieldsToReturn.contains(field.getName())) {
+                        document.addField(field);
+                    }
+                }
+            }
+            if (perResultCursors) {
+                document.setCursor(encodeCursor(position, true));
+            }
+            documents.add(document.build());
+        }
+
+        Cursor cursor = null;
+        if (query.getCursor().isPresent() && !perResultCursors && position < matches.cardinality()) {
+            cursor = encodeCursor(position, false);
+        }
+        return new InMemoryResults(documents, matches.cardinality(), cursor);
+    }
+
+    /**
+     * Cursors encode the position of the next result, in the {@code perResult:value} format of Search API cursors.
+     */
+    private static Cursor encodeCursor(int position, boolean perResult) {
+        String value = Base64.getUrlEncoder().withoutPadding().encodeToString(("mem:" + position).getBytes(StandardCharsets.UTF_8));
+        return Cursor.newBuilder().build(perResult + ":" + value);
+    }
+
+    private static int decodeCursor(String webSafe) {
+        if (webSafe.isEmpty()) {
+            return 0;
+        }
+        try {
+            String value = webSafe.substring(webSafe.indexOf(':') + 1);
+            String cursor = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            Assert.isTrue(cursor.startsWith("mem:"), "Invalid cursor: " + webSafe);
+            return Integer.parseInt(cursor.substring(4));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + webSafe, e);
+        }
+    }
+
+    private BitSet filter(Query<?> query, InMemoryIndex index) {
+        BitSet result = null;
+        boolean or = false;
+        boolean not = false;
+
+        for (Query.Fragment fragment : query.getFragments()) {
+            if (fragment.isRaw()) {
+                for (String term : String.valueOf(fragment.getValue()).trim().split("\\s+")) {
+                    if (term.isEmpty() || term.equals("AND")) {
+                        continue;
+                    } else if (term.equals("OR")) {
+                        or = true;
+                    } else if (term.equals("NOT")) {
+                        not = true;
+                    } else {
+                        result = combine(result, matchTerm(term, index), or, not, index);
+                        or = false;
+                        not = false;
+                    }
+                }
+                continue;
+            }
+
+            result = combine(result, matchPredicate(query.getResultType(), fragment, index), or, not, index);
+            or = false;
+            not = false;
+        }
+        return result != null ? result : index.all();
+    }
+
+    private static BitSet combine(@Nullable BitSet result, BitSet clause, boolean or, boolean not, InMemoryIndex index) {
+        if (not) {
+            BitSet negated = index.all();
+            negated.andNot(clause);
+            clause = negated;
+        }
+        if (result == null) {
+            return clause;
+        }
+        if (or) {
+            result.or(clause);
+        } else {
+            result.and(clause);
+        }
+        return result;
+    }
+
+    private static BitSet matchTerm(String term, InMemoryIndex index) {
+        if (term.matches(".*[()<>=:].*")) {
+            throw new IllegalArgumentException(String.format(
+                    "Unsupported query syntax '%s': the in-memory search service only supports raw query fragments made of "
+                            + "terms and the AND, OR and NOT keywords, use filters for field restrictions and comparisons", term));
+        }
+
+        BitSet result = null;
+        for (String token : InMemoryIndex.tokenize(term)) {
+            BitSet matches = index.matchAnyField(token);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    private BitSet matchPredicate(Class<?> entityType, Query.Fragment fragment, InMemoryIndex index) {
+        SearchFieldMetadata field = searchMetadata.getField(entityType, fragment.getField());
+        Object value = fragment.getValue();
+
+        if (value != null && MetadataUtils.isCollectionType(value.getClass())) {
+            BitSet result = new BitSet();
+            if (value instanceof Collection) {
+                for (Object item : (Collection<?>) value) {
+                    result.or(matchValue(field, Operator.EQUAL, item, index));
+                }
+            } else {
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    result.or(matchValue(field, Operator.EQUAL, Array.get(value, i), index));
+                }
+            }
+            return result;
+        }
+        return matchValue(field, fragment.getOperator(), value, index);
+    }
+
+    private BitSet matchValue(SearchFieldMetadata field, Operator operator, @Nullable Object value, InMemoryIndex index) {
+        String name = field.getEncodedName();
+        IndexType indexType = field.getIndexType();
+
+        if (indexType == IndexType.NUMBER || indexType == IndexType.DATE) {
+            Double number = toNumber(indexType, value);
+            return number != null ? index.matchNumber(name, compare(operator, number)) : new BitSet();
+        }
+
+        String text = conversionService.convert(value, String.class);
+        if (text == null) {
+            return new BitSet();
+        }
+
+        switch (operator) {
+            case LESS_THAN:
+            case LT:
+            case LESS_THAN_OR_EQUAL:
+            case LTE:
+            case GREATER_THAN:
+            case GT:
+            case GREATER_THAN_OR_EQUAL:
+            case GTE:
+                return index.matchText(name, compare(operator, text));
+            case STEM:
+                String stem = stem(text.toLowerCase(Locale.ROOT));
+                return index.match(name, (Predicate<String>) token -> stem(token).equals(stem));
+            default:
+                if (indexType == IndexType.IDENTIFIER) {
+                    return index.match(name, text.toLowerCase(Locale.ROOT));
+                }
+                return matchAllTokens(name, text, index);
+        }
+    }
+
+    private static BitSet matchAllTokens(String field, String text, InMemoryIndex index) {
+        BitSet result = null;
+        for (String token : InMemoryIndex.tokenize(text)) {
+            BitSet matches = index.match(field, token);
+            if (result == null) {
+                result = matches;
+            } else {
+                result.and(matches);
+            }
+        }
+        return result != null ? result : new BitSet();
+    }
+
+    @Nullable
+    private Double toNumber(IndexType indexType, @Nullable Object value) {
+        if (indexType == IndexType.DATE) {
+            Date date = conversionService.convert(value, Date.class);
+            return date != null ? InMemoryIndex.toDay(date.getTime()) : null;
+        }
+        return conversionService.convert(value, Double.class);
+    }
+
+    private static DoublePredicate compare(Operator operator, double value) {
+        switch (operator) {
+            case LESS_THAN:
+            case LT:
+                return candidate -> candidate < value;
+            case LESS_THAN_OR_EQUAL:
+            case LTE:
+                return candidate -> candidate <= value;
+            case GREATER_THAN:
+            case GT:
+                return candidate -> candidate > value;
+            case GREATER_THAN_OR_EQUAL:
+            case GTE:
+                return candidate -> candidate >= value;
+            default:
+                return candidate -> candidate == value;
+        }
+    }
+
+    private static Predicate<String> compare(Operator operator, String value) {
+        switch (operator) {
+            case LESS_THAN:
+            case LT:
+                return candidate -> candidate.compareTo(value) < 0;
+            case LESS_THAN_OR_EQUAL:
+            case LTE:
+                return candidate -> candidate.compareTo(value) <= 0;
+            case GREATER_THAN:
+            case GT:
+                return candidate -> candidate.compareTo(value) > 0;
+            default:
+                return candidate -> candidate.compareTo(value) >= 0;
+        }
+    }
+
+    /**
+     * A crude suffix stripping stemmer covering plurals and common verb endings.
+     */
+    static String stem(String token) {
+        for (String suffix : new String[]{"ing", "ed", "es", "s"}) {
+            if (token.length() > suffix.length() + 2 && token.endsWith(suffix)) {
+                return token.substring(0, token.length() - suffix.length());
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Order the matching documents and return the first {@code count}.
+     */
+    private int[] order(Query<?> query, InMemoryIndex index, BitSet matches, int count) {
+        if (!query.getSort().isPresent()) {
+            int[] result = new int[Math.min(count, matches.cardinality())];
+            int i = 0;
+            for (int number = matches.length() - 1; number >= 0 && i < result.length; number = matches.previousSetBit(number - 1)) {
+                result[i++] = number;
+            }
+            return result;
+        }
+
+        Comparator<Integer> comparator = null;
+        for (Sort.Order order : query.getSort().get()) {
+            Comparator<Integer> next = comparator(query.getResultType(), order, index);
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        return matches.stream()
+                .boxed()
+                .sorted(comparator)
+                .limit(count)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Documents without a value are ordered as if they had the default value used by the sort options compiler.
+     */
+    private Comparator<Integer> comparator(Class<?> entityType, Sort.Order order, InMemoryIndex index) {
+        SearchFieldMetadata field = searchMetadata.getField(entityType, order.getProperty());
+        String name = field.getEncodedName();
+        boolean ascending = order.isAscending();
+
+        Comparator<Integer> comparator;
+        if (field.getIndexType() == IndexType.NUMBER || field.getIndexType() == IndexType.DATE) {
+            double defaultValue = ascending ? Double.MAX_VALUE : -Double.MAX_VALUE;
+            comparator = Comparator.comparingDouble(number -> {
+                double value = index.getNumber(name, number);
+                return Double.isNaN(value) ? defaultValue : value;
+            });
+        } else {
+            String defaultValue = ascending ? HIGH_STRING_CHAR : "";
+            comparator = Comparator.comparing(number -> {
+                String value = index.getText(name, number);
+                return value != null ? value : defaultValue;
+            });
+        }
+        return ascending ? comparator : comparator.reversed();
+    }
+
+    private static class InMemoryResults extends Results<ScoredDocument> {
+        private static final long serialVersionUID = 1L;
+
+        InMemoryResults(Collection<ScoredDocument> documents, long numberFound, @Nullable Cursor cursor) {
+            super(new OperationResult(StatusCode.OK, null), documents, numberFound, documents.size(), cursor);
+        }
+    }
+}
@@ -7,4 +7,17 @@ import java.util.function.Function;
  * Defines the mechanism for converting a searchable entity class into an index name.
  */
 public interface IndexNamingStrategy extends Function<Class<?>, String> {
+
+    /**
+     * Name a specific version of the index for an entity class.
+     * Versioned indexes are used when rebuilding an index, so the existing index can continue to serve queries until
+     * the rebuild is complete.
+     *
+     * @param entityClass The entity class.
+     * @param version     Index version.
+     * @return Versioned index name.
+     */
+    default String getVersionedName(Class<?> entityClass, String version) {
+        return apply(entityClass) + "_v" + version;
+    }
 }
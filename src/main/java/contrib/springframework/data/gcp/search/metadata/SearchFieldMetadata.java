@@ -48,6 +48,14 @@ public interface SearchFieldMetadata {
      */
     IndexType getIndexType();
 
+    /**
+     * @return Whether the value is also indexed as a facet.
+     * @see SearchIndex#facet()
+     */
+    default boolean isFacet() {
+        return false;
+    }
+
     /**
      * Get the field value for the given entity.
      *
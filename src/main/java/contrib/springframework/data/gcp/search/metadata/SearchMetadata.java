@@ -30,6 +30,16 @@ public interface SearchMetadata {
      */
     <E> String getIndexName(Class<E> entityClass);
 
+    /**
+     * Get the strategy used to name entity indexes, including the versioned indexes written while an index is rebuilt.
+     * By default this names indexes with {@link #getIndexName(Class)}.
+     *
+     * @return The strategy used to name entity indexes.
+     */
+    default IndexNamingStrategy getIndexNamingStrategy() {
+        return this::getIndexName;
+    }
+
     /**
      * Return a map of member accessors for the given entity, keyed by member name.
      *
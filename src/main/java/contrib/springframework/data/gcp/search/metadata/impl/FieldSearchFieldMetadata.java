@@ -22,6 +22,8 @@ public class FieldSearchFieldMetadata implements SearchFieldMetadata {
     private final String indexName;
     private final String encodedName;
     private final IndexType indexType;
+    private final boolean facet;
+    private final Function<Object, Object> accessor;
 
     /**
      * Create a new instance.
@@ -35,9 +37,11 @@ public class FieldSearchFieldMetadata implements SearchFieldMetadata {
 
         this.entityType = entityType;
         this.field = field;
+        this.accessor = MemberAccessors.forField(field);
         this.indexName = NAME_CALCULATOR.apply(field);
         this.encodedName = NAME_ENCODER.apply(indexName);
         this.indexType = indexType;
+        this.facet = false;
     }
 
     /**
@@ -50,6 +54,7 @@ public class FieldSearchFieldMetadata implements SearchFieldMetadata {
     public FieldSearchFieldMetadata(Class<?> entityType, Field field, IndexTypeRegistry indexTypeRegistry) {
         this.entityType = entityType;
         this.field = field;
+        this.accessor = MemberAccessors.forField(field);
         this.indexName = NAME_CALCULATOR.apply(field);
         this.encodedName = NAME_ENCODER.apply(indexName);
 
@@ -59,6 +64,7 @@ public class FieldSearchFieldMetadata implements SearchFieldMetadata {
         } else {
             this.indexType = annotation.type();
         }
+        this.facet = annotation != null && annotation.facet();
     }
 
     @Override
@@ -91,13 +97,13 @@ public class FieldSearchFieldMetadata implements SearchFieldMetadata {
         return indexType;
     }
 
+    @Override
+    public boolean isFacet() {
+        return facet;
+    }
+
     @Override
     public Object getValue(Object entity) {
-        try {
-            field.setAccessible(true);
-            return field.get(entity);
-        } catch (IllegalAccessException e) {
-            throw new UnsupportedOperationException(e);
-        }
+        return accessor.apply(entity);
     }
 }
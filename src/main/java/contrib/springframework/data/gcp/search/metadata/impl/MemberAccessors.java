@@ -0,0 +1,193 @@
+package contrib.springframework.data.gcp.search.metadata.impl;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+/**
+ * Creates fast accessors for reading the value of a field or no-argument method.
+ * <p>
+ * Accessors are created once per member and, in order of preference, are backed by:
+ * <ol>
+ * <li>A {@link LambdaMetafactory} generated {@link Function}, for public methods of public classes visible to this library.</li>
+ * <li>A {@link MethodHandle}, for any other field or method.</li>
+ * <li>Plain reflection, if neither of the above can be created.</li>
+ * </ol>
+ * Unchecked exceptions and errors thrown while reading a value are rethrown as they are; checked exceptions, and
+ * failures to access the member, are wrapped in an {@link UnsupportedOperationException}.
+ */
+public class MemberAccessors {
+    private static final MethodType OBJECT_GETTER = MethodType.methodType(Object.class, Object.class);
+
+    /**
+     * Create an accessor that reads the value of a field.
+     *
+     * @param field The field.
+     * @return Accessor taking the owning object and returning the field value.
+     */
+    public static Function<Object, Object> forField(Field field) {
+        try {
+            field.setAccessible(true);
+            return new MethodHandleAccessor(MethodHandles.lookup().unreflectGetter(field));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return new ReflectiveFieldAccessor(field);
+        }
+    }
+
+    /**
+     * Create an accessor that invokes a no-argument method.
+     *
+     * @param method The method.
+     * @return Accessor taking the owning object and returning the method result.
+     */
+    public static Function<Object, Object> forMethod(Method method) {
+        if (isLambdaCompatible(method)) {
+            try {
+                return new LambdaAccessor(createLambda(method));
+            } catch (Throwable e) {
+                //fall through to a method handle
+            }
+        }
+
+        try {
+            method.setAccessible(true);
+            return new MethodHandleAccessor(MethodHandles.lookup().unreflect(method));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return new ReflectiveMethodAccessor(method);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createLambda(Method method) throws Throwable {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle implementation = lookup.unreflect(method);
+
+        CallSite site = LambdaMetafactory.metafactory(
+                lookup,
+                "apply",
+                MethodType.methodType(Function.class),
+                OBJECT_GETTER,
+                implementation,
+                implementation.type().wrap()
+        );
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    /**
+     * Generated lambdas are defined alongside this class, so the declaring class must be public and visible from this
+     * class's class loader.
+     */
+    private static boolean isLambdaCompatible(Method method) {
+        Class<?> declaringClass = method.getDeclaringClass();
+
+        if (method.getParameterCount() != 0
+                || Modifier.isStatic(method.getModifiers())
+                || !Modifier.isPublic(method.getModifiers())
+                || !isPubliclyAccessible(declaringClass)) {
+            return false;
+        }
+
+        try {
+            return Class.forName(declaringClass.getName(), false, MemberAccessors.class.getClassLoader()) == declaringClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static boolean isPubliclyAccessible(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class LambdaAccessor implements Function<Object, Object> {
+        private final Function<Object, Object> getter;
+
+        LambdaAccessor(Function<Object, Object> getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public Object apply(Object target) {
+            try {
+                return getter.apply(target);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                //generated lambdas do not check exceptions declared by the method
+                throw new UnsupportedOperationException(e);
+            }
+        }
+    }
+
+    private static class MethodHandleAccessor implements Function<Object, Object> {
+        private final MethodHandle getter;
+
+        MethodHandleAccessor(MethodHandle getter) {
+            this.getter = getter.asType(OBJECT_GETTER);
+        }
+
+        @Override
+        public Object apply(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new UnsupportedOperationException(e);
+            }
+        }
+    }
+
+    private static class ReflectiveFieldAccessor implements Function<Object, Object> {
+        private final Field field;
+
+        ReflectiveFieldAccessor(Field field) {
+            this.field = field;
+        }
+
+        @Override
+        public Object apply(Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new UnsupportedOperationException(e);
+            }
+        }
+    }
+
+    private static class ReflectiveMethodAccessor implements Function<Object, Object> {
+        private final Method method;
+
+        ReflectiveMethodAccessor(Method method) {
+            this.method = method;
+        }
+
+        @Override
+        public Object apply(Object target) {
+            try {
+                return method.invoke(target);
+            } catch (InvocationTargetException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw new UnsupportedOperationException(e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new UnsupportedOperationException(e);
+            }
+        }
+    }
+}
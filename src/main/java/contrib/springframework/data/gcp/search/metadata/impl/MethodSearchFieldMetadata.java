@@ -6,7 +6,6 @@ import contrib.springframework.data.gcp.search.IndexType;
 import contrib.springframework.data.gcp.search.SearchIndex;
 import org.springframework.util.Assert;
 
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.function.Function;
@@ -23,6 +22,8 @@ public class MethodSearchFieldMetadata implements SearchFieldMetadata {
     private final String indexName;
     private final String encodedName;
     private final IndexType indexType;
+    private final boolean facet;
+    private final Function<Object, Object> accessor;
 
     /**
      * Create a new instance.
@@ -36,9 +37,11 @@ public class MethodSearchFieldMetadata implements SearchFieldMetadata {
 
         this.entityType = entityType;
         this.method = method;
+        this.accessor = MemberAccessors.forMethod(method);
         this.indexName = NAME_CALCULATOR.apply(method);
         this.encodedName = NAME_ENCODER.apply(indexName);
         this.indexType = indexType;
+        this.facet = false;
     }
 
     /**
@@ -51,6 +54,7 @@ public class MethodSearchFieldMetadata implements SearchFieldMetadata {
     public MethodSearchFieldMetadata(Class<?> entityType, Method method, IndexTypeRegistry indexTypeRegistry) {
         this.entityType = entityType;
         this.method = method;
+        this.accessor = MemberAccessors.forMethod(method);
         this.indexName = NAME_CALCULATOR.apply(method);
         this.encodedName = NAME_ENCODER.apply(indexName);
 
@@ -60,6 +64,7 @@ public class MethodSearchFieldMetadata implements SearchFieldMetadata {
         } else {
             this.indexType = annotation.type();
         }
+        this.facet = annotation != null && annotation.facet();
     }
 
     @Override
@@ -92,12 +97,13 @@ public class MethodSearchFieldMetadata implements SearchFieldMetadata {
         return indexType;
     }
 
+    @Override
+    public boolean isFacet() {
+        return facet;
+    }
+
     @Override
     public Object getValue(Object entity) {
-        try {
-            return method.invoke(entity);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new UnsupportedOperationException(e);
-        }
+        return accessor.apply(entity);
     }
 }
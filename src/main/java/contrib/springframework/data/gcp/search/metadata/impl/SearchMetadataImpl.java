@@ -40,6 +40,11 @@ public class SearchMetadataImpl implements SearchMetadata {
         return namingStrategy.apply(entityClass);
     }
 
+    @Override
+    public IndexNamingStrategy getIndexNamingStrategy() {
+        return namingStrategy;
+    }
+
     @Override
     public Map<String, SearchFieldMetadata> getFields(Class<?> entityClass) {
         return searchFieldMetadataRegistry.get(entityClass);
@@ -0,0 +1,103 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SearchMetrics} implementation that records to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Meters are tagged with the index name, or the fully qualified entity class name for document building and query
+ * compilation:
+ * <ul>
+ * <li>{@code search.operation} - timer of Search API calls, tagged with {@code operation} and {@code outcome}.</li>
+ * <li>{@code search.put.documents} - documents per put request.</li>
+ * <li>{@code search.document.size} - estimated document size in bytes.</li>
+ * <li>{@code search.results.found} and {@code search.results.returned} - documents matched and returned per search.</li>
+ * <li>{@code search.document.build} - time spent building documents.</li>
+ * <li>{@code search.query.compile} - time spent compiling queries.</li>
+ * <li>{@code search.writebehind.queue.depth} and {@code search.writebehind.lag} - pending documents and age of the
+ * oldest pending request, whenever a write-behind queue is flushed.</li>
+ * </ul>
+ */
+public class MicrometerSearchMetrics implements SearchMetrics {
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final DistributionSummary writeBehindQueueDepth;
+    private final Timer writeBehindLag;
+
+    /**
+     * Create a new instance.
+     *
+     * @param registry Meter registry to record to.
+     */
+    public MicrometerSearchMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        writeBehindQueueDepth = DistributionSummary.builder("search.writebehind.queue.depth")
+                .baseUnit("documents")
+                .register(registry);
+        writeBehindLag = Timer.builder("search.writebehind.lag").register(registry);
+    }
+
+    @Override
+    public void recordOperation(String indexName, SearchOperation operation, long durationNanos, boolean success) {
+        String outcome = success ? "success" : "failure";
+        timers.computeIfAbsent(indexName + '|' + operation + '|' + outcome, key -> Timer.builder("search.operation")
+                .tag("index", indexName)
+                .tag("operation", operation.getTag())
+                .tag("outcome", outcome)
+                .register(registry))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPut(String indexName, int documentCount) {
+        summary("search.put.documents", "documents", indexName).record(documentCount);
+    }
+
+    @Override
+    public void recordDocumentSize(String indexName, long bytes) {
+        summary("search.document.size", "bytes", indexName).record(bytes);
+    }
+
+    @Override
+    public void recordSearchResult(String indexName, long numberFound, int numberReturned) {
+        summary("search.results.found", "documents", indexName).record(numberFound);
+        summary("search.results.returned", "documents", indexName).record(numberReturned);
+    }
+
+    @Override
+    public void recordDocumentBuild(Class<?> entityClass, long durationNanos) {
+        entityTimer("search.document.build", entityClass).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordQueryCompile(Class<?> entityClass, long durationNanos) {
+        entityTimer("search.query.compile", entityClass).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordWriteBehindFlush(int queueDepth, long lagMillis) {
+        writeBehindQueueDepth.record(queueDepth);
+        writeBehindLag.record(lagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private DistributionSummary summary(String name, String baseUnit, String indexName) {
+        return summaries.computeIfAbsent(name + '|' + indexName, key -> DistributionSummary.builder(name)
+                .baseUnit(baseUnit)
+                .tag("index", indexName)
+                .register(registry));
+    }
+
+    private Timer entityTimer(String name, Class<?> entityClass) {
+        return timers.computeIfAbsent(name + '|' + entityClass.getName(), key -> Timer.builder(name)
+                .tag("entity", entityClass.getName())
+                .register(registry));
+    }
+}
@@ -0,0 +1,42 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+/**
+ * A no-operation {@link SearchMetrics} implementation.
+ */
+public class NoOpSearchMetrics implements SearchMetrics {
+
+    @Override
+    public void recordOperation(String indexName, SearchOperation operation, long durationNanos, boolean success) {
+        //no-op
+    }
+
+    @Override
+    public void recordPut(String indexName, int documentCount) {
+        //no-op
+    }
+
+    @Override
+    public void recordDocumentSize(String indexName, long bytes) {
+        //no-op
+    }
+
+    @Override
+    public void recordSearchResult(String indexName, long numberFound, int numberReturned) {
+        //no-op
+    }
+
+    @Override
+    public void recordDocumentBuild(Class<?> entityClass, long durationNanos) {
+        //no-op
+    }
+
+    @Override
+    public void recordQueryCompile(Class<?> entityClass, long durationNanos) {
+        //no-op
+    }
+
+    @Override
+    public void recordWriteBehindFlush(int queueDepth, long lagMillis) {
+        //no-op
+    }
+}
@@ -0,0 +1,69 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+/**
+ * Instrumentation hooks for the search service.
+ * <p>
+ * Implementations are called on the request path, so they should be cheap and must not throw.
+ */
+public interface SearchMetrics {
+
+    /**
+     * Record a Search API call. Asynchronous calls are timed from when they are issued until they complete, when the
+     * search service has an executor to wait for them, or otherwise until their result is first collected.
+     *
+     * @param indexName     Name of the index.
+     * @param operation     The operation.
+     * @param durationNanos Duration in nanoseconds.
+     * @param success       Whether the call succeeded.
+     */
+    void recordOperation(String indexName, SearchOperation operation, long durationNanos, boolean success);
+
+    /**
+     * Record a put request.
+     *
+     * @param indexName     Name of the index.
+     * @param documentCount Number of documents in the request.
+     */
+    void recordPut(String indexName, int documentCount);
+
+    /**
+     * Record the estimated size of a document sent to the Search API.
+     *
+     * @param indexName Name of the index.
+     * @param bytes     Estimated document size in bytes.
+     */
+    void recordDocumentSize(String indexName, long bytes);
+
+    /**
+     * Record the result of a search.
+     *
+     * @param indexName      Name of the index.
+     * @param numberFound    Number of documents that matched the query.
+     * @param numberReturned Number of documents returned.
+     */
+    void recordSearchResult(String indexName, long numberFound, int numberReturned);
+
+    /**
+     * Record the time spent building a search document from an entity.
+     *
+     * @param entityClass   The entity class.
+     * @param durationNanos Duration in nanoseconds.
+     */
+    void recordDocumentBuild(Class<?> entityClass, long durationNanos);
+
+    /**
+     * Record the time spent compiling a query.
+     *
+     * @param entityClass   The query result type.
+     * @param durationNanos Duration in nanoseconds.
+     */
+    void recordQueryCompile(Class<?> entityClass, long durationNanos);
+
+    /**
+     * Record the state of a write-behind queue when it is flushed.
+     *
+     * @param queueDepth Number of distinct documents waiting to be written.
+     * @param lagMillis  Age in milliseconds of the oldest pending request.
+     */
+    void recordWriteBehindFlush(int queueDepth, long lagMillis);
+}
@@ -0,0 +1,24 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+/**
+ * Search API operations that are timed by {@link SearchMetrics}.
+ */
+public enum SearchOperation {
+    SEARCH("search"),
+    PUT("put"),
+    DELETE("delete"),
+    GET_RANGE("getRange");
+
+    private final String tag;
+
+    SearchOperation(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * @return Name of the operation, as used in metric tags.
+     */
+    public String getTag() {
+        return tag;
+    }
+}
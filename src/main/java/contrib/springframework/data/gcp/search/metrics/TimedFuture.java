@@ -0,0 +1,123 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Wraps an asynchronous Search API call and records its duration once.
+ * <p>
+ * App Engine API futures can not notify on completion, so when a completion executor is given a task waits on the call
+ * and records it as soon as it completes, whether or not the result is ever collected. Without one, or if the executor
+ * fails to run the task, the duration is recorded when the result is first collected.
+ *
+ * @param <T> Result type.
+ */
+public class TimedFuture<T> implements Future<T> {
+
+    private final Future<T> delegate;
+    private final SearchMetrics metrics;
+    private final String indexName;
+    private final SearchOperation operation;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    /**
+     * Create a new instance. Timing starts immediately, so this should be created as soon as the call is issued.
+     *
+     * @param delegate  The call to time.
+     * @param metrics   Metrics to record to.
+     * @param indexName Name of the index.
+     * @param operation The operation.
+     */
+    public TimedFuture(Future<T> delegate, SearchMetrics metrics, String indexName, SearchOperation operation) {
+        this(delegate, metrics, indexName, operation, null);
+    }
+
+    /**
+     * Create a new instance. Timing starts immediately, so this should be created as soon as the call is issued.
+     * On App Engine the executor must run tasks on threads with access to the API environment, e.g. threads created by
+     * {@link com.google.appengine.api.ThreadManager#backgroundThreadFactory()}.
+     *
+     * @param delegate           The call to time.
+     * @param metrics            Metrics to record to.
+     * @param indexName          Name of the index.
+     * @param operation          The operation.
+     * @param completionExecutor Executor used to wait for the call to complete, or {@code null} to record the duration
+     *                           when the result is first collected.
+     */
+    public TimedFuture(Future<T> delegate, SearchMetrics metrics, String indexName, SearchOperation operation, @Nullable Executor completionExecutor) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        this.indexName = indexName;
+        this.operation = operation;
+
+        if (completionExecutor != null) {
+            try {
+                completionExecutor.execute(this::awaitCompletion);
+            } catch (RuntimeException e) {
+                // The duration will be recorded when the result is collected
+            }
+        }
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        try {
+            T result = delegate.get();
+            record(true);
+            return result;
+        } catch (ExecutionException e) {
+            record(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        try {
+            T result = delegate.get(timeout, unit);
+            record(true);
+            return result;
+        } catch (ExecutionException e) {
+            record(false);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return delegate.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return delegate.isCancelled();
+    }
+
+    @Override
+    public boolean isDone() {
+        return delegate.isDone();
+    }
+
+    private void awaitCompletion() {
+        try {
+            Uninterruptibles.getUninterruptibly(delegate);
+            record(true);
+        } catch (ExecutionException | RuntimeException e) {
+            record(false);
+        }
+    }
+
+    private void record(boolean success) {
+        if (recorded.compareAndSet(false, true)) {
+            metrics.recordOperation(indexName, operation, System.nanoTime() - startNanos, success);
+        }
+    }
+}
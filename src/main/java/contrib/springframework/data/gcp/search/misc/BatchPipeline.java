@@ -0,0 +1,60 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import org.springframework.util.Assert;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Issues a sequence of asynchronous batch operations while keeping a bounded number of them in flight.
+ * <p>
+ * Once the window is full, submitting another batch will first wait for the oldest outstanding batch to complete.
+ * This allows arbitrarily large operations to be split into Search API sized requests without flooding the API or
+ * waiting on each request in series.
+ */
+public class BatchPipeline {
+
+    private final int maxInFlight;
+    private final Deque<Future<?>> inFlight = new ArrayDeque<>();
+
+    /**
+     * Create a new instance.
+     *
+     * @param maxInFlight Maximum number of batches that may be outstanding at any one time.
+     */
+    public BatchPipeline(int maxInFlight) {
+        Assert.isTrue(maxInFlight > 0, "maxInFlight must be greater than zero");
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Issue a batch, waiting for the oldest outstanding batch to complete if the window is full.
+     *
+     * @param batch Supplier that issues the batch and returns its {@link Future}.
+     * @return This pipeline, for method chaining.
+     * @throws IndexException If an outstanding batch failed while waiting for room in the window.
+     */
+    public BatchPipeline submit(Supplier<? extends Future<?>> batch) {
+        while (inFlight.size() >= maxInFlight) {
+            IndexOperation.complete(inFlight.removeFirst());
+        }
+        inFlight.addLast(batch.get());
+        return this;
+    }
+
+    /**
+     * @return Number of batches currently outstanding.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * @return Operation that can be used to wait for all outstanding batches to complete.
+     */
+    public IndexOperation complete() {
+        return new IndexOperation(inFlight);
+    }
+}
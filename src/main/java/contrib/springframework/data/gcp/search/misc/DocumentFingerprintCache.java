@@ -0,0 +1,273 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import com.google.appengine.api.search.Index;
+import com.google.common.base.Strings;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers a fingerprint of the last document indexed for each document id, so that re-indexing a document whose
+ * search fields have not changed can be skipped.
+ * <p>
+ * Fingerprints are kept either in a size-bounded local cache or, when shared between instances, in memcache only. A
+ * local tier in front of memcache could not be invalidated when another instance unindexes or clears documents, and
+ * would then skip documents that are no longer in the index. Memcache entries are tagged with a per-index generation
+ * that is bumped when the index is cleared.
+ * <p>
+ * The local cache is only correct when a single instance writes to the index: a change made by another instance is
+ * not seen locally, so a later write of the previous document would be skipped and the index left stale. Use memcache
+ * whenever more than one instance may index the same documents.
+ */
+public class DocumentFingerprintCache {
+    private static final String MEMCACHE_PREFIX = "SearchFingerprint:";
+    private static final String GENERATION_SUFFIX = ":generation";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentFingerprintCache.class);
+
+    private final Cache<String, Long> localCache;
+    private final MemcacheService memcache;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong skipCount = new AtomicLong();
+
+    /**
+     * Create a new instance.
+     *
+     * @param maximumSize Maximum number of fingerprints held in the local cache, if memcache is not used.
+     * @param memcache    Memcache service used to share fingerprints between instances, or {@code null} to use the local cache.
+     */
+    public DocumentFingerprintCache(long maximumSize, @Nullable MemcacheService memcache) {
+        this.localCache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.memcache = memcache;
+        if (memcache == null) {
+            LOGGER.warn("Document fingerprints are held in a local cache, this is only correct when a single instance writes to the search indexes");
+        }
+    }
+
+    /**
+     * Remove the documents whose fingerprint matches the last document indexed with the same id.
+     *
+     * @param index     The index the documents will be written to.
+     * @param documents Documents to be indexed.
+     * @return The documents that have changed and need to be indexed.
+     */
+    public List<Document> filterChanged(Index index, List<Document> documents) {
+        String indexKey = getIndexKey(index);
+        Map<String, Long> remembered = lookup(indexKey, documents);
+
+        List<Document> changed = new ArrayList<>(documents.size());
+        for (Document document : documents) {
+            Long previous = remembered.get(document.getId());
+            if (previous != null) {
+                hitCount.incrementAndGet();
+                if (previous == fingerprint(document)) {
+                    skipCount.incrementAndGet();
+                    continue;
+                }
+            }
+            changed.add(document);
+        }
+        return changed;
+    }
+
+    /**
+     * Get the current generation of an index's fingerprints. Read it before the documents are written and pass it to
+     * {@link #remember(Index, Collection, long)}, so that fingerprints of a write that overlaps
+     * {@link #forgetAll(Index) clearing the index} are not taken to be current.
+     *
+     * @param index The index.
+     * @return Generation of the index.
+     */
+    public long getGeneration(Index index) {
+        if (memcache == null) {
+            return 0L;
+        }
+        Object generation = memcache.get(getGenerationKey(getIndexKey(index)));
+        return generation instanceof Number ? ((Number) generation).longValue() : 0L;
+    }
+
+    /**
+     * Record the fingerprints of documents that have been indexed successfully.
+     *
+     * @param index      The index the documents were written to.
+     * @param documents  The indexed documents.
+     * @param generation Generation of the index read by {@link #getGeneration(Index)} before the documents were written.
+     */
+    public void remember(Index index, Collection<Document> documents, long generation) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        String indexKey = getIndexKey(index);
+        Map<String, Long> fingerprints = new HashMap<>();
+        documents.forEach(document -> fingerprints.put(document.getId(), fingerprint(document)));
+
+        if (memcache == null) {
+            fingerprints.forEach((id, fingerprint) -> localCache.put(getDocumentKey(indexKey, id), fingerprint));
+        } else {
+            Map<String, String> values = new HashMap<>();
+            fingerprints.forEach((id, fingerprint) -> values.put(getDocumentKey(indexKey, id), generation + ":" + fingerprint));
+            memcache.putAll(values);
+        }
+    }
+
+    /**
+     * Forget the fingerprints of documents that have been removed from the index.
+     *
+     * @param index The index.
+     * @param ids   Ids of the removed documents.
+     */
+    public void forget(Index index, Collection<String> ids) {
+        String indexKey = getIndexKey(index);
+        List<String> keys = new ArrayList<>(ids.size());
+        ids.forEach(id -> keys.add(getDocumentKey(indexKey, id)));
+
+        localCache.invalidateAll(keys);
+        if (memcache != null) {
+            memcache.deleteAll(keys);
+        }
+    }
+
+    /**
+     * Forget every fingerprint for an index, e.g. after it has been cleared.
+     *
+     * @param index The index.
+     */
+    public void forgetAll(Index index) {
+        String prefix = getDocumentKey(getIndexKey(index), "");
+        localCache.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+
+        if (memcache != null) {
+            memcache.increment(getGenerationKey(getIndexKey(index)), 1L, 0L);
+        }
+    }
+
+    /**
+     * @return Number of documents for which a previous fingerprint was found.
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * @return Number of documents that were not re-indexed because their fingerprint was unchanged.
+     */
+    public long getSkipCount() {
+        return skipCount.get();
+    }
+
+    /**
+     * Calculate the fingerprint of a document's fields.
+     *
+     * @param document The document.
+     * @return Document fingerprint.
+     */
+    public static long fingerprint(Document document) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+
+        for (Field field : document.getFields()) {
+            hasher.putString(field.getName(), StandardCharsets.UTF_8);
+            hasher.putInt(field.getType() != null ? field.getType().ordinal() : -1);
+            putValue(hasher, field);
+        }
+
+        return hasher.hash().asLong();
+    }
+
+    private static void putValue(Hasher hasher, Field field) {
+        if (field.getType() == null) {
+            return;
+        }
+
+        switch (field.getType()) {
+            case NUMBER:
+                hasher.putDouble(field.getNumber());
+                break;
+            case DATE:
+                hasher.putLong(field.getDate() != null ? field.getDate().getTime() : Long.MIN_VALUE);
+                break;
+            case GEO_POINT:
+                GeoPoint geoPoint = field.getGeoPoint();
+                hasher.putDouble(geoPoint.getLatitude()).putDouble(geoPoint.getLongitude());
+                break;
+            case VECTOR:
+                field.getVector().forEach(hasher::putDouble);
+                break;
+            default:
+                hasher.putString(Strings.nullToEmpty(getStringValue(field)), StandardCharsets.UTF_8);
+        }
+        hasher.putByte((byte) 0);
+    }
+
+    private static String getStringValue(Field field) {
+        switch (field.getType()) {
+            case HTML:
+                return field.getHTML();
+            case ATOM:
+                return field.getAtom();
+            case UNTOKENIZED_PREFIX:
+                return field.getUntokenizedPrefix();
+            case TOKENIZED_PREFIX:
+                return field.getTokenizedPrefix();
+            default:
+                return field.getText();
+        }
+    }
+
+    private Map<String, Long> lookup(String indexKey, List<Document> documents) {
+        Map<String, Long> result = new HashMap<>();
+
+        if (memcache == null) {
+            for (Document document : documents) {
+                Long fingerprint = localCache.getIfPresent(getDocumentKey(indexKey, document.getId()));
+                if (fingerprint != null) {
+                    result.put(document.getId(), fingerprint);
+                }
+            }
+            return result;
+        }
+
+        String generationKey = getGenerationKey(indexKey);
+        List<String> keys = new ArrayList<>(documents.size() + 1);
+        keys.add(generationKey);
+        documents.forEach(document -> keys.add(getDocumentKey(indexKey, document.getId())));
+
+        Map<String, Object> values = memcache.getAll(keys);
+        String generation = String.valueOf(values.getOrDefault(generationKey, 0L));
+
+        for (Document document : documents) {
+            Object value = values.get(getDocumentKey(indexKey, document.getId()));
+            if (value instanceof String && ((String) value).startsWith(generation + ":")) {
+                result.put(document.getId(), Long.parseLong(((String) value).substring(generation.length() + 1)));
+            }
+        }
+        return result;
+    }
+
+    private static String getIndexKey(Index index) {
+        return Strings.nullToEmpty(index.getNamespace()) + ":" + index.getName();
+    }
+
+    private static String getDocumentKey(String indexKey, String id) {
+        return MEMCACHE_PREFIX + indexKey + ":" + id;
+    }
+
+    private static String getGenerationKey(String indexKey) {
+        return MEMCACHE_PREFIX + indexKey + GENERATION_SUFFIX;
+    }
+}
@@ -0,0 +1,177 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Facet;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import com.google.common.base.Utf8;
+
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+
+/**
+ * Estimates the encoded size of a search {@link Document}.
+ * <p>
+ * The Search API checks the size of the serialized protocol buffer of a document against its document size limit.
+ * The estimate is the UTF-8 length of the document id and of every field and facet name and string value, plus the
+ * longest encoding of numeric, date, geopoint and vector values and a fixed allowance for the framing of the document
+ * and of each field and facet. It is an upper bound of the serialized size for documents, fields and facets with
+ * language codes of up to eight characters.
+ */
+public class DocumentSizeEstimator {
+
+    /**
+     * Allowance for the tags, lengths, order id and language of a document.
+     */
+    public static final long DOCUMENT_OVERHEAD = 32;
+
+    /**
+     * Allowance for the tags, lengths, value type and language of a field or facet.
+     */
+    public static final long FIELD_OVERHEAD = 32;
+
+    /**
+     * Longest encoding of a date, of a facet number, and of a field number of at least {@code 0.001} in magnitude.
+     * The Search API sends these as strings, field numbers in plain decimal notation.
+     */
+    static final long NUMBER_LENGTH = 24;
+
+    /**
+     * Encoding of a geopoint value, as two tagged doubles in a nested message.
+     */
+    static final long GEO_POINT_LENGTH = 2 * (1 + Double.BYTES) + 4;
+
+    /**
+     * Estimate the size of a document.
+     *
+     * @param document The document.
+     * @return Estimated size in bytes.
+     */
+    public static long estimate(Document document) {
+        long size = DOCUMENT_OVERHEAD + encodedLength(document.getId());
+        for (Field field : document.getFields()) {
+            size += estimate(field);
+        }
+        for (Facet facet : document.getFacets()) {
+            size += estimate(facet);
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the size of a single field.
+     *
+     * @param field The field.
+     * @return Estimated size in bytes.
+     */
+    public static long estimate(Field field) {
+        long size = FIELD_OVERHEAD + encodedLength(field.getName());
+        if (field.getType() == null) {
+            return size;
+        }
+
+        switch (field.getType()) {
+            case NUMBER:
+                return size + numberLength(field.getNumber());
+            case DATE:
+                return size + NUMBER_LENGTH;
+            case GEO_POINT:
+                return size + GEO_POINT_LENGTH;
+            case VECTOR:
+                return size + (long) field.getVector().size() * (1 + Double.BYTES);
+            case HTML:
+                return size + encodedLength(field.getHTML());
+            case ATOM:
+                return size + encodedLength(field.getAtom());
+            case UNTOKENIZED_PREFIX:
+                return size + encodedLength(field.getUntokenizedPrefix());
+            case TOKENIZED_PREFIX:
+                return size + encodedLength(field.getTokenizedPrefix());
+            default:
+                return size + encodedLength(field.getText());
+        }
+    }
+
+    /**
+     * Estimate the size of a single facet.
+     *
+     * @param facet The facet.
+     * @return Estimated size in bytes.
+     */
+    public static long estimate(Facet facet) {
+        long size = FIELD_OVERHEAD + encodedLength(facet.getName());
+        return facet.getAtom() != null ? size + encodedLength(facet.getAtom()) : size + NUMBER_LENGTH;
+    }
+
+    /**
+     * Estimate the size of a field or facet value before it is written, excluding the name and
+     * {@link #FIELD_OVERHEAD}.
+     *
+     * @param value The field value, as converted for the Search API.
+     * @return Estimated size in bytes.
+     */
+    public static long estimateValue(@Nullable Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return encodedLength((String) value);
+        }
+        if (value instanceof GeoPoint) {
+            return GEO_POINT_LENGTH;
+        }
+        if (value instanceof Double) {
+            return numberLength((Double) value);
+        }
+        return NUMBER_LENGTH;
+    }
+
+    /**
+     * @param value A field number.
+     * @return Upper bound of the length of the number in plain decimal notation.
+     */
+    private static long numberLength(double value) {
+        double magnitude = Math.abs(value);
+        if (magnitude == 0 || magnitude >= 0.001 || !Double.isFinite(value)) {
+            return NUMBER_LENGTH;
+        }
+        return BigDecimal.valueOf(value).toPlainString().length();
+    }
+
+    /**
+     * Truncate a string so its UTF-8 encoding fits within the given number of bytes, without splitting a character.
+     *
+     * @param value    The string.
+     * @param maxBytes Maximum encoded length.
+     * @return The truncated string.
+     */
+    public static String truncate(String value, long maxBytes) {
+        long size = 0;
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+            size += codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (size > maxBytes) {
+                return value.substring(0, i);
+            }
+            i += Character.charCount(codePoint);
+        }
+        return value;
+    }
+
+    /**
+     * @param value The string.
+     * @return UTF-8 encoded length of the string, or zero for {@code null}.
+     */
+    public static long encodedLength(@Nullable String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        try {
+            return Utf8.encodedLength(value);
+        } catch (IllegalArgumentException e) {
+            //unpaired surrogates, assume the worst case
+            return value.length() * 3L;
+        }
+    }
+}
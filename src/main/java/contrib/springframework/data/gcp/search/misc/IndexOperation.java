@@ -1,15 +1,19 @@
 package contrib.springframework.data.gcp.search.misc;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
 /**
- * Runnable that wraps a {@link Future} operation that does not return a value.
- * Calling {@link Runnable#run()} should just synchronously complete the {@link Future} operation.
+ * Runnable that wraps one or more {@link Future} operations that do not return a value.
+ * Calling {@link Runnable#run()} should just synchronously complete the {@link Future} operations.
  */
 public class IndexOperation implements Runnable {
 
-    private final Future<?> future;
+    private final List<Future<?>> futures;
 
     /**
      * Create a new instance.
@@ -17,13 +21,35 @@ public class IndexOperation implements Runnable {
      * @param future The {@link Future} to wrap.
      */
     public IndexOperation(Future<?> future) {
-        this.future = future;
+        this(Collections.singletonList(future));
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param futures The {@link Future}s to wrap. They will be completed in iteration order.
+     */
+    public IndexOperation(Collection<? extends Future<?>> futures) {
+        this.futures = new ArrayList<>(futures);
     }
 
     @Override
     public void run() {
+        for (Future<?> future : futures) {
+            complete(future);
+        }
+    }
+
+    /**
+     * Synchronously complete a single {@link Future}, wrapping any failure in an {@link IndexException}.
+     *
+     * @param future The future to complete.
+     * @param <T>    Future result type.
+     * @return The future result.
+     */
+    public static <T> T complete(Future<T> future) {
         try {
-            future.get();
+            return future.get();
         } catch (InterruptedException | ExecutionException e) {
             throw new IndexException(e);
         }
@@ -0,0 +1,34 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * One or more documents exceeded the maximum document size and were not indexed.
+ */
+public class OversizeDocumentException extends IndexException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> ids;
+
+    /**
+     * Create a new instance.
+     *
+     * @param message Exception message.
+     * @param ids     Ids of the rejected documents.
+     */
+    public OversizeDocumentException(String message, Collection<String> ids) {
+        super(message);
+        this.ids = Collections.unmodifiableSet(new LinkedHashSet<>(ids));
+    }
+
+    /**
+     * @return Ids of the rejected documents.
+     */
+    public Set<String> getIds() {
+        return ids;
+    }
+}
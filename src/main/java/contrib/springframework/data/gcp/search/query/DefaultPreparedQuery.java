@@ -0,0 +1,86 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.SearchService;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link PreparedQuery} that substitutes the parameter values into a copy of the query and executes it with a
+ * {@link SearchService}.
+ * Used by search services that have no compiled form of a query to cache.
+ *
+ * @param <E> Result type.
+ */
+public class DefaultPreparedQuery<E> implements PreparedQuery<E> {
+
+    private final SearchService searchService;
+    private final Query<E> query;
+    private final Set<String> parameterNames;
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchService Search service used to execute the query.
+     * @param query         The query, with {@link QueryParameter} placeholders.
+     */
+    public DefaultPreparedQuery(SearchService searchService, Query<E> query) {
+        this.searchService = searchService;
+        this.query = query;
+
+        Set<String> names = new LinkedHashSet<>();
+        for (Query.Fragment fragment : query.getFragments()) {
+            if (fragment.getValue() instanceof QueryParameter) {
+                names.add(((QueryParameter) fragment.getValue()).getName());
+            }
+        }
+        this.parameterNames = Collections.unmodifiableSet(names);
+    }
+
+    @Override
+    public Class<E> getResultType() {
+        return query.getResultType();
+    }
+
+    @Override
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    @Override
+    public Result<ScoredDocument> execute(Map<String, ?> parameters) {
+        return searchService.execute(bind(parameters));
+    }
+
+    private Query<E> bind(Map<String, ?> parameters) {
+        QueryImpl<E> bound = new QueryImpl<>(query.getResultType());
+        for (Query.Fragment fragment : query.getFragments()) {
+            Object value = fragment.getValue() instanceof QueryParameter
+                    ? ((QueryParameter) fragment.getValue()).resolve(parameters)
+                    : fragment.getValue();
+            if (fragment.isRaw()) {
+                bound.filter(value);
+            } else {
+                bound.filter(fragment.getField(), fragment.getOperator(), value);
+            }
+        }
+
+        query.getLimit().ifPresent(bound::limit);
+        query.getSkip().ifPresent(bound::skip);
+        query.getAccuracy().ifPresent(bound::accuracy);
+        query.getSort().ifPresent(sort -> {
+            for (Sort.Order order : sort) {
+                bound.order(order.getProperty(), order.getDirection());
+            }
+        });
+        bound.setRetrieveIdsOnly(query.isIdsOnly());
+        bound.returnFields(query.getFieldsToReturn().toArray(new String[0]));
+        query.getCursor().ifPresent(cursor -> bound.cursor(cursor, query.isPerResultCursors()));
+        query.getFacets().forEach(bound::facet);
+        return bound.build();
+    }
+}
@@ -0,0 +1,48 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.FacetRange;
+import com.google.appengine.api.search.FacetRequest;
+import com.google.common.collect.Range;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compile the Google Search API {@link FacetRequest}s of a {@link Query} object.
+ */
+public class FacetRequestCompiler implements Function<Query<?>, List<FacetRequest>> {
+    final SearchMetadata searchMetadata;
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchMetadata Search metadata.
+     */
+    public FacetRequestCompiler(SearchMetadata searchMetadata) {
+        this.searchMetadata = searchMetadata;
+    }
+
+    @Override
+    public List<FacetRequest> apply(Query<?> query) {
+        return query.getFacets().stream()
+                .map(facet -> compile(query.getResultType(), facet))
+                .collect(Collectors.toList());
+    }
+
+    private FacetRequest compile(Class<?> resultType, Query.Facet facet) {
+        FacetRequest.Builder request = FacetRequest.newBuilder()
+                .setName(searchMetadata.encodeFieldName(resultType, facet.getField()));
+        facet.getValueLimit().ifPresent(request::setValueLimit);
+        facet.getRanges().forEach(range -> request.addRange(compile(range)));
+        return request.build();
+    }
+
+    private static FacetRange compile(Range<Double> range) {
+        if (!range.hasLowerBound()) {
+            return FacetRange.withEnd(range.upperEndpoint());
+        }
+        return range.hasUpperBound() ? FacetRange.withStartEnd(range.lowerEndpoint(), range.upperEndpoint()) : FacetRange.withStart(range.lowerEndpoint());
+    }
+}
@@ -0,0 +1,77 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.OperationResult;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.appengine.api.search.StatusCode;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merged result of queries against several indexes.
+ *
+ * @see contrib.springframework.data.gcp.search.SearchService#executeAll(List, int)
+ */
+public class MultiResult implements Result<ScoredDocument> {
+
+    private final List<ScoredDocument> documents;
+    private final Map<ScoredDocument, Class<?>> resultTypes;
+    private final Map<Class<?>, Long> totals;
+    private final Results<ScoredDocument> metadata;
+
+    /**
+     * Create a new instance.
+     *
+     * @param documents   Merged documents, in result order.
+     * @param resultTypes Result type of each document.
+     * @param totals      Number of documents found for each result type.
+     */
+    public MultiResult(List<ScoredDocument> documents, IdentityHashMap<ScoredDocument, Class<?>> resultTypes, Map<Class<?>, Long> totals) {
+        this.documents = Collections.unmodifiableList(documents);
+        this.resultTypes = resultTypes;
+        this.totals = Collections.unmodifiableMap(totals);
+        this.metadata = new MergedResults(documents, totals.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Override
+    public List<ScoredDocument> getList() {
+        return documents;
+    }
+
+    /**
+     * @return Merged results. The number found is the sum of the number found by each query.
+     */
+    @Override
+    public Results<ScoredDocument> getMetadata() {
+        return metadata;
+    }
+
+    /**
+     * @return Number of documents found for each result type.
+     */
+    public Map<Class<?>, Long> getTotals() {
+        return totals;
+    }
+
+    /**
+     * Get the result type of the query that returned a document.
+     *
+     * @param document A document of this result.
+     * @return Result type.
+     */
+    public Class<?> getResultType(ScoredDocument document) {
+        return resultTypes.get(document);
+    }
+
+    private static class MergedResults extends Results<ScoredDocument> {
+        private static final long serialVersionUID = 1L;
+
+        MergedResults(Collection<ScoredDocument> documents, long numberFound) {
+            super(new OperationResult(StatusCode.OK, null), documents, numberFound, documents.size(), null);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.Cursor;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterates over every result of a query, following cursors page by page.
+ * <p>
+ * The first page is requested when the iterator is first used. Each following page is requested as soon as the page
+ * before it arrives, so it is fetched while the current page is transformed and consumed, and at most two pages are
+ * held at a time. The query limit sets the page size.
+ *
+ * @param <T> Result type.
+ */
+public class PagingResultIterator<T> implements Iterator<T> {
+    /**
+     * Page size used when the query does not specify a limit.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final Query<?> query;
+    private final Function<Query<?>, Supplier<Results<ScoredDocument>>> search;
+    private final Function<Results<ScoredDocument>, List<T>> resultTransformer;
+    private Iterator<T> current = Collections.emptyIterator();
+    private Supplier<Results<ScoredDocument>> next;
+    private boolean started;
+
+    /**
+     * Create a new instance.
+     *
+     * @param query             The query. It must not use {@link QueryBuilder#skip(int)}.
+     * @param search            Starts a search for a page and returns a hook that completes it.
+     * @param resultTransformer Transformer used to transform each page.
+     */
+    public PagingResultIterator(Query<?> query,
+                                Function<Query<?>, Supplier<Results<ScoredDocument>>> search,
+                                Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        Assert.isTrue(!query.getSkip().isPresent(), "A streamed query can not use skip");
+        this.query = query;
+        this.search = search;
+        this.resultTransformer = resultTransformer;
+    }
+
+    /**
+     * Create a lazily evaluated stream over every result of a query.
+     *
+     * @param query             The query.
+     * @param search            Starts a search for a page and returns a hook that completes it.
+     * @param resultTransformer Transformer used to transform each page.
+     * @param <T>               Result type.
+     * @return Result stream.
+     */
+    public static <T> Stream<T> stream(Query<?> query,
+                                       Function<Query<?>, Supplier<Results<ScoredDocument>>> search,
+                                       Function<Results<ScoredDocument>, List<T>> resultTransformer) {
+        Iterator<T> iterator = new PagingResultIterator<>(query, search, resultTransformer);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetch(query, query.getCursor().orElse(null));
+        }
+
+        while (!current.hasNext() && next != null) {
+            Results<ScoredDocument> page = next.get();
+            Cursor cursor = page.getCursor();
+            next = cursor != null && page.getNumberReturned() > 0 ? fetch(query, cursor.toWebSafeString()) : null;
+            current = resultTransformer.apply(page).iterator();
+        }
+        return current.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    private <E> Supplier<Results<ScoredDocument>> fetch(Query<E> query, String cursor) {
+        QueryImpl<E> page = new QueryImpl<>(query);
+        page.cursor(cursor);
+        if (!query.getLimit().isPresent()) {
+            page.limit(DEFAULT_PAGE_SIZE);
+        }
+        return search.apply(page.build());
+    }
+}
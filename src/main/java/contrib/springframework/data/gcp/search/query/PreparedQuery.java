@@ -0,0 +1,55 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.ScoredDocument;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A query whose shape has been compiled ahead of time, so executing it only binds the {@link QueryParameter} values.
+ *
+ * @param <E> Result type.
+ * @see contrib.springframework.data.gcp.search.SearchService#prepare(Query)
+ */
+public interface PreparedQuery<E> {
+
+    /**
+     * @return The type of result this query produces.
+     */
+    Class<E> getResultType();
+
+    /**
+     * @return Names of the parameters that must be bound to execute this query.
+     */
+    Set<String> getParameterNames();
+
+    /**
+     * Bind the parameter values and execute the query.
+     *
+     * @param parameters Parameter values by name.
+     * @return Query result.
+     * @throws IllegalArgumentException If a parameter has no value.
+     */
+    Result<ScoredDocument> execute(Map<String, ?> parameters);
+
+    /**
+     * Execute a query that has no parameters.
+     *
+     * @return Query result.
+     */
+    default Result<ScoredDocument> execute() {
+        return execute(Collections.emptyMap());
+    }
+
+    /**
+     * Bind a single parameter value and execute the query.
+     *
+     * @param name  Parameter name.
+     * @param value Parameter value.
+     * @return Query result.
+     */
+    default Result<ScoredDocument> execute(String name, Object value) {
+        return execute(Collections.singletonMap(name, value));
+    }
+}
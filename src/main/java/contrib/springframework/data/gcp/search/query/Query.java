@@ -1,5 +1,6 @@
 package contrib.springframework.data.gcp.search.query;
 
+import com.google.common.collect.Range;
 import contrib.springframework.data.gcp.search.Operator;
 import org.springframework.data.domain.Sort;
 
@@ -57,6 +58,30 @@ public interface Query<E> {
      */
     boolean isIdsOnly();
 
+    /**
+     * @return Names of the fields returned by the query, or an empty list to return every field.
+     */
+    @Nonnull
+    List<String> getFieldsToReturn();
+
+    /**
+     * @return The cursor to continue from, an empty string to start paging with cursors, or empty if results are paged
+     * by offset.
+     */
+    @Nonnull
+    Optional<String> getCursor();
+
+    /**
+     * @return Whether a cursor is returned for every result.
+     */
+    boolean isPerResultCursors();
+
+    /**
+     * @return Facets to aggregate over the matching documents.
+     */
+    @Nonnull
+    List<Facet> getFacets();
+
     /**
      * A filter filterIn fragment.
      */
@@ -85,4 +110,27 @@ public interface Query<E> {
         @Nullable
         Object getValue();
     }
+
+    /**
+     * A facet request, counting the matching documents by the values of a facet field.
+     */
+    interface Facet {
+        /**
+         * @return The field to aggregate.
+         */
+        @Nonnull
+        String getField();
+
+        /**
+         * @return Maximum number of values to return, or empty for the Search API default.
+         */
+        @Nonnull
+        Optional<Integer> getValueLimit();
+
+        /**
+         * @return Numeric ranges to count the documents in, or an empty list to count by value.
+         */
+        @Nonnull
+        List<Range<Double>> getRanges();
+    }
 }
@@ -1,13 +1,18 @@
 package contrib.springframework.data.gcp.search.query;
 
+import com.google.common.collect.Range;
 import contrib.springframework.data.gcp.search.Operator;
 import contrib.springframework.data.gcp.search.SearchService;
 import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Encapsulates the construction of a filter to be performed using the {@link SearchService}.
@@ -79,6 +84,31 @@ public interface QueryBuilder<E> {
     @Nonnull
     QueryBuilder<E> skip(int offset);
 
+    /**
+     * Page results with a cursor instead of an offset.
+     * Cursor paging has a constant cost per page and is not limited in depth. It can not be combined with
+     * {@link #skip(int)}.
+     *
+     * @param cursor Cursor returned by {@link Result#getNextCursor()}, or {@code null} to fetch the first page.
+     * @return Query builder.
+     */
+    @Nonnull
+    default QueryBuilder<E> cursor(@Nullable String cursor) {
+        return cursor(cursor, false);
+    }
+
+    /**
+     * Page results with a cursor instead of an offset.
+     *
+     * @param cursor    Cursor returned by {@link Result#getNextCursor()} or {@link Result#getResultCursors()}, or
+     *                  {@code null} to fetch the first page.
+     * @param perResult Return a cursor for every result, so paging can continue after any of them.
+     * @return Query builder.
+     * @see #cursor(String)
+     */
+    @Nonnull
+    QueryBuilder<E> cursor(@Nullable String cursor, boolean perResult);
+
     /**
      * Allows control of the accuracy of the number of matches on the response. If the number of
      * matches is less than the given accuracy, then it is absolutely correct. Above that, it is
@@ -132,6 +162,81 @@ public interface QueryBuilder<E> {
         return setRetrieveIdsOnly(true);
     }
 
+    /**
+     * Return only the given fields of the matching documents, so results can be read without loading the entities.
+     * Takes precedence over {@link #retrieveIdsOnly()}.
+     *
+     * @param fields Names of the {@link contrib.springframework.data.gcp.search.SearchIndex} fields to return.
+     * @return Query builder.
+     * @see contrib.springframework.data.gcp.search.SearchService#project(Query, Class)
+     */
+    @Nonnull
+    QueryBuilder<E> returnFields(String... fields);
+
+    /**
+     * Count the matching documents by the values of a facet field.
+     *
+     * @param field Name of a {@link contrib.springframework.data.gcp.search.SearchIndex#facet() facet} field.
+     * @return Query builder.
+     * @see Result#getFacets()
+     */
+    @Nonnull
+    default QueryBuilder<E> facet(String field) {
+        return facet(new QueryFacet(field, null, Collections.emptyList()));
+    }
+
+    /**
+     * Count the matching documents by the values of a facet field, returning at most the given number of values.
+     *
+     * @param field      Name of a {@link contrib.springframework.data.gcp.search.SearchIndex#facet() facet} field.
+     * @param valueLimit Maximum number of values to return, the most frequent first.
+     * @return Query builder.
+     * @see Result#getFacets()
+     */
+    @Nonnull
+    default QueryBuilder<E> facet(String field, int valueLimit) {
+        return facet(new QueryFacet(field, valueLimit, Collections.emptyList()));
+    }
+
+    /**
+     * Count the matching documents in consecutive numeric ranges of a facet field.
+     * Each range includes its lower bound and excludes its upper bound. Use {@link Double#NEGATIVE_INFINITY} or
+     * {@link Double#POSITIVE_INFINITY} as the first or last bound for an open ended range.
+     *
+     * @param field  Name of a numeric {@link contrib.springframework.data.gcp.search.SearchIndex#facet() facet} field.
+     * @param bounds At least two bounds, in ascending order.
+     * @return Query builder.
+     * @see Result#getFacets()
+     */
+    @Nonnull
+    default QueryBuilder<E> rangeFacet(String field, double... bounds) {
+        Assert.isTrue(bounds.length >= 2, "A range facet needs at least two bounds");
+
+        List<Range<Double>> ranges = new ArrayList<>(bounds.length - 1);
+        for (int i = 1; i < bounds.length; i++) {
+            double lower = bounds[i - 1];
+            double upper = bounds[i];
+            Assert.isTrue(lower < upper, "Range facet bounds must be in ascending order");
+            if (lower == Double.NEGATIVE_INFINITY) {
+                Assert.isTrue(upper != Double.POSITIVE_INFINITY, "A range facet range must have a finite bound");
+                ranges.add(Range.lessThan(upper));
+            } else {
+                ranges.add(upper == Double.POSITIVE_INFINITY ? Range.atLeast(lower) : Range.closedOpen(lower, upper));
+            }
+        }
+        return facet(new QueryFacet(field, null, ranges));
+    }
+
+    /**
+     * Add a facet request.
+     *
+     * @param facet The facet request.
+     * @return Query builder.
+     * @see Result#getFacets()
+     */
+    @Nonnull
+    QueryBuilder<E> facet(Query.Facet facet);
+
     /**
      * Builds the filter and returns the result.
      *
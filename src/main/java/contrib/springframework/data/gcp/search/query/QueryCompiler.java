@@ -1,11 +1,20 @@
 package contrib.springframework.data.gcp.search.query;
 
 import com.google.appengine.api.search.QueryOptions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import contrib.springframework.data.gcp.search.Operator;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.convert.ConversionService;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
 import java.util.function.Function;
 
 /**
@@ -14,8 +23,17 @@ import java.util.function.Function;
 public class QueryCompiler implements Function<Query<?>, com.google.appengine.api.search.Query> {
     private static final Logger LOGGER = LoggerFactory.getLogger(QueryCompiler.class);
 
+    /**
+     * Maximum number of query plans cached by {@link #prepare(Query)}.
+     */
+    public static final int MAX_CACHED_PLANS = 1000;
+
+    private final SearchMetadata searchMetadata;
+    private final ConversionService conversionService;
     private final QueryStringCompiler queryStringCompiler;
     private final QueryOptionsCompiler queryOptionsCompiler;
+    private final FacetRequestCompiler facetRequestCompiler;
+    private final Cache<List<Object>, QueryPlan> plans = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PLANS).build();
 
     /**
      * Create a new instance.
@@ -24,8 +42,11 @@ public class QueryCompiler implements Function<Query<?>, com.google.appengine.ap
      * @param conversionService Conversion service.
      */
     public QueryCompiler(SearchMetadata searchMetadata, ConversionService conversionService) {
+        this.searchMetadata = searchMetadata;
+        this.conversionService = conversionService;
         queryStringCompiler = new QueryStringCompiler(searchMetadata, conversionService);
         queryOptionsCompiler = new QueryOptionsCompiler(searchMetadata);
+        facetRequestCompiler = new FacetRequestCompiler(searchMetadata);
     }
 
     @Override
@@ -35,8 +56,87 @@ public class QueryCompiler implements Function<Query<?>, com.google.appengine.ap
         QueryOptions queryOptions = queryOptionsCompiler.apply(query);
         LOGGER.trace(queryOptions.toString());
 
-        return com.google.appengine.api.search.Query.newBuilder()
-                .setOptions(queryOptions)
-                .build(queryString);
+        com.google.appengine.api.search.Query.Builder builder = com.google.appengine.api.search.Query.newBuilder()
+                .setOptions(queryOptions);
+        facetRequestCompiler.apply(query).forEach(builder::addReturnFacet);
+        return builder.build(queryString);
+    }
+
+    /**
+     * Compile a query into a reusable plan, with {@link QueryParameter} values left to be bound on execution.
+     * Plans are cached by the shape of the query: its result type, fragments, literal values and options.
+     *
+     * @param query The query.
+     * @return Query plan.
+     */
+    public QueryPlan prepare(Query<?> query) {
+        return plans.asMap().computeIfAbsent(getShape(query), shape -> compilePlan(query));
+    }
+
+    private QueryPlan compilePlan(Query<?> query) {
+        QueryFragmentCompiler compiler = new QueryFragmentCompiler(query.getResultType(), searchMetadata, conversionService);
+        List<QueryPlan.Segment> segments = new ArrayList<>();
+        Set<String> parameterNames = new LinkedHashSet<>();
+        StringJoiner literal = new StringJoiner(" ");
+
+        for (Query.Fragment fragment : query.getFragments()) {
+            if (!(fragment.getValue() instanceof QueryParameter)) {
+                literal.add(compiler.apply(fragment));
+                continue;
+            }
+
+            if (literal.length() > 0) {
+                String compiled = literal.toString();
+                segments.add((queryString, parameters) -> queryString.append(compiled));
+                literal = new StringJoiner(" ");
+            }
+
+            QueryParameter parameter = (QueryParameter) fragment.getValue();
+            parameterNames.add(parameter.getName());
+            if (fragment.isRaw()) {
+                segments.add((queryString, parameters) -> queryString.append(parameter.resolve(parameters)));
+            } else {
+                String field = compiler.encodeField(fragment.getField());
+                Operator operator = fragment.getOperator();
+                segments.add((queryString, parameters) -> compiler.appendTo(queryString, field, operator, parameter.resolve(parameters)));
+            }
+        }
+
+        if (literal.length() > 0) {
+            String compiled = literal.toString();
+            segments.add((queryString, parameters) -> queryString.append(compiled));
+        }
+
+        QueryOptions queryOptions = queryOptionsCompiler.apply(query);
+        LOGGER.trace("PREPARED QUERY {} {}", parameterNames, queryOptions);
+        return new QueryPlan(query.getResultType(), segments, parameterNames, queryOptions, facetRequestCompiler.apply(query));
+    }
+
+    private static List<Object> getShape(Query<?> query) {
+        List<Object> shape = new ArrayList<>();
+        shape.add(query.getResultType());
+        for (Query.Fragment fragment : query.getFragments()) {
+            shape.add(fragment.isRaw());
+            if (!fragment.isRaw()) {
+                shape.add(fragment.getField());
+                shape.add(fragment.getOperator());
+            }
+            Object value = fragment.getValue();
+            shape.add(value instanceof Object[] ? Arrays.asList((Object[]) value) : value);
+        }
+        shape.add(query.getLimit());
+        shape.add(query.getSkip());
+        shape.add(query.getAccuracy());
+        shape.add(query.getSort());
+        shape.add(query.isIdsOnly());
+        shape.add(query.getFieldsToReturn());
+        shape.add(query.getCursor());
+        shape.add(query.isPerResultCursors());
+        for (Query.Facet facet : query.getFacets()) {
+            shape.add(facet.getField());
+            shape.add(facet.getValueLimit());
+            shape.add(facet.getRanges());
+        }
+        return shape;
     }
 }
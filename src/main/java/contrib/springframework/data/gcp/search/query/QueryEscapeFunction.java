@@ -1,22 +1,73 @@
 package contrib.springframework.data.gcp.search.query;
 
 import com.google.common.base.Function;
-import org.apache.commons.text.StringEscapeUtils;
 
 import javax.annotation.Nullable;
 
 /**
  * Escapes quote characters in the input string and then quotes the entire value.
  * If the input string is {@code null}, {@code null} will be returned.
+ * <p>
+ * Values are escaped with Java string escapes, matching {@code StringEscapeUtils.escapeJava}: quotes, backslashes and
+ * control characters are escaped and characters outside printable ASCII are written as unicode escapes.
  */
 public class QueryEscapeFunction implements Function<String, String> {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
 
     @Override
     public String apply(@Nullable String input) {
-        return quote(StringEscapeUtils.escapeJava(input));
+        if (input == null) {
+            return null;
+        }
+        StringBuilder quoted = new StringBuilder(input.length() + 2);
+        appendQuoted(quoted, input);
+        return quoted.toString();
     }
 
-    private String quote(String s) {
-        return s != null ? "\"" + s + "\"" : null;
+    /**
+     * Escape and quote a value, appending it in place.
+     *
+     * @param out   The builder to append to.
+     * @param input The value to escape.
+     */
+    public static void appendQuoted(StringBuilder out, String input) {
+        out.append('"');
+        for (int i = 0, length = input.length(); i < length; i++) {
+            char c = input.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\b':
+                    out.append("\\b");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                case '\f':
+                    out.append("\\f");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                default:
+                    if (c < 32 || c > 0x7f) {
+                        out.append("\\u")
+                                .append(HEX[(c >> 12) & 0xF])
+                                .append(HEX[(c >> 8) & 0xF])
+                                .append(HEX[(c >> 4) & 0xF])
+                                .append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
     }
 }
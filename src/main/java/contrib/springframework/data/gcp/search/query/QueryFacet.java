@@ -0,0 +1,49 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.common.collect.Range;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link Query.Facet} implementation.
+ */
+public class QueryFacet implements Query.Facet {
+    private final String field;
+    private final Integer valueLimit;
+    private final List<Range<Double>> ranges;
+
+    /**
+     * Create a new instance.
+     *
+     * @param field      Field name.
+     * @param valueLimit Maximum number of values to return, or {@code null} for the Search API default.
+     * @param ranges     Numeric ranges to count the documents in, or an empty list to count by value.
+     */
+    public QueryFacet(String field, @Nullable Integer valueLimit, List<Range<Double>> ranges) {
+        this.field = field;
+        this.valueLimit = valueLimit;
+        this.ranges = Collections.unmodifiableList(ranges);
+    }
+
+    @Nonnull
+    @Override
+    public String getField() {
+        return field;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<Integer> getValueLimit() {
+        return Optional.ofNullable(valueLimit);
+    }
+
+    @Nonnull
+    @Override
+    public List<Range<Double>> getRanges() {
+        return ranges;
+    }
+}
@@ -1,24 +1,27 @@
 package contrib.springframework.data.gcp.search.query;
 
-import com.google.common.collect.Lists;
 import contrib.springframework.data.gcp.search.metadata.impl.MetadataUtils;
 import contrib.springframework.data.gcp.search.Operator;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.core.convert.ConversionService;
-import org.springframework.core.convert.TypeDescriptor;
 
-import java.util.List;
+import javax.annotation.Nullable;
+import java.lang.reflect.Array;
 import java.util.function.Function;
 
+import static contrib.springframework.data.gcp.search.query.QueryEscapeFunction.appendQuoted;
+
 /**
  * Compiles a filter fragment into a filter string.
+ * Fragments are appended in place to a caller supplied {@link StringBuilder}, so compiling a query allocates little
+ * more than the query string itself.
  */
 class QueryFragmentCompiler implements Function<Query.Fragment, String> {
+    private static final String OR = " OR ";
+
     private final Class<?> entityType;
     private final SearchMetadata searchMetadata;
     private final ConversionService conversionService;
-    private final QueryEscapeFunction escapeFunction = new QueryEscapeFunction();
 
     public QueryFragmentCompiler(Class<?> entityType, SearchMetadata searchMetadata, ConversionService conversionService) {
         this.entityType = entityType;
@@ -27,31 +30,93 @@ class QueryFragmentCompiler implements Function<Query.Fragment, String> {
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public String apply(Query.Fragment fragment) {
+        StringBuilder out = new StringBuilder();
+        appendTo(out, fragment);
+        return out.toString();
+    }
+
+    /**
+     * Compile a fragment, appending it to the given builder.
+     *
+     * @param out      The builder to append to.
+     * @param fragment The fragment.
+     */
+    void appendTo(StringBuilder out, Query.Fragment fragment) {
         if (fragment.isRaw()) {
-            return String.valueOf(fragment.getValue());
+            out.append(fragment.getValue());
+        } else {
+            appendTo(out, encodeField(fragment.getField()), fragment.getOperator(), fragment.getValue());
+        }
+    }
+
+    /**
+     * @param field Entity field name.
+     * @return Encoded index field name.
+     */
+    String encodeField(String field) {
+        return searchMetadata.encodeFieldName(entityType, field);
+    }
+
+    /**
+     * Compile a predicate against an already encoded field name, appending it to the given builder.
+     *
+     * @param out      The builder to append to.
+     * @param field    Encoded field name.
+     * @param operator Predicate operator.
+     * @param value    Predicate value.
+     */
+    void appendTo(StringBuilder out, String field, Operator operator, Object value) {
+        out.append(field);
+        if (isCollection(value)) {
+            out.append(Operator.IS.getSymbol()).append('(');
+            if (value instanceof Iterable) {
+                boolean first = true;
+                for (Object item : (Iterable<?>) value) {
+                    first = appendItem(out, item, first);
+                }
+            } else {
+                for (int i = 0, length = Array.getLength(value); i < length; i++) {
+                    appendItem(out, Array.get(value, i), i == 0);
+                }
+            }
+            out.append(')');
+        } else {
+            out.append(operator.getSymbol());
+            appendValue(out, value);
         }
+    }
 
-        String field = searchMetadata.encodeFieldName(entityType, fragment.getField());
-        String operator = fragment.getOperator().getSymbol();
-
-        if (isCollection(fragment.getValue())) {
-            List<String> values = (List<String>) conversionService.convert(
-                    fragment.getValue(),
-                    TypeDescriptor.forObject(fragment.getValue()),
-                    TypeDescriptor.collection(List.class, TypeDescriptor.valueOf(String.class))
-            );
-            values = Lists.transform(values, escapeFunction);
-            String value = StringUtils.join(values, " OR ");
-            return String.format("%s%s(%s)", field, Operator.IS.getSymbol(), value);
+    /**
+     * Append a collection item, separated from the previous item. Null items are left empty.
+     *
+     * @return {@code false}, the next item is never the first.
+     */
+    private boolean appendItem(StringBuilder out, @Nullable Object item, boolean first) {
+        if (!first) {
+            out.append(OR);
+        }
+        String converted = convert(item);
+        if (converted != null) {
+            appendQuoted(out, converted);
+        }
+        return false;
+    }
+
+    private void appendValue(StringBuilder out, @Nullable Object value) {
+        String converted = convert(value);
+        if (converted != null) {
+            appendQuoted(out, converted);
         } else {
-            String value = conversionService.convert(fragment.getValue(), String.class);
-            value = escapeFunction.apply(value);
-            return String.format("%s%s%s", field, operator, value);
+            out.append("null");
         }
     }
 
+    @Nullable
+    private String convert(@Nullable Object value) {
+        return value instanceof String ? (String) value : conversionService.convert(value, String.class);
+    }
+
     private boolean isCollection(Object object) {
         return MetadataUtils.isCollectionType(object.getClass());
     }
@@ -6,6 +6,8 @@ import org.springframework.data.domain.Sort;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,10 @@ public class QueryImpl<E> implements QueryBuilder<E>, Query<E> {
     private Integer skip = null;
     private Integer accuracy = null;
     private boolean idsOnly = false;
+    private List<String> fieldsToReturn = Collections.emptyList();
+    private String cursor = null;
+    private boolean perResultCursors = false;
+    private final List<Query.Facet> facets = new ArrayList<>();
 
     /**
      * Create a new instance.
@@ -33,6 +39,25 @@ public class QueryImpl<E> implements QueryBuilder<E>, Query<E> {
         this.resultType = resultType;
     }
 
+    /**
+     * Create a copy of a query.
+     *
+     * @param query The query to copy.
+     */
+    public QueryImpl(Query<E> query) {
+        this.resultType = query.getResultType();
+        this.fragments.addAll(query.getFragments());
+        this.sort = query.getSort().orElse(null);
+        this.limit = query.getLimit().orElse(null);
+        this.skip = query.getSkip().orElse(null);
+        this.accuracy = query.getAccuracy().orElse(null);
+        this.idsOnly = query.isIdsOnly();
+        this.fieldsToReturn = query.getFieldsToReturn();
+        this.cursor = query.getCursor().orElse(null);
+        this.perResultCursors = query.isPerResultCursors();
+        this.facets.addAll(query.getFacets());
+    }
+
     @Nonnull
     @Override
     public Class<E> getResultType() {
@@ -78,6 +103,28 @@ public class QueryImpl<E> implements QueryBuilder<E>, Query<E> {
         return this;
     }
 
+    @Nonnull
+    @Override
+    public QueryBuilder<E> returnFields(String... fields) {
+        this.fieldsToReturn = Collections.unmodifiableList(Arrays.asList(fields.clone()));
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public QueryBuilder<E> cursor(@Nullable String cursor, boolean perResult) {
+        this.cursor = cursor != null ? cursor : "";
+        this.perResultCursors = perResult;
+        return this;
+    }
+
+    @Nonnull
+    @Override
+    public QueryBuilder<E> facet(Query.Facet facet) {
+        facets.add(facet);
+        return this;
+    }
+
     @Nonnull
     @Override
     public QueryBuilder<E> order(String field, Sort.Direction direction) {
@@ -134,4 +181,27 @@ public class QueryImpl<E> implements QueryBuilder<E>, Query<E> {
     public boolean isIdsOnly() {
         return idsOnly;
     }
+
+    @Nonnull
+    @Override
+    public List<String> getFieldsToReturn() {
+        return fieldsToReturn;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getCursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    @Override
+    public boolean isPerResultCursors() {
+        return perResultCursors;
+    }
+
+    @Nonnull
+    @Override
+    public List<Query.Facet> getFacets() {
+        return facets;
+    }
 }
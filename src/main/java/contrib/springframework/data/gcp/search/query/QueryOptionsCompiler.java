@@ -1,7 +1,9 @@
 package contrib.springframework.data.gcp.search.query;
 
+import com.google.appengine.api.search.Cursor;
 import com.google.appengine.api.search.QueryOptions;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.springframework.util.Assert;
 
 import java.util.function.Function;
 
@@ -9,6 +11,7 @@ import java.util.function.Function;
  * Compile a Google Search API {@link QueryOptions} object from a {@link Query} object.
  */
 public class QueryOptionsCompiler implements Function<Query<?>, QueryOptions> {
+    final SearchMetadata searchMetadata;
     final SortOptionsCompiler sortOptionsCompiler;
 
     /**
@@ -17,6 +20,7 @@ public class QueryOptionsCompiler implements Function<Query<?>, QueryOptions> {
      * @param searchMetadata Search metadata.
      */
     public QueryOptionsCompiler(SearchMetadata searchMetadata) {
+        this.searchMetadata = searchMetadata;
         sortOptionsCompiler = new SortOptionsCompiler(searchMetadata);
     }
 
@@ -24,14 +28,27 @@ public class QueryOptionsCompiler implements Function<Query<?>, QueryOptions> {
     public QueryOptions apply(Query<?> query) {
         final QueryOptions.Builder options = QueryOptions.newBuilder();
 
-        int offset = query.getSkip().orElse(0);
-        options.setOffset(offset);
-
-        query.getLimit().ifPresent(limit -> options.setLimit(limit + offset));
+        if (query.getCursor().isPresent()) {
+            Assert.isTrue(!query.getSkip().isPresent(), "A query can not be paged by both skip and cursor");
+            String webSafeCursor = query.getCursor().get();
+            Cursor.Builder cursor = Cursor.newBuilder().setPerResult(query.isPerResultCursors());
+            options.setCursor(webSafeCursor.isEmpty() ? cursor.build() : cursor.build(webSafeCursor));
+            query.getLimit().ifPresent(options::setLimit);
+        } else {
+            int offset = query.getSkip().orElse(0);
+            options.setOffset(offset);
+            query.getLimit().ifPresent(limit -> options.setLimit(limit + offset));
+        }
         query.getAccuracy().ifPresent(options::setNumberFoundAccuracy);
         options.setSortOptions(sortOptionsCompiler.apply(query));
 
-        options.setReturningIdsOnly(query.isIdsOnly());
+        if (query.getFieldsToReturn().isEmpty()) {
+            options.setReturningIdsOnly(query.isIdsOnly());
+        } else {
+            options.setFieldsToReturn(query.getFieldsToReturn().stream()
+                    .map(field -> searchMetadata.encodeFieldName(query.getResultType(), field))
+                    .toArray(String[]::new));
+        }
 
         return options.build();
     }
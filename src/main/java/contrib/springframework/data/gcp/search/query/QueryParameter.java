@@ -0,0 +1,63 @@
+package contrib.springframework.data.gcp.search.query;
+
+import org.springframework.util.Assert;
+
+import java.util.Map;
+
+/**
+ * A named placeholder for a query value that is bound when a {@link PreparedQuery} is executed.
+ * Use it in place of a filter value, e.g. {@code filter("category", EQUAL, QueryParameter.param("category"))}.
+ */
+public final class QueryParameter {
+
+    private final String name;
+
+    private QueryParameter(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Create a named parameter.
+     *
+     * @param name Parameter name.
+     * @return Query parameter.
+     */
+    public static QueryParameter param(String name) {
+        Assert.hasText(name, "name must not be empty");
+        return new QueryParameter(name);
+    }
+
+    /**
+     * @return Parameter name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the value bound to this parameter.
+     *
+     * @param parameters Parameter values by name.
+     * @return Bound value.
+     * @throws IllegalArgumentException If no value has been bound to this parameter.
+     */
+    Object resolve(Map<String, ?> parameters) {
+        Assert.isTrue(parameters.containsKey(name), "No value bound for query parameter '" + name + "'");
+        return parameters.get(name);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof QueryParameter && name.equals(((QueryParameter) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ":" + name;
+    }
+}
@@ -0,0 +1,75 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.FacetRequest;
+import com.google.appengine.api.search.QueryOptions;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A compiled query template, produced by {@link QueryCompiler#prepare(Query)}.
+ * <p>
+ * Field names, literal fragments, query options and facet requests are resolved when the plan is created. Binding the plan only
+ * converts and escapes the parameter values and joins them with the precompiled fragments.
+ */
+public class QueryPlan {
+
+    private final Class<?> resultType;
+    private final List<Segment> segments;
+    private final Set<String> parameterNames;
+    private final QueryOptions options;
+    private final List<FacetRequest> facets;
+
+    QueryPlan(Class<?> resultType, List<Segment> segments, Set<String> parameterNames, QueryOptions options, List<FacetRequest> facets) {
+        this.resultType = resultType;
+        this.segments = segments;
+        this.parameterNames = Collections.unmodifiableSet(parameterNames);
+        this.options = options;
+        this.facets = facets;
+    }
+
+    /**
+     * @return The type of result the query produces.
+     */
+    public Class<?> getResultType() {
+        return resultType;
+    }
+
+    /**
+     * @return Names of the parameters that must be bound.
+     */
+    public Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    /**
+     * Bind parameter values to produce a Search API query.
+     *
+     * @param parameters Parameter values by name.
+     * @return Search API query.
+     * @throws IllegalArgumentException If a parameter has no value.
+     */
+    public com.google.appengine.api.search.Query bind(Map<String, ?> parameters) {
+        StringBuilder queryString = new StringBuilder();
+        for (Segment segment : segments) {
+            if (queryString.length() > 0) {
+                queryString.append(' ');
+            }
+            segment.appendTo(queryString, parameters);
+        }
+
+        com.google.appengine.api.search.Query.Builder builder = com.google.appengine.api.search.Query.newBuilder()
+                .setOptions(options);
+        facets.forEach(builder::addReturnFacet);
+        return builder.build(queryString.toString());
+    }
+
+    /**
+     * A part of the query string, either precompiled or bound from a parameter.
+     */
+    interface Segment {
+        void appendTo(StringBuilder queryString, Map<String, ?> parameters);
+    }
+}
@@ -3,13 +3,16 @@ package contrib.springframework.data.gcp.search.query;
 import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
 import org.springframework.core.convert.ConversionService;
 
+import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Compiles a {@link Query} into a filter string.
+ * Every fragment is appended to a single builder, so the only objects allocated per query are the builder and the
+ * resulting string, along with whatever the conversion service allocates for non-string values.
  */
 public class QueryStringCompiler implements Function<Query<?>, String> {
+    private static final int INITIAL_CAPACITY = 256;
 
     private final SearchMetadata searchMetadata;
     private final ConversionService conversionService;
@@ -28,9 +31,15 @@ public class QueryStringCompiler implements Function<Query<?>, String> {
     @Override
     public String apply(Query<?> query) {
         QueryFragmentCompiler compiler = new QueryFragmentCompiler(query.getResultType(), searchMetadata, conversionService);
+        List<Query.Fragment> fragments = query.getFragments();
 
-        return query.getFragments().stream()
-                .map(compiler)
-                .collect(Collectors.joining(" "));
+        StringBuilder queryString = new StringBuilder(INITIAL_CAPACITY);
+        for (int i = 0, size = fragments.size(); i < size; i++) {
+            if (i > 0) {
+                queryString.append(' ');
+            }
+            compiler.appendTo(queryString, fragments.get(i));
+        }
+        return queryString.toString();
     }
 }
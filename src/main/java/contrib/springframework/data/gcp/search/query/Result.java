@@ -1,11 +1,16 @@
 package contrib.springframework.data.gcp.search.query;
 
+import com.google.appengine.api.search.Cursor;
+import com.google.appengine.api.search.FacetResult;
 import com.google.appengine.api.search.Results;
 import com.google.appengine.api.search.ScoredDocument;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Result from a search execution.
@@ -37,6 +42,36 @@ public interface Result<T> extends Iterable<T> {
         return getMetadata().getNumberReturned();
     }
 
+    /**
+     * @return Web-safe cursor for the next page of a cursor paged query, or {@code null} if there are no more results
+     * or the query was not paged by cursor.
+     * @see QueryBuilder#cursor(String)
+     */
+    @Nullable
+    default String getNextCursor() {
+        Cursor cursor = getMetadata().getCursor();
+        return cursor != null ? cursor.toWebSafeString() : null;
+    }
+
+    /**
+     * @return Web-safe cursors to continue after each of the raw search results, in the order of
+     * {@link #getMetadata()}, for queries that requested per-result cursors.
+     * @see QueryBuilder#cursor(String, boolean)
+     */
+    default List<String> getResultCursors() {
+        return getMetadata().getResults().stream()
+                .map(document -> document.getCursor() != null ? document.getCursor().toWebSafeString() : null)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return Counts of the matching documents for each requested facet, named by the encoded facet field name.
+     * @see QueryBuilder#facet(String)
+     */
+    default List<FacetResult> getFacets() {
+        return new ArrayList<>(getMetadata().getFacets());
+    }
+
     @Nonnull
     @Override
     default Iterator<T> iterator() {
@@ -0,0 +1,175 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.IndexType;
+import contrib.springframework.data.gcp.search.metadata.SearchFieldMetadata;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+
+/**
+ * Merges the results of queries against several indexes into a single ranked result.
+ * <p>
+ * Each result is already ordered by its query, so the results are k-way merged with a heap that holds the next
+ * document of each result. Queries without a sort are merged by document rank, the order the Search API returns them
+ * in. Queries with a sort must all sort by the same properties in the same directions, and are merged by the values of
+ * those fields in the returned documents. Documents without a sort field are ordered after those with one, whatever
+ * the direction. Sorted queries that only retrieve ids, such as those issued by a search repository, return no field
+ * values to compare, so they are rejected.
+ */
+public class ResultMerger {
+    /**
+     * Sort values of one field are all numbers, dates as epoch milliseconds or strings, so they are mutually comparable.
+     */
+    private static final Comparator<Object> SORT_VALUE_ORDER = ResultMerger::compareSortValues;
+
+    private final SearchMetadata searchMetadata;
+
+    /**
+     * Create a new instance.
+     *
+     * @param searchMetadata Search metadata.
+     */
+    public ResultMerger(SearchMetadata searchMetadata) {
+        this.searchMetadata = searchMetadata;
+    }
+
+    /**
+     * Merge query results.
+     *
+     * @param queries The queries.
+     * @param results The result of each query, in the same order.
+     * @param limit   Maximum number of documents to return.
+     * @return Merged result.
+     * @throws IllegalArgumentException If the queries are not sorted alike, or are sorted and only retrieve ids.
+     */
+    public MultiResult merge(List<? extends Query<?>> queries, List<? extends Result<ScoredDocument>> results, int limit) {
+        Assert.isTrue(queries.size() == results.size(), "Each query must have a result");
+        Optional<Sort> sort = getSort(queries);
+
+        Map<Class<?>, Long> totals = new LinkedHashMap<>();
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, queries.size()), comparator(sort));
+        for (int i = 0; i < queries.size(); i++) {
+            Query<?> query = queries.get(i);
+            Result<ScoredDocument> result = results.get(i);
+            totals.merge(query.getResultType(), result.getMetadata().getNumberFound(), Long::sum);
+
+            Head head = new Head(i, query.getResultType(), result.getMetadata().getResults().iterator(), sortFields(query, sort));
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+
+        List<ScoredDocument> documents = new ArrayList<>();
+        IdentityHashMap<ScoredDocument, Class<?>> resultTypes = new IdentityHashMap<>();
+        while (documents.size() < limit && !heads.isEmpty()) {
+            Head head = heads.poll();
+            documents.add(head.document);
+            resultTypes.put(head.document, head.resultType);
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return new MultiResult(documents, resultTypes, totals);
+    }
+
+    private static Optional<Sort> getSort(List<? extends Query<?>> queries) {
+        Optional<Sort> sort = queries.isEmpty() ? Optional.empty() : queries.get(0).getSort();
+        for (Query<?> query : queries) {
+            Assert.isTrue(Objects.equals(sort, query.getSort()), "Merged queries must be sorted by the same properties and directions");
+            Assert.isTrue(!sort.isPresent() || !query.isIdsOnly(), "Sorted queries that only retrieve ids can not be merged, they return no values to sort by");
+        }
+        return sort;
+    }
+
+    private List<SearchFieldMetadata> sortFields(Query<?> query, Optional<Sort> sort) {
+        List<SearchFieldMetadata> fields = new ArrayList<>();
+        sort.ifPresent(orders -> orders.forEach(order -> fields.add(searchMetadata.getField(query.getResultType(), order.getProperty()))));
+        return fields;
+    }
+
+    private static Comparator<Head> comparator(Optional<Sort> sort) {
+        Comparator<Head> comparator;
+        if (!sort.isPresent()) {
+            comparator = Comparator.comparingInt((Head head) -> head.document.getRank()).reversed();
+        } else {
+            comparator = null;
+            int i = 0;
+            for (Sort.Order order : sort.get()) {
+                int index = i++;
+                Comparator<Object> values = order.isAscending() ? SORT_VALUE_ORDER : SORT_VALUE_ORDER.reversed();
+                Comparator<Head> next = Comparator.comparing(head -> head.key[index], Comparator.nullsLast(values));
+                comparator = comparator == null ? next : comparator.thenComparing(next);
+            }
+        }
+        // Equal documents keep the order of their queries.
+        return comparator.thenComparingInt(head -> head.source);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareSortValues(Object left, Object right) {
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    private static class Head {
+        private final int source;
+        private final Class<?> resultType;
+        private final Iterator<ScoredDocument> documents;
+        private final List<SearchFieldMetadata> sortFields;
+        private final Object[] key;
+        private ScoredDocument document;
+
+        Head(int source, Class<?> resultType, Iterator<ScoredDocument> documents, List<SearchFieldMetadata> sortFields) {
+            this.source = source;
+            this.resultType = resultType;
+            this.documents = documents;
+            this.sortFields = sortFields;
+            this.key = new Object[sortFields.size()];
+        }
+
+        boolean advance() {
+            if (!documents.hasNext()) {
+                return false;
+            }
+            document = documents.next();
+            for (int i = 0; i < key.length; i++) {
+                key[i] = sortValue(document, sortFields.get(i));
+            }
+            return true;
+        }
+
+        /**
+         * Missing values are {@code null} and sort last in both directions.
+         */
+        @Nullable
+        private static Object sortValue(ScoredDocument document, SearchFieldMetadata field) {
+            Iterable<Field> fields = document.getFields(field.getEncodedName());
+            Field value = fields != null && fields.iterator().hasNext() ? fields.iterator().next() : null;
+            if (value == null) {
+                return null;
+            }
+
+            IndexType indexType = field.getIndexType();
+            if (indexType == IndexType.NUMBER) {
+                return value.getNumber();
+            }
+            if (indexType == IndexType.DATE) {
+                return value.getDate() != null ? value.getDate().getTime() : null;
+            }
+            return value.getText() != null ? value.getText() : value.getAtom();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package contrib.springframework.data.gcp.config.index;
+
+import com.googlecode.objectify.annotation.Entity;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EntityIndexProcessorTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void process_willIndexConcreteIndependentEntities() throws IOException {
+        File output = temporaryFolder.newFolder();
+        compile(output,
+                source("sample.Car", "@com.googlecode.objectify.annotation.Entity public class Car { @contrib.springframework.data.gcp.search.SearchIndex String make; public static @com.googlecode.objectify.annotation.Entity class Wheel {} }"),
+                source("sample.Vehicle", "@com.googlecode.objectify.annotation.Entity public abstract class Vehicle {}"),
+                source("sample.other.Bike", "public class Bike { @contrib.springframework.data.gcp.search.SearchIndex public String getName() { return null; } }")
+        );
+
+        assertThat(Files.readAllLines(new File(output, EntityIndex.LOCATION).toPath(), StandardCharsets.UTF_8)).containsExactly(
+                "sample.Car=com.googlecode.objectify.annotation.Entity",
+                "sample.Car$Wheel=com.googlecode.objectify.annotation.Entity"
+        );
+
+        EntityIndex index = EntityIndex.load(new URLClassLoader(new URL[]{output.toURI().toURL()}, null)).get();
+        assertThat(index.getClassNames("sample", Entity.class).collect(Collectors.toList())).containsExactly("sample.Car", "sample.Car$Wheel");
+        assertThat(index.getClassNames("sample.other", Entity.class).collect(Collectors.toList())).isEmpty();
+    }
+
+    @Test
+    public void process_willKeepEntriesOfClassesNotRecompiled() throws IOException {
+        File output = temporaryFolder.newFolder();
+        compile(output,
+                source("sample.Car", "@com.googlecode.objectify.annotation.Entity public class Car {}"),
+                source("sample.Bike", "@com.googlecode.objectify.annotation.Entity public class Bike {}")
+        );
+        compile(output, source("sample.Car", "public class Car {}"));
+
+        assertThat(Files.readAllLines(new File(output, EntityIndex.LOCATION).toPath(), StandardCharsets.UTF_8)).containsExactly(
+                "sample.Bike=com.googlecode.objectify.annotation.Entity"
+        );
+    }
+
+    @Test
+    public void load_willReturnEmpty_whenThereIsNoIndex() throws IOException {
+        assertThat(EntityIndex.load(new URLClassLoader(new URL[]{temporaryFolder.newFolder().toURI().toURL()}, null)).isPresent()).isFalse();
+    }
+
+    private File source(String className, String body) throws IOException {
+        int lastDot = className.lastIndexOf('.');
+        File file = new File(temporaryFolder.getRoot(), "src/" + className.replace('.', '/') + ".java");
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), Arrays.asList("package " + className.substring(0, lastDot) + ";", body), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private void compile(File output, File... sources) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(sources);
+            List<String> options = Arrays.asList("-d", output.getPath(), "-classpath", classpath(output));
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+            task.setProcessors(Arrays.asList(new EntityIndexProcessor()));
+            assertThat(task.call()).isTrue();
+        }
+    }
+
+    private String classpath(File output) {
+        return Arrays.stream(new String[]{output.getPath(), System.getProperty("java.class.path")})
+                .collect(Collectors.joining(File.pathSeparator));
+    }
+}
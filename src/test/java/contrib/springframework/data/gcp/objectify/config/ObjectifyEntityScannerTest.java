@@ -1,10 +1,28 @@
 package contrib.springframework.data.gcp.objectify.config;
 
+import contrib.springframework.data.gcp.config.index.EntityIndex;
 import contrib.springframework.data.gcp.objectify.config.sample.TestEntity1;
 import contrib.springframework.data.gcp.objectify.config.sample.subpackage.TestEntity2;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.util.ClassUtils;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Enumeration;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
@@ -12,14 +30,113 @@ import static org.junit.Assert.assertThat;
 @SuppressWarnings("unchecked")
 public class ObjectifyEntityScannerTest {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Test
     public void getAnnotatedClasses_willReturnAnnotatedClassesWithAdditionalClasses_andIncludeSubPackages() {
 
         Set<Class<?>> entityClasses = new ObjectifyEntityScanner("contrib.springframework.data.gcp.objectify.config.sample")
                 .withAdditionalClasses(Integer.class)
+                .withoutIndex()
                 .getEntityClasses();
 
         assertThat(entityClasses, containsInAnyOrder(TestEntity1.class, TestEntity2.class, Integer.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getAnnotatedClasses_willReadEntityIndex_whenPresent() throws IOException {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(indexClassLoader(true,
+                TestEntity1.class.getName() + "=com.googlecode.objectify.annotation.Entity",
+                TestEntity2.class.getName() + "=contrib.springframework.data.gcp.search.SearchIndex",
+                ObjectifyEntityScannerTest.class.getName() + "=com.googlecode.objectify.annotation.Entity"
+        ));
+
+        try {
+            Set<Class<?>> entityClasses = new ObjectifyEntityScanner("contrib.springframework.data.gcp.objectify.config.sample")
+                    .getEntityClasses();
+
+            assertThat(entityClasses, containsInAnyOrder(TestEntity1.class));
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void getAnnotatedClasses_willScanClasspath_whenEntityIndexHasNoEntitiesInBasePackage() throws IOException {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(indexClassLoader(true,
+                ObjectifyEntityScannerTest.class.getName() + "=com.googlecode.objectify.annotation.Entity"
+        ));
+
+        try {
+            Set<Class<?>> entityClasses = new ObjectifyEntityScanner("contrib.springframework.data.gcp.objectify.config.sample")
+                    .getEntityClasses();
+
+            assertThat(entityClasses, containsInAnyOrder(TestEntity1.class, TestEntity2.class));
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    @Test
+    public void getAnnotatedClasses_willScanClasspath_whenPackageRootHasNoEntityIndex() throws IOException {
+        Thread thread = Thread.currentThread();
+        ClassLoader contextClassLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(indexClassLoader(false,
+                TestEntity1.class.getName() + "=com.googlecode.objectify.annotation.Entity"
+        ));
+
+        try {
+            Set<Class<?>> entityClasses = new ObjectifyEntityScanner("contrib.springframework.data.gcp.objectify.config.sample")
+                    .getEntityClasses();
+
+            assertThat(entityClasses, containsInAnyOrder(TestEntity1.class, TestEntity2.class));
+        } finally {
+            thread.setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    /**
+     * @param withPackage Whether the sample package is in the same root as the index, otherwise it is only found in
+     *                    the test classes, which have no index.
+     * @return Class loader that only sees the given index, not any index generated for the test classes.
+     */
+    private ClassLoader indexClassLoader(boolean withPackage, String... lines) throws IOException {
+        File root = temporaryFolder.newFolder();
+        File index = new File(root, EntityIndex.LOCATION);
+        Files.createDirectories(index.getParentFile().toPath());
+        Files.write(index.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+
+        String packagePath = ClassUtils.classPackageAsResourcePath(TestEntity1.class);
+        if (withPackage) {
+            Files.createDirectories(root.toPath().resolve(packagePath).getParent());
+            copyClasses(TestEntity1.class, root.toPath().resolve(packagePath));
+        }
+
+        return new URLClassLoader(new URL[]{root.toURI().toURL()}, getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                return EntityIndex.LOCATION.equals(name) || withPackage && name.startsWith(packagePath)
+                        ? findResources(name)
+                        : super.getResources(name);
+            }
+        };
+    }
+
+    private void copyClasses(Class<?> packageClass, Path target) throws IOException {
+        try {
+            Path source = Paths.get(packageClass.getResource("").toURI());
+            try (Stream<Path> paths = Files.walk(source)) {
+                for (Path path : paths.collect(Collectors.toList())) {
+                    Files.copy(path, target.resolve(source.relativize(path).toString()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package contrib.springframework.data.gcp.objectify.repository;
+
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.apphosting.api.ApiProxy;
+import com.googlecode.objectify.Key;
+import com.googlecode.objectify.ObjectifyService;
+import com.googlecode.objectify.util.Closeable;
+import contrib.springframework.data.gcp.objectify.TestStringEntity;
+import contrib.springframework.data.gcp.search.IndexAliasStore;
+import contrib.springframework.data.gcp.search.IndexRegistry;
+import contrib.springframework.data.gcp.search.NoOpSearchService;
+import contrib.springframework.data.gcp.search.Operator;
+import contrib.springframework.data.gcp.search.ReindexingSearchService;
+import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.query.Query;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@TestPropertySource(properties = {
+        "spring.data.gcp.search.index-aliasing-enabled=true",
+        "spring.data.gcp.search.index-alias-refresh-interval=" + ReindexJobTest.REFRESH_INTERVAL
+})
+public class ReindexJobTest extends AbstractStringRepositoryTest {
+    static final long REFRESH_INTERVAL = 500;
+
+    @Autowired
+    private SearchRepository<TestStringEntity, String> repository;
+
+    @Autowired
+    private SearchMetadata searchMetadata;
+
+    @Test
+    public void run_willRebuildIndex_andSwitchQueries() {
+        IntStream.range(0, 25).forEach(i -> save(new TestStringEntity("id" + i).setName("name" + i)));
+        assertThat(repository.execute(query("name7"))).isEmpty();
+
+        ReindexResult result = new ReindexJob<>(repository).setBatchSize(10).run("2", 0);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getCount()).isEqualTo(25);
+        assertThat(result.getAlias().getCurrent()).endsWith("_v2");
+        assertThat(result.getAlias().isRebuilding()).isFalse();
+        assertThat(repository.execute(query("name7"))).containsExactly(new TestStringEntity("id7"));
+    }
+
+    @Test
+    public void run_canBeResumed_afterTimeout() {
+        IntStream.range(0, 25).forEach(i -> save(new TestStringEntity("id" + i).setName("name" + i)));
+
+        ReindexJob<TestStringEntity> job = new ReindexJob<>(repository).setBatchSize(2).setMaxConcurrentBatches(1);
+        ReindexResult result = job.run("2", 1);
+        int runs = 1;
+        while (!result.isComplete()) {
+            assertThat(repository.execute(query("name24"))).isEmpty();
+            result = job.run("2", 1);
+            runs++;
+        }
+
+        assertThat(runs).isGreaterThan(1);
+        assertThat(result.getCount()).isEqualTo(25);
+        assertThat(repository.execute(query("name24"))).containsExactly(new TestStringEntity("id24"));
+    }
+
+    @Test
+    public void run_willNotWaitPastTimeout_whileSettling() {
+        save(new TestStringEntity("id1").setName("name1"));
+
+        long start = System.currentTimeMillis();
+        ReindexResult result = new ReindexJob<>(repository).setSettleMillis(60000).run("2", 10);
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(60000);
+        assertThat(result.isComplete()).isFalse();
+        assertThat(result.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void run_willResumeSettling_fromCheckpoint() {
+        save(new TestStringEntity("id1").setName("name1"));
+        assertThat(new ReindexJob<>(repository).setSettleMillis(REFRESH_INTERVAL).run("2", 10).isComplete()).isFalse();
+
+        long start = System.currentTimeMillis();
+        ReindexResult result = new ReindexJob<>(repository).setSettleMillis(60000).run("2", 0);
+
+        assertThat(System.currentTimeMillis() - start).isLessThan(60000);
+        assertThat(result.isComplete()).isTrue();
+        assertThat(repository.execute(query("name1"))).containsExactly(new TestStringEntity("id1"));
+    }
+
+    @Test
+    public void save_willWriteToBothIndexes_whileRebuilding() {
+        ((ReindexingSearchService) repository.getSearchService()).beginReindex(TestStringEntity.class, "2");
+
+        repository.save(new TestStringEntity("id1").setName("name1"));
+        assertThat(repository.execute(query("name1"))).hasSize(1);
+
+        ((ReindexingSearchService) repository.getSearchService()).completeReindex(TestStringEntity.class);
+        assertThat(repository.execute(query("name1"))).hasSize(1);
+    }
+
+    @Test
+    public void run_willKeepWrites_fromInstancesThatHaveNotSeenTheRebuildYet() throws Exception {
+        IndexAliasStore aliasStore = new IndexAliasStore(DatastoreServiceFactory.getDatastoreService());
+        SearchServiceImpl otherInstance = new SearchServiceImpl(searchMetadata, new DefaultSearchConversionService())
+                .setIndexRegistry(new IndexRegistry(searchMetadata, aliasStore, REFRESH_INTERVAL));
+        otherInstance.execute(query("name1"));
+
+        ApiProxy.Environment environment = ApiProxy.getCurrentEnvironment();
+        CompletableFuture<Void> staleWrite = CompletableFuture.runAsync(() -> {
+            ApiProxy.setEnvironmentForCurrentThread(environment);
+            Closeable session = ObjectifyService.begin();
+            try {
+                while (!aliasStore.get(searchMetadata.getIndexName(TestStringEntity.class)).isRebuilding()) {
+                    Thread.sleep(5);
+                }
+                TestStringEntity entity = new TestStringEntity("id1").setName("name1");
+                ofy().save().entity(entity).now();
+                otherInstance.indexAsync(entity, Key.create(entity).toWebSafeString()).run();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                session.close();
+            }
+        });
+
+        ReindexResult result = new ReindexJob<>(repository).run("2", 0);
+        staleWrite.get(10, TimeUnit.SECONDS);
+
+        assertThat(result.getAlias().getCurrent()).endsWith("_v2");
+        assertThat(repository.execute(query("name1"))).containsExactly(new TestStringEntity("id1"));
+    }
+
+    @Test
+    public void run_willRemoveCheckpoint_whenComplete() throws Exception {
+        save(new TestStringEntity("id1").setName("name1"));
+
+        ReindexResult result = new ReindexJob<>(repository).run("2", 0);
+
+        thrown.expect(EntityNotFoundException.class);
+        DatastoreServiceFactory.getDatastoreService().get(KeyFactory.createKey(ReindexJob.CHECKPOINT_KIND, result.getAlias().getName()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void constructor_willThrowException_whenSearchServiceCanNotRebuildIndexes() {
+        SearchRepository<TestStringEntity, String> noOpRepository = mock(SearchRepository.class);
+        when(noOpRepository.getSearchService()).thenReturn(new NoOpSearchService());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Search service can not rebuild indexes");
+
+        new ReindexJob<>(noOpRepository);
+    }
+
+    private Query<TestStringEntity> query(String name) {
+        return repository.search()
+                .filter("name", Operator.EQ, name)
+                .build();
+    }
+}
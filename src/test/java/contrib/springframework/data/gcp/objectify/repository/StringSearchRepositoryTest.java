@@ -5,6 +5,10 @@ import contrib.springframework.data.gcp.search.Operator;
 import contrib.springframework.data.gcp.search.query.Query;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -31,6 +35,50 @@ public class StringSearchRepositoryTest extends AbstractStringRepositoryTest {
                 .containsExactly(target);
     }
 
+    @Test
+    public void execute_willKeepSearchOrder_andSkipMissingEntities() {
+        TestStringEntity first = new TestStringEntity("id1").setName("a");
+        TestStringEntity missing = new TestStringEntity("id2").setName("b");
+        TestStringEntity last = new TestStringEntity("id3").setName("c");
+        repository.save(first, missing, last);
+        ofy().delete().entity(missing).now();
+
+        Query<TestStringEntity> query = repository.search()
+                .order("name", Sort.Direction.DESC)
+                .build();
+
+        assertThat(repository.execute(query).getList())
+                .containsExactly(last, first);
+    }
+
+    @Test
+    public void executeAsync_willLoadMatchingEntities() {
+        TestStringEntity target = new TestStringEntity("id2").setName("name2");
+        repository.save(new TestStringEntity("id1").setName("name1"), target);
+
+        Query<TestStringEntity> query = repository.search()
+                .filter("name", Operator.EQ, "name2")
+                .build();
+
+        assertThat(repository.executeAsync(query).get().getList())
+                .containsExactly(target);
+    }
+
+    @Test
+    public void stream_willLoadEveryMatchingEntity() {
+        repository.save(IntStream.range(0, 5)
+                .mapToObj(i -> new TestStringEntity("id" + i).setName("name"))
+                .collect(Collectors.toList()));
+
+        Query<TestStringEntity> query = repository.search()
+                .filter("name", Operator.EQ, "name")
+                .limit(2)
+                .build();
+
+        assertThat(repository.stream(query).map(TestStringEntity::getId).collect(Collectors.toList()))
+                .containsExactlyInAnyOrder("id0", "id1", "id2", "id3", "id4");
+    }
+
     @Test
     public void delete_willRemoveEntryFromSearchService() {
         TestStringEntity target = new TestStringEntity("id3").setName("target");
@@ -54,4 +102,19 @@ public class StringSearchRepositoryTest extends AbstractStringRepositoryTest {
         assertThat(repository.execute(postDeleteQuery))
                 .isEmpty();
     }
+
+    @Test
+    public void deleteAsync_willRemoveEntryFromSearchServiceAndDatastore() {
+        TestStringEntity target = new TestStringEntity("id1").setName("target");
+        repository.save(target);
+
+        Runnable deleteOperation = repository.deleteAsync(target);
+        deleteOperation.run();
+
+        Query<TestStringEntity> query = repository.search()
+                .filter("name", Operator.EQ, target.getName())
+                .build();
+        assertThat(repository.execute(query)).isEmpty();
+        assertThat(load("id1")).isNull();
+    }
 }
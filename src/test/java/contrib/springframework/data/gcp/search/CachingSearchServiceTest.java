@@ -0,0 +1,136 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.query.Query;
+import contrib.springframework.data.gcp.search.query.QueryCompiler;
+import contrib.springframework.data.gcp.search.query.QueryImpl;
+import contrib.springframework.data.gcp.search.query.Result;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.google.common.util.concurrent.Runnables.doNothing;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class CachingSearchServiceTest extends SearchTest {
+
+    private SearchService delegate;
+    private CachingSearchService cachingSearchService;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        delegate = mock(SearchService.class);
+        when(delegate.execute(any(Query.class))).thenAnswer(invocation -> mock(Result.class));
+        when(delegate.indexAsync(any(), anyString())).thenReturn(doNothing());
+        when(delegate.unindexAsync(any(), Matchers.<Collection<String>>any())).thenReturn(doNothing());
+
+        cachingSearchService = new CachingSearchService(delegate, new QueryCompiler(searchMetadata, new DefaultSearchConversionService()), 100, 60000);
+    }
+
+    @Test
+    public void execute_willReturnCachedResult_forEquivalentQuery() {
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+        Result<ScoredDocument> second = cachingSearchService.execute(query(10));
+        Result<ScoredDocument> other = cachingSearchService.execute(query(20));
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        verify(delegate, times(2)).execute(any(Query.class));
+        assertThat(cachingSearchService.getHitCount()).isEqualTo(1);
+        assertThat(cachingSearchService.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void index_willInvalidateResultsForEntityClass() {
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+
+        cachingSearchService.index(new TestSearchEntity("id1"), "id1");
+
+        assertThat(cachingSearchService.execute(query(10))).isNotSameAs(first);
+    }
+
+    @Test
+    public void clear_willInvalidateResultsForEntityClass() {
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+
+        cachingSearchService.clear(TestSearchEntity.class);
+
+        assertThat(cachingSearchService.execute(query(10))).isNotSameAs(first);
+    }
+
+    @Test
+    public void execute_willExpireResults_afterTimeToLiveOfEntityClass() throws Exception {
+        cachingSearchService.setTimeToLive(TestSearchEntity.class, 1);
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+        Thread.sleep(5);
+
+        assertThat(cachingSearchService.execute(query(10))).isNotSameAs(first);
+    }
+
+    @Test
+    public void execute_willServeStaleResult_whileRefreshing() throws Exception {
+        List<Runnable> refreshes = new ArrayList<>();
+        cachingSearchService.setTimeToLive(TestSearchEntity.class, 1).setStaleWhileRevalidate(refreshes::add);
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+        Thread.sleep(5);
+
+        assertThat(cachingSearchService.execute(query(10))).isSameAs(first);
+        assertThat(cachingSearchService.execute(query(10))).isSameAs(first);
+        assertThat(refreshes).hasSize(1);
+        assertThat(cachingSearchService.getStaleHitCount()).isEqualTo(2);
+
+        cachingSearchService.setTimeToLive(TestSearchEntity.class, 60000);
+        refreshes.get(0).run();
+
+        assertThat(cachingSearchService.execute(query(10))).isNotSameAs(first);
+        verify(delegate, times(2)).execute(any(Query.class));
+    }
+
+    @Test
+    public void execute_willNotServeStaleResult_afterWrite() throws Exception {
+        List<Runnable> refreshes = new ArrayList<>();
+        cachingSearchService.setTimeToLive(TestSearchEntity.class, 1).setStaleWhileRevalidate(refreshes::add);
+        Result<ScoredDocument> first = cachingSearchService.execute(query(10));
+        Thread.sleep(5);
+
+        cachingSearchService.unindex(TestSearchEntity.class, "id1");
+
+        assertThat(cachingSearchService.execute(query(10))).isNotSameAs(first);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    public void close_willShutDownRefreshExecutor_andCloseDelegate() throws Exception {
+        SearchService closeableDelegate = mock(SearchService.class, withSettings().extraInterfaces(AutoCloseable.class));
+        ExecutorService refreshExecutor = Executors.newSingleThreadExecutor();
+        cachingSearchService = new CachingSearchService(closeableDelegate, new QueryCompiler(searchMetadata, new DefaultSearchConversionService()), 100, 60000)
+                .setStaleWhileRevalidate(refreshExecutor);
+
+        cachingSearchService.close();
+
+        assertThat(refreshExecutor.isShutdown()).isTrue();
+        verify((AutoCloseable) closeableDelegate).close();
+    }
+
+    private Query<TestSearchEntity> query(int limit) {
+        return new QueryImpl<>(TestSearchEntity.class)
+                .filter("stringField", Operator.EQUAL, "value")
+                .limit(limit)
+                .build();
+    }
+}
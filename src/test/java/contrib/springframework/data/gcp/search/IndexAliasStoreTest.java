@@ -0,0 +1,85 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndexAliasStoreTest extends SearchTest {
+
+    private IndexAliasStore aliasStore;
+
+    @Before
+    public void setUp() {
+        aliasStore = new IndexAliasStore(DatastoreServiceFactory.getDatastoreService());
+    }
+
+    @After
+    public void resetNamespace() {
+        NamespaceManager.set(null);
+    }
+
+    @Test
+    public void get_willTargetIndexOfSameName_whenAliasDoesNotExist() {
+        assertThat(aliasStore.get("Entity")).isEqualTo(new IndexAlias("Entity", "Entity", null));
+    }
+
+    @Test
+    public void beginRebuild_willSetPendingIndex() {
+        IndexAlias alias = aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        assertThat(alias).isEqualTo(new IndexAlias("Entity", "Entity", "Entity_v2"));
+        assertThat(aliasStore.get("Entity")).isEqualTo(alias);
+    }
+
+    @Test
+    public void beginRebuild_willDoNothing_whenAlreadyRebuildingSameIndex() {
+        aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        assertThat(aliasStore.beginRebuild("Entity", "Entity_v2").getPending()).isEqualTo("Entity_v2");
+    }
+
+    @Test
+    public void beginRebuild_willThrowException_whenRebuildingAnotherIndex() {
+        aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Index 'Entity' is already being rebuilt into 'Entity_v2'");
+        aliasStore.beginRebuild("Entity", "Entity_v3");
+    }
+
+    @Test
+    public void completeRebuild_willSwitchToPendingIndex() {
+        aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        IndexAlias alias = aliasStore.completeRebuild("Entity");
+
+        assertThat(alias).isEqualTo(new IndexAlias("Entity", "Entity_v2", null));
+        assertThat(aliasStore.get("Entity")).isEqualTo(alias);
+    }
+
+    @Test
+    public void completeRebuild_willThrowException_whenNotRebuilding() {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("Index 'Entity' is not being rebuilt");
+        aliasStore.completeRebuild("Entity");
+    }
+
+    @Test
+    public void abortRebuild_willKeepCurrentIndex() {
+        aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        assertThat(aliasStore.abortRebuild("Entity")).isEqualTo(new IndexAlias("Entity", "Entity", null));
+    }
+
+    @Test
+    public void get_willResolveAliasPerNamespace() {
+        aliasStore.beginRebuild("Entity", "Entity_v2");
+
+        NamespaceManager.set("other");
+        assertThat(aliasStore.get("Entity").isRebuilding()).isFalse();
+    }
+}
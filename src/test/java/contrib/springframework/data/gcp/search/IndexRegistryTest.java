@@ -0,0 +1,114 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.search.Index;
+import contrib.springframework.data.gcp.search.metadata.IndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.FQIndexNamingStrategy;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IndexRegistryTest extends SearchTest {
+
+    @After
+    public void resetNamespace() {
+        NamespaceManager.set(null);
+    }
+
+    @Test
+    public void get_willReturnCachedIndex() {
+        IndexRegistry registry = new IndexRegistry(searchMetadata);
+
+        Index index = registry.get(TestSearchEntity.class);
+
+        assertThat(index.getName()).isEqualTo(searchMetadata.getIndexName(TestSearchEntity.class));
+        assertThat(registry.get(TestSearchEntity.class)).isSameAs(index);
+    }
+
+    @Test
+    public void get_willResolveIndexPerNamespace() {
+        IndexRegistry registry = new IndexRegistry(searchMetadata);
+        Index defaultIndex = registry.get(TestSearchEntity.class);
+
+        NamespaceManager.set("other");
+        Index otherIndex = registry.get(TestSearchEntity.class);
+
+        assertThat(otherIndex).isNotSameAs(defaultIndex);
+        assertThat(otherIndex.getNamespace()).isEqualTo("other");
+        assertThat(registry.get(TestSearchEntity.class)).isSameAs(otherIndex);
+    }
+
+    @Test
+    public void get_willResolveIndexOnce() {
+        SearchMetadata metadata = spy(searchMetadata);
+        IndexRegistry registry = new IndexRegistry(metadata);
+
+        registry.get(TestSearchEntity.class);
+        registry.get(TestSearchEntity.class);
+        registry.get(TestSearchEntity.class);
+
+        verify(metadata, times(1)).getIndexName(TestSearchEntity.class);
+    }
+
+    @Test
+    public void get_willResolveNewIndexName_afterInvalidate() {
+        SearchMetadata metadata = spy(searchMetadata);
+        IndexNamingStrategy fqStrategy = new FQIndexNamingStrategy();
+        IndexRegistry registry = new IndexRegistry(metadata);
+        Index index = registry.get(TestSearchEntity.class);
+
+        when(metadata.getIndexName(TestSearchEntity.class)).thenReturn(fqStrategy.apply(TestSearchEntity.class));
+        registry.invalidate();
+
+        Index newIndex = registry.get(TestSearchEntity.class);
+        assertThat(newIndex).isNotSameAs(index);
+        assertThat(newIndex.getName()).isEqualTo(TestSearchEntity.class.getName());
+    }
+
+    @Test
+    public void invalidate_willDiscardCachedIndex() {
+        IndexRegistry registry = new IndexRegistry(searchMetadata);
+        Index index = registry.get(TestSearchEntity.class);
+
+        registry.invalidate(TestSearchEntity.class);
+
+        assertThat(registry.get(TestSearchEntity.class)).isNotSameAs(index);
+    }
+
+    @Test
+    public void get_willResolveAliasedIndex() {
+        IndexAliasStore aliasStore = new IndexAliasStore(DatastoreServiceFactory.getDatastoreService());
+        String name = searchMetadata.getIndexName(TestSearchEntity.class);
+        aliasStore.beginRebuild(name, name + "_v2");
+        IndexRegistry registry = new IndexRegistry(searchMetadata, aliasStore, 60000);
+
+        assertThat(registry.get(TestSearchEntity.class).getName()).isEqualTo(name);
+        assertThat(registry.getWriteIndexes(TestSearchEntity.class)).extracting(Index::getName).containsExactly(name, name + "_v2");
+
+        aliasStore.completeRebuild(name);
+        registry.invalidate(TestSearchEntity.class);
+
+        assertThat(registry.get(TestSearchEntity.class).getName()).isEqualTo(name + "_v2");
+        assertThat(registry.getWriteIndexes(TestSearchEntity.class)).extracting(Index::getName).containsExactly(name + "_v2");
+    }
+
+    @Test
+    public void get_willRefreshAlias_afterRefreshInterval() throws Exception {
+        IndexAliasStore aliasStore = new IndexAliasStore(DatastoreServiceFactory.getDatastoreService());
+        String name = searchMetadata.getIndexName(TestSearchEntity.class);
+        IndexRegistry registry = new IndexRegistry(searchMetadata, aliasStore, 10);
+        registry.get(TestSearchEntity.class);
+
+        aliasStore.beginRebuild(name, name + "_v2");
+        Thread.sleep(20);
+
+        assertThat(registry.getAlias(TestSearchEntity.class).getPending()).isEqualTo(name + "_v2");
+    }
+}
@@ -0,0 +1,33 @@
+package contrib.springframework.data.gcp.search;
+
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.QueryImpl;
+import contrib.springframework.data.gcp.search.query.Result;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NoOpSearchServiceTest {
+
+    private final NoOpSearchService searchService = new NoOpSearchService();
+
+    @Test
+    public void executeAll_willReturnEmptyResult() {
+        MultiResult result = searchService.executeAll(Arrays.asList(new QueryImpl<>(TestSearchEntity.class).build(), new QueryImpl<>(String.class).build()), 10);
+
+        assertThat(result.getList()).isEmpty();
+        assertThat(result.getTotal()).isEqualTo(0);
+        assertThat(result.getTotals()).containsEntry(TestSearchEntity.class, 0L).containsEntry(String.class, 0L);
+    }
+
+    @Test
+    public void project_willReturnEmptyResult() {
+        Result<String> result = searchService.project(new QueryImpl<>(TestSearchEntity.class).build(), String.class);
+
+        assertThat(result.getList()).isEmpty();
+        assertThat(result.getTotal()).isEqualTo(0);
+        assertThat(result.getCount()).isEqualTo(0);
+    }
+}
@@ -1,20 +1,37 @@
 package contrib.springframework.data.gcp.search;
 
 import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.FacetResult;
+import com.google.appengine.api.search.FacetResultValue;
 import com.google.appengine.api.search.GeoPoint;
+import com.google.appengine.api.search.GetRequest;
 import com.google.appengine.api.search.Index;
+import com.google.appengine.api.search.ScoredDocument;
+import com.google.common.base.Strings;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.PreparedQuery;
+import contrib.springframework.data.gcp.search.query.QueryParameter;
+import contrib.springframework.data.gcp.search.query.Result;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 public class SearchServiceImplTest extends SearchTest {
 
@@ -87,6 +104,224 @@ public class SearchServiceImplTest extends SearchTest {
         searchService.index(new HashMap<>());
     }
 
+    @Test
+    public void indexMultiple_willBatchRequests_whenCollectionExceedsApiLimit() {
+        List<TestSearchEntity> entityList = IntStream.range(0, 1050)
+                .mapToObj(i -> new TestSearchEntity("entity" + i).setStringField("value" + i))
+                .collect(Collectors.toList());
+
+        searchService.index(entityList);
+
+        Index index = getIndex(TestSearchEntity.class);
+        assertThat(index.get("entity0").getFields("stringField")).extracting("text").containsExactly("value0");
+        assertThat(index.get("entity500").getFields("stringField")).extracting("text").containsExactly("value500");
+        assertThat(index.get("entity1049").getFields("stringField")).extracting("text").containsExactly("value1049");
+    }
+
+    @Test
+    public void indexMultiple_willOnlyRejectOversizeDocuments() {
+        SearchServiceImpl service = new SearchServiceImpl(searchMetadata, new DefaultSearchConversionService())
+                .setMaxDocumentSize(1000);
+
+        thrown.expect(OversizeDocumentException.class);
+        try {
+            service.index(Arrays.asList(
+                    new TestSearchEntity("entity1").setStringField("value1"),
+                    new TestSearchEntity("entity2").setStringField(Strings.repeat("x", 2000)),
+                    new TestSearchEntity("entity3").setStringField("value3")
+            ));
+        } catch (OversizeDocumentException e) {
+            assertThat(e.getIds()).containsExactly("entity2");
+            throw e;
+        } finally {
+            Index index = getIndex(TestSearchEntity.class);
+            assertThat(index.get("entity1")).isNotNull();
+            assertThat(index.get("entity2")).isNull();
+            assertThat(index.get("entity3")).isNotNull();
+        }
+    }
+
+    @Test
+    public void indexMultiple_willBatchRequests_bySize() {
+        SearchMetrics metrics = mock(SearchMetrics.class);
+        SearchServiceImpl service = new SearchServiceImpl(searchMetadata, new DefaultSearchConversionService())
+                .setMetrics(metrics)
+                .setMaxBatchBytes(6000);
+
+        service.index(IntStream.range(0, 5)
+                .mapToObj(i -> new TestSearchEntity("entity" + i).setStringField(Strings.repeat("x", 2000)))
+                .collect(Collectors.toList()));
+
+        String indexName = searchMetadata.getIndexName(TestSearchEntity.class);
+        verify(metrics, times(2)).recordPut(indexName, 2);
+        verify(metrics, times(1)).recordPut(indexName, 1);
+        assertThat(getIndex(TestSearchEntity.class).get("entity4")).isNotNull();
+    }
+
+    @Test
+    public void prepare_willExecuteWithBoundParameters() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("red"),
+                new TestSearchEntity("id2").setStringField("green"),
+                new TestSearchEntity("id3").setStringField("blue")
+        ));
+
+        PreparedQuery<TestSearchEntity> query = searchService.prepare(searchService.createQuery(TestSearchEntity.class)
+                .filter("stringField", Operator.EQUAL, QueryParameter.param("colour"))
+                .build());
+
+        assertThat(query.getParameterNames()).containsExactly("colour");
+        assertThat(query.execute("colour", "green").getList()).extracting("id").containsExactly("id2");
+        assertThat(query.execute("colour", "blue").getList()).extracting("id").containsExactly("id3");
+    }
+
+    @Test
+    public void execute_willPageWithCursors() {
+        searchService.index(IntStream.range(0, 5)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        List<String> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            Result<ScoredDocument> page = searchService.execute(searchService.createQuery(TestSearchEntity.class)
+                    .order("longField")
+                    .limit(2)
+                    .cursor(cursor)
+                    .build());
+            page.forEach(document -> ids.add(document.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(ids).containsExactly("id0", "id1", "id2", "id3", "id4");
+    }
+
+    @Test
+    public void execute_willReturnPerResultCursors() {
+        searchService.index(IntStream.range(0, 3)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        Result<ScoredDocument> first = searchService.execute(searchService.createQuery(TestSearchEntity.class)
+                .order("longField")
+                .cursor(null, true)
+                .build());
+        Result<ScoredDocument> afterFirst = searchService.execute(searchService.createQuery(TestSearchEntity.class)
+                .order("longField")
+                .cursor(first.getResultCursors().get(0), true)
+                .build());
+
+        assertThat(first.getResultCursors()).hasSize(3).doesNotContainNull();
+        assertThat(afterFirst.getList()).extracting("id").containsExactly("id1", "id2");
+    }
+
+    @Test
+    public void executeAsync_willOverlapSearches() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("red"),
+                new TestSearchEntity("id2").setStringField("green")
+        ));
+
+        Supplier<Result<ScoredDocument>> red = searchService.executeAsync(searchService.createQuery(TestSearchEntity.class)
+                .filter("stringField", Operator.EQUAL, "red")
+                .build());
+        Supplier<Result<ScoredDocument>> green = searchService.executeAsync(searchService.createQuery(TestSearchEntity.class)
+                .filter("stringField", Operator.EQUAL, "green")
+                .build());
+
+        assertThat(red.get().getList()).extracting("id").containsExactly("id1");
+        assertThat(green.get().getList()).extracting("id").containsExactly("id2");
+    }
+
+    @Test
+    public void executeAsync_willCompleteSearchOnce() {
+        searchService.index(new TestSearchEntity("id1"));
+
+        Supplier<Result<ScoredDocument>> search = searchService.executeAsync(searchService.createQuery(TestSearchEntity.class).build());
+
+        assertThat(search.get()).isSameAs(search.get());
+    }
+
+    @Test
+    public void executeAll_willMergeResultsBySortKey() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setLongField(1),
+                new TestSearchEntity("id4").setLongField(4),
+                new TestSearchEntity("id5").setLongField(5)
+        ));
+        searchService.index(new NumberEntity(2), "other2");
+        searchService.index(new NumberEntity(3), "other3");
+
+        MultiResult result = searchService.executeAll(Arrays.asList(
+                searchService.createQuery(TestSearchEntity.class).order("longField").build(),
+                searchService.createQuery(NumberEntity.class).order("longField").build()
+        ), 4);
+
+        assertThat(result.getList()).extracting("id").containsExactly("id1", "other2", "other3", "id4");
+        assertThat(result.getResultType(result.getList().get(1))).isEqualTo(NumberEntity.class);
+        assertThat(result.getTotals()).containsEntry(TestSearchEntity.class, 3L).containsEntry(NumberEntity.class, 2L);
+        assertThat(result.getTotal()).isEqualTo(5);
+    }
+
+    @Test
+    public void project_willReadReturnedFields() {
+        searchService.index(new TestSearchEntity("id1").setStringField("red").setLongField(7).setStringListField(Arrays.asList("a", "b")));
+
+        Result<Summary> result = searchService.project(searchService.createQuery(TestSearchEntity.class)
+                .retrieveIdsOnly()
+                .returnFields("stringField", "longField")
+                .build(), Summary.class);
+
+        assertThat(result.getList()).hasSize(1);
+        assertThat(result.getList().get(0).id).isEqualTo("id1");
+        assertThat(result.getList().get(0).stringField).isEqualTo("red");
+        assertThat(result.getList().get(0).longField).isEqualTo(7);
+        assertThat(result.getList().get(0).stringListField).isNull();
+    }
+
+    @Test
+    public void execute_willReturnFacets() {
+        searchService.index(new ProductEntity("books", 5), "id1");
+        searchService.index(new ProductEntity("books", 15), "id2");
+        searchService.index(new ProductEntity("music", 25), "id3");
+
+        Result<ScoredDocument> result = searchService.execute(searchService.createQuery(ProductEntity.class)
+                .facet("category")
+                .rangeFacet("price", Double.NEGATIVE_INFINITY, 10, 20, Double.POSITIVE_INFINITY)
+                .build());
+
+        Map<String, Map<String, Integer>> facets = result.getFacets().stream()
+                .collect(Collectors.toMap(FacetResult::getName, facet -> facet.getValues().stream()
+                        .collect(Collectors.toMap(FacetResultValue::getLabel, FacetResultValue::getCount))));
+
+        assertThat(facets.get("category")).containsEntry("books", 2).containsEntry("music", 1);
+        assertThat(facets.get("price").values()).containsExactlyInAnyOrder(1, 1, 1);
+    }
+
+    @Test
+    public void stream_willFollowCursorsAcrossPages() {
+        searchService.index(IntStream.range(0, 5)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        List<String> ids = searchService.stream(searchService.createQuery(TestSearchEntity.class)
+                .order("longField")
+                .limit(2)
+                .build())
+                .map(ScoredDocument::getId)
+                .collect(Collectors.toList());
+
+        assertThat(ids).containsExactly("id0", "id1", "id2", "id3", "id4");
+    }
+
+    @Test
+    public void execute_willThrowException_whenQueryUsesSkipAndCursor() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("A query can not be paged by both skip and cursor");
+
+        searchService.execute(searchService.createQuery(TestSearchEntity.class).skip(1).cursor(null).build());
+    }
+
     @Test
     public void unindex() {
         Index index = getIndex(TestSearchEntity.class);
@@ -121,6 +356,21 @@ public class SearchServiceImplTest extends SearchTest {
         assertThat(index.get("entity3")).isNotNull();
     }
 
+    @Test
+    public void unindexAsync_willChunkLargeIdLists() {
+        List<TestSearchEntity> entities = IntStream.range(0, 450)
+                .mapToObj(i -> new TestSearchEntity("entity" + i))
+                .collect(Collectors.toList());
+        searchService.index(entities);
+
+        Runnable operation = searchService.unindexAsync(TestSearchEntity.class, entities.stream().map(TestSearchEntity::getId));
+        operation.run();
+
+        Index index = getIndex(TestSearchEntity.class);
+        assertThat(index.get("entity0")).isNull();
+        assertThat(index.get("entity449")).isNull();
+    }
+
     @Test
     public void unindexMultiple_willNotFail_whenMapIsEmpty() {
         searchService.unindex(TestSearchEntity.class, Collections.emptyList());
@@ -150,6 +400,53 @@ public class SearchServiceImplTest extends SearchTest {
         assertThat(index.get("entity300")).isNull();
     }
 
+    @Test
+    public void clear_willReportProgress() {
+        searchService.index(IntStream.range(0, 450)
+                .mapToObj(i -> new TestSearchEntity(String.format("entity%03d", i)))
+                .collect(Collectors.toList()));
+
+        List<ClearResult> progress = new ArrayList<>();
+        ClearResult result = searchService.clear(TestSearchEntity.class, null, 0, progress::add);
+
+        assertThat(result.isComplete()).isTrue();
+        assertThat(result.getCount()).isEqualTo(450);
+        assertThat(result.getLastId()).isEqualTo("entity449");
+        assertThat(progress).extracting(ClearResult::getCount).containsExactly(200, 400, 450);
+        assertThat(getIndex(TestSearchEntity.class).get("entity449")).isNull();
+    }
+
+    @Test
+    public void clear_willStartAfterStartId() {
+        searchService.index(IntStream.range(0, 10)
+                .mapToObj(i -> new TestSearchEntity("entity" + i))
+                .collect(Collectors.toList()));
+
+        ClearResult result = searchService.clear(TestSearchEntity.class, "entity4", 0, null);
+
+        Index index = getIndex(TestSearchEntity.class);
+        assertThat(result.getCount()).isEqualTo(5);
+        assertThat(index.get("entity4")).isNotNull();
+        assertThat(index.get("entity5")).isNull();
+    }
+
+    @Test
+    public void clear_canBeResumed_afterTimeout() {
+        searchService.index(IntStream.range(0, 1000)
+                .mapToObj(i -> new TestSearchEntity("entity" + i))
+                .collect(Collectors.toList()));
+
+        int total = 0;
+        ClearResult result = null;
+        do {
+            result = searchService.clear(TestSearchEntity.class, result == null ? null : result.getLastId(), 1, null);
+            total += result.getCount();
+        } while (!result.isComplete());
+
+        assertThat(total).isEqualTo(1000);
+        assertThat(getIndex(TestSearchEntity.class).getRange(GetRequest.newBuilder().setReturningIdsOnly(true)).getResults()).isEmpty();
+    }
+
     @Test
     public void clear_willNotImpactOtherIndexes() {
         TestSearchEntity entity1 = new TestSearchEntity("entity1");
@@ -187,4 +484,34 @@ public class SearchServiceImplTest extends SearchTest {
     private class EmptyEntity {
 
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unused")
+    private static class NumberEntity {
+        @SearchIndex
+        private long longField;
+
+        NumberEntity(long longField) {
+            this.longField = longField;
+        }
+    }
+
+    private static class Summary {
+        @SearchId
+        private String id;
+        private String stringField;
+        private long longField;
+        private List<String> stringListField;
+    }
+
+    private static class ProductEntity {
+        @SearchIndex(facet = true)
+        private String category;
+        @SearchIndex(facet = true)
+        private long price;
+
+        ProductEntity(String category, long price) {
+            this.category = category;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package contrib.springframework.data.gcp.search;
+
+import com.google.appengine.api.NamespaceManager;
+import com.google.appengine.api.search.Document;
+import com.google.apphosting.api.ApiProxy;
+import contrib.springframework.data.gcp.search.metrics.SearchMetrics;
+import contrib.springframework.data.gcp.search.query.PreparedQuery;
+import contrib.springframework.data.gcp.search.query.Query;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class WriteBehindSearchServiceTest extends SearchTest {
+
+    @Autowired
+    private DocumentSearchService searchService;
+
+    private WriteBehindSearchService writeBehind;
+
+    @Before
+    public void setUp() {
+        writeBehind = new WriteBehindSearchService(searchService, 100);
+    }
+
+    @After
+    public void tearDown() {
+        writeBehind.close();
+    }
+
+    @Test
+    public void index_willNotWrite_untilFlushed() {
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNull();
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(1);
+
+        writeBehind.flush();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(0);
+        assertThat(writeBehind.getFlushedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void index_willCoalesceWrites_lastWriteWins() {
+        writeBehind.index(new TestSearchEntity("id1").setStringField("first"));
+        writeBehind.index(new TestSearchEntity("id1").setStringField("second"));
+
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(1);
+        assertThat(writeBehind.getCoalescedCount()).isEqualTo(1);
+
+        writeBehind.flush();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1").getOnlyField("stringField").getText()).isEqualTo("second");
+    }
+
+    @Test
+    public void unindex_willReplacePendingIndex() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        writeBehind.index(new TestSearchEntity("id1").setStringField("changed"));
+        writeBehind.unindex(TestSearchEntity.class, "id1");
+        writeBehind.flush();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNull();
+    }
+
+    @Test
+    public void index_willFlushOnCallerThread_whenQueueIsFull() {
+        writeBehind = new WriteBehindSearchService(searchService, 2);
+
+        writeBehind.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("value1"),
+                new TestSearchEntity("id2").setStringField("value2"),
+                new TestSearchEntity("id3").setStringField("value3")
+        ));
+
+        assertThat(writeBehind.getFlushedCount()).isEqualTo(3);
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void index_willKeepCallersWrite_whenFlushOnFullQueueFails() {
+        DocumentSearchService delegate = mockDelegate();
+        when(delegate.indexDocumentsAsync(any(), anyListOf(Document.class))).thenThrow(new RuntimeException("boom"));
+        writeBehind = new WriteBehindSearchService(delegate, 1);
+
+        writeBehind.index(new TestSearchEntity("id1"), "id1");
+        writeBehind.index(new TestSearchEntity("id2"), "id2");
+
+        assertThat(writeBehind.getFailedFlushCount()).isEqualTo(1);
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(2);
+        writeBehind.clear(TestSearchEntity.class);
+    }
+
+    @Test
+    public void flush_willDropWrites_afterMaxAttempts() {
+        DocumentSearchService delegate = mockDelegate();
+        when(delegate.indexDocumentsAsync(any(), anyListOf(Document.class))).thenThrow(new RuntimeException("boom"));
+        writeBehind = new WriteBehindSearchService(delegate, 100).setMaxAttempts(2);
+        writeBehind.index(new TestSearchEntity("id1"), "id1");
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                writeBehind.flush();
+            } catch (RuntimeException e) {
+                assertThat(e).hasMessage("boom");
+            }
+        }
+
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(0);
+        assertThat(writeBehind.getDroppedCount()).isEqualTo(1);
+        verify(delegate, times(2)).indexDocumentsAsync(any(), anyListOf(Document.class));
+    }
+
+    @Test
+    public void flush_willResetAttempts_whenDocumentIsWrittenAgain() {
+        DocumentSearchService delegate = mockDelegate();
+        when(delegate.indexDocumentsAsync(any(), anyListOf(Document.class))).thenThrow(new RuntimeException("boom"));
+        writeBehind = new WriteBehindSearchService(delegate, 100).setMaxAttempts(2);
+        writeBehind.index(new TestSearchEntity("id1"), "id1");
+
+        try {
+            writeBehind.flush();
+        } catch (RuntimeException e) {
+            assertThat(e).hasMessage("boom");
+        }
+        writeBehind.index(new TestSearchEntity("id1"), "id1");
+        try {
+            writeBehind.flush();
+        } catch (RuntimeException e) {
+            assertThat(e).hasMessage("boom");
+        }
+
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(1);
+        assertThat(writeBehind.getDroppedCount()).isEqualTo(0);
+        writeBehind.clear(TestSearchEntity.class);
+    }
+
+    @Test
+    public void flush_willWriteToNamespaceOfRequest() {
+        NamespaceManager.set("other");
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+        NamespaceManager.set(null);
+
+        writeBehind.flush();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNull();
+        NamespaceManager.set("other");
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+        NamespaceManager.set(null);
+    }
+
+    @Test
+    public void clear_willDiscardPendingWrites() {
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+        writeBehind.clear(TestSearchEntity.class);
+
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void getLagMillis_willMeasureOldestPendingWrite() throws Exception {
+        assertThat(writeBehind.getLagMillis()).isEqualTo(0);
+
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+        Thread.sleep(20);
+
+        assertThat(writeBehind.getLagMillis()).isGreaterThanOrEqualTo(20);
+    }
+
+    @Test
+    public void flush_willRequeue_whenWriteFails() {
+        DocumentSearchService delegate = mockDelegate();
+        when(delegate.indexDocumentsAsync(any(), anyListOf(Document.class))).thenThrow(new RuntimeException("boom"));
+        writeBehind = new WriteBehindSearchService(delegate, 100);
+
+        writeBehind.index(new TestSearchEntity("id1"), "id1");
+
+        thrown.expectMessage("boom");
+        try {
+            writeBehind.flush();
+        } finally {
+            assertThat(writeBehind.getQueueDepth()).isEqualTo(1);
+            assertThat(writeBehind.getFailedFlushCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void close_willFlushPendingWrites() {
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+
+        writeBehind.close();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+    }
+
+    @Test
+    public void close_willCloseDelegate() throws Exception {
+        DocumentSearchService closeableDelegate = mock(DocumentSearchService.class, withSettings().extraInterfaces(AutoCloseable.class));
+        writeBehind = new WriteBehindSearchService(closeableDelegate, 100);
+
+        writeBehind.close();
+
+        verify((AutoCloseable) closeableDelegate).close();
+    }
+
+    @Test
+    public void start_willFlushInBackground() throws Exception {
+        ApiProxy.Environment environment = ApiProxy.getCurrentEnvironment();
+        ThreadFactory threadFactory = runnable -> new Thread(() -> {
+            ApiProxy.setEnvironmentForCurrentThread(environment);
+            runnable.run();
+        });
+        writeBehind.start(10, threadFactory);
+
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writeBehind.getFlushedCount() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+    }
+
+    @Test
+    public void flush_willUnindexPendingDeletes_inOneRequest() {
+        DocumentSearchService delegate = mockDelegate();
+        when(delegate.unindexAsync(any(), Matchers.<Collection<String>>any())).thenReturn(() -> {
+        });
+        writeBehind = new WriteBehindSearchService(delegate, 1000);
+
+        for (int i = 0; i < 450; i++) {
+            writeBehind.unindex(TestSearchEntity.class, "id" + i);
+        }
+        writeBehind.flush();
+
+        verify(delegate, times(1)).unindexAsync(any(), Matchers.<Collection<String>>any());
+        verify(delegate, never()).indexDocumentsAsync(any(), anyListOf(Document.class));
+    }
+
+    @Test
+    public void index_willNotLeakLaterChanges_toQueuedDocument() {
+        TestSearchEntity entity = new TestSearchEntity("id1").setStringField("saved");
+        writeBehind.index(entity);
+        entity.setStringField("changed");
+
+        writeBehind.flush();
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1").getOnlyField("stringField").getText()).isEqualTo("saved");
+    }
+
+    @Test
+    public void unindex_willCoalesceWithIndex_ofSubclassInSameIndex() {
+        DocumentSearchService delegate = mockDelegate();
+        writeBehind = new WriteBehindSearchService(delegate, 100);
+
+        writeBehind.index(new TestSearchEntity("id1") {
+        }, "id1");
+        writeBehind.unindex(TestSearchEntity.class, "id1");
+
+        assertThat(writeBehind.getQueueDepth()).isEqualTo(1);
+        assertThat(writeBehind.getCoalescedCount()).isEqualTo(1);
+        writeBehind.clear(TestSearchEntity.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void prepare_willUseDelegate() {
+        DocumentSearchService delegate = mockDelegate();
+        PreparedQuery<TestSearchEntity> prepared = mock(PreparedQuery.class);
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class).build();
+        when(delegate.prepare(query)).thenReturn(prepared);
+        writeBehind = new WriteBehindSearchService(delegate, 100);
+
+        assertThat(writeBehind.prepare(query)).isSameAs(prepared);
+    }
+
+    @Test
+    public void flush_willRecordQueueDepthAndLag() {
+        SearchMetrics metrics = mock(SearchMetrics.class);
+        writeBehind.setMetrics(metrics);
+        writeBehind.index(new TestSearchEntity("id1").setStringField("value1"));
+        writeBehind.index(new TestSearchEntity("id2").setStringField("value2"));
+
+        writeBehind.flush();
+
+        verify(metrics).recordWriteBehindFlush(eq(2), anyLong());
+    }
+
+    /**
+     * A delegate that builds empty documents and names every index after the test entity.
+     */
+    private static DocumentSearchService mockDelegate() {
+        DocumentSearchService delegate = mock(DocumentSearchService.class);
+        when(delegate.buildDocument(anyString(), any())).thenAnswer(invocation -> Document.newBuilder()
+                .setId(invocation.getArgumentAt(0, String.class))
+                .build());
+        when(delegate.getIndexName(any())).thenReturn(TestSearchEntity.class.getSimpleName());
+        return delegate;
+    }
+}
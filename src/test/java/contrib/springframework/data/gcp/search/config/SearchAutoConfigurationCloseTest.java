@@ -0,0 +1,43 @@
+package contrib.springframework.data.gcp.search.config;
+
+import com.google.appengine.api.search.IndexSpec;
+import com.google.appengine.api.search.SearchServiceFactory;
+import contrib.springframework.data.gcp.SetupAppengine;
+import contrib.springframework.data.gcp.search.CachingSearchService;
+import contrib.springframework.data.gcp.search.SearchService;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.junit.Rule;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchAutoConfigurationCloseTest {
+    @Rule
+    public SetupAppengine setupAppengine = new SetupAppengine();
+
+    @Test
+    public void close_willFlushWriteBehind_throughResultCache() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SearchTestConfiguration.class)
+                .web(false)
+                .properties(
+                        "spring.data.gcp.search.write-behind-enabled=true",
+                        "spring.data.gcp.search.write-behind-flush-interval=600000",
+                        "spring.data.gcp.search.result-cache-enabled=true",
+                        "spring.data.gcp.search.result-cache-stale-while-revalidate=true"
+                )
+                .run();
+        SearchService searchService = context.getBean(SearchService.class);
+        String indexName = context.getBean(SearchMetadata.class).getIndexName(TestSearchEntity.class);
+
+        searchService.index(new TestSearchEntity("id1").setStringField("red"));
+        assertThat(searchService).isInstanceOf(CachingSearchService.class);
+        assertThat(SearchServiceFactory.getSearchService().getIndex(IndexSpec.newBuilder().setName(indexName)).get("id1")).isNull();
+
+        context.close();
+
+        assertThat(SearchServiceFactory.getSearchService().getIndex(IndexSpec.newBuilder().setName(indexName)).get("id1")).isNotNull();
+    }
+}
@@ -0,0 +1,216 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Facet;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import com.google.common.base.Strings;
+import contrib.springframework.data.gcp.search.SearchId;
+import contrib.springframework.data.gcp.search.SearchIndex;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import contrib.springframework.data.gcp.search.misc.DocumentSizeEstimator;
+import contrib.springframework.data.gcp.search.misc.IndexException;
+import contrib.springframework.data.gcp.search.misc.OversizeDocumentException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentBuilderTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final SearchMetadata searchMetadata = new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy());
+    private final DefaultSearchConversionService conversionService = new DefaultSearchConversionService();
+    private final DocumentBuilder documentBuilder = new DocumentBuilder(searchMetadata, conversionService);
+
+    @Test
+    public void apply() {
+        TestSearchEntity entity = new TestSearchEntity("id1")
+                .setStringField("String value 1")
+                .setLongField(1234567890L)
+                .setStringArrayField(new String[]{"value1", "value2", "value3"})
+                .setStringListField(Arrays.asList("9", "8", "7"))
+                .setGeoPointField(new GeoPoint(1, 2));
+
+        Document document = documentBuilder.apply("id1", entity);
+
+        assertThat(document.getId()).isEqualTo("id1");
+        assertThat(document.getFields("stringField")).extracting("text").containsExactly("String value 1");
+        assertThat(document.getFields("longField")).extracting("number").containsExactly(1234567890d);
+        assertThat(document.getFields("stringArrayField")).extracting("text").containsExactly("value1", "value2", "value3");
+        assertThat(document.getFields("stringListField")).extracting("text").containsExactly("9", "8", "7");
+        assertThat(document.getOnlyField("geoPointField").getGeoPoint().getLatitude()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void apply_willProduceSameFieldsAsFieldBuilder() {
+        TestSearchEntity entity = new TestSearchEntity("id1")
+                .setStringField("String value 1")
+                .setLongField(42L)
+                .setStringArrayField(new String[]{"value1", "value2"})
+                .setStringListField(Arrays.asList("9", "8"));
+
+        FieldBuilder fieldBuilder = new FieldBuilder(conversionService);
+        Set<String> expected = searchMetadata.getFields(TestSearchEntity.class).values().stream()
+                .flatMap(metadata -> fieldBuilder.apply(metadata, metadata.getValue(entity)).stream())
+                .map(Field::toString)
+                .collect(Collectors.toSet());
+
+        Set<String> actual = StreamSupport.stream(documentBuilder.apply("id1", entity).getFields().spliterator(), false)
+                .map(Field::toString)
+                .collect(Collectors.toSet());
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void apply_willConvertValues() {
+        OffsetDateTime date = OffsetDateTime.of(2017, 1, 2, 0, 0, 0, 0, ZoneOffset.UTC);
+        Document document = documentBuilder.apply(7L, new ConvertedEntity(date, 10, ConvertedEntity.Status.ACTIVE));
+
+        assertThat(document.getId()).isEqualTo("7");
+        assertThat(document.getOnlyField("date").getDate()).isEqualTo(Date.from(date.toInstant()));
+        assertThat(document.getOnlyField("number").getNumber()).isEqualTo(10d);
+        assertThat(document.getOnlyField("status").getAtom()).isEqualTo("ACTIVE");
+    }
+
+    @Test
+    public void apply_willThrowException_whenNumberFieldHasMultipleValues() {
+        thrown.expect(IndexException.class);
+        thrown.expectMessage("Search does not support multiplicity on NUMBER or DATE index types");
+
+        documentBuilder.apply("id", new MultiNumberEntity());
+    }
+
+    @Test
+    public void apply_willAddFacets() {
+        Document document = documentBuilder.apply("id1", new FacetEntity());
+
+        assertThat(document.getFacets()).containsExactlyInAnyOrder(Facet.withAtom("category", "books"), Facet.withNumber("price", 12d));
+        assertThat(document.getFields("category")).extracting("text").containsExactly("books");
+    }
+
+    @Test
+    public void apply_willThrowException_whenDateFieldIsFacet() {
+        thrown.expect(IndexException.class);
+        thrown.expectMessage("Search only supports facets on NUMBER and string index types");
+
+        documentBuilder.apply("id1", new DateFacetEntity());
+    }
+
+    @Test
+    public void getPlan_willCompileOncePerEntityClass() {
+        DocumentPlan plan = documentBuilder.getPlan(TestSearchEntity.class);
+
+        assertThat(documentBuilder.getPlan(TestSearchEntity.class)).isSameAs(plan);
+        assertThat(plan.getEntityClass()).isEqualTo(TestSearchEntity.class);
+        assertThat(plan.getFieldCount()).isEqualTo(searchMetadata.getFields(TestSearchEntity.class).size());
+    }
+
+    @Test
+    public void apply_willRejectDocument_whenDocumentIsOversize() {
+        documentBuilder.setMaxDocumentSize(100);
+
+        thrown.expect(OversizeDocumentException.class);
+        thrown.expectMessage("document id: id1");
+
+        documentBuilder.apply("id1", new LargeEntity("small", Strings.repeat("x", 200)));
+    }
+
+    @Test
+    public void apply_willDropField_whenDocumentIsOversize() {
+        documentBuilder.setMaxDocumentSize(100).setOversizePolicy(OversizePolicy.DROP_FIELD);
+
+        Document document = documentBuilder.apply("id1", new LargeEntity("small", Strings.repeat("x", 200)));
+
+        assertThat(document.getOnlyField("other").getText()).isEqualTo("small");
+        assertThat(document.getFieldNames()).doesNotContain("text");
+    }
+
+    @Test
+    public void apply_willTruncateField_whenDocumentIsOversize() {
+        documentBuilder.setMaxDocumentSize(200).setOversizePolicy(OversizePolicy.TRUNCATE);
+
+        Document document = documentBuilder.apply("id1", new LargeEntity("small", Strings.repeat("\u00e9", 200)));
+
+        assertThat(document.getOnlyField("text").getText()).isEqualTo(Strings.repeat("\u00e9", 43));
+        assertThat(DocumentSizeEstimator.estimate(document)).isLessThanOrEqualTo(200);
+    }
+
+    @Test
+    public void apply_willNotLimitDocument_whenDocumentFits() {
+        documentBuilder.setMaxDocumentSize(1000).setOversizePolicy(OversizePolicy.TRUNCATE);
+
+        Document document = documentBuilder.apply("id1", new LargeEntity("small", Strings.repeat("x", 200)));
+
+        assertThat(document.getOnlyField("text").getText()).hasSize(200);
+    }
+
+    @SuppressWarnings("unused")
+    private static class LargeEntity {
+        @SearchIndex
+        private String other;
+        @SearchIndex
+        private String text;
+
+        LargeEntity(String other, String text) {
+            this.other = other;
+            this.text = text;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class ConvertedEntity {
+        enum Status {ACTIVE}
+
+        @SearchId
+        private String id;
+        @SearchIndex
+        private OffsetDateTime date;
+        @SearchIndex
+        private Integer number;
+        @SearchIndex
+        private Status status;
+
+        ConvertedEntity(OffsetDateTime date, Integer number, Status status) {
+            this.date = date;
+            this.number = number;
+            this.status = status;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static class MultiNumberEntity {
+        @SearchIndex
+        private List<Integer> numbers = Arrays.asList(1, 2);
+    }
+
+    private static class FacetEntity {
+        @SearchIndex(facet = true)
+        private String category = "books";
+        @SearchIndex(facet = true)
+        private int price = 12;
+    }
+
+    private static class DateFacetEntity {
+        @SearchIndex(facet = true)
+        private Date date = new Date();
+    }
+}
@@ -0,0 +1,84 @@
+package contrib.springframework.data.gcp.search.conversion;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.GeoPoint;
+import contrib.springframework.data.gcp.search.SearchId;
+import contrib.springframework.data.gcp.search.SearchIndex;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexNamingStrategy;
+import contrib.springframework.data.gcp.search.metadata.impl.DefaultIndexTypeRegistry;
+import contrib.springframework.data.gcp.search.metadata.impl.SearchMetadataImpl;
+import org.junit.Test;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentReaderTest {
+
+    private final SearchMetadata searchMetadata = new SearchMetadataImpl(new DefaultIndexTypeRegistry(), new DefaultIndexNamingStrategy());
+    private final DefaultSearchConversionService conversionService = new DefaultSearchConversionService();
+    private final DocumentBuilder documentBuilder = new DocumentBuilder(searchMetadata, conversionService);
+    private final DocumentReader documentReader = new DocumentReader(searchMetadata, conversionService);
+
+    @Test
+    public void read_willReverseDocumentBuilder() {
+        TestSearchEntity entity = new TestSearchEntity("id1")
+                .setStringField("String value 1")
+                .setLongField(1234567890L)
+                .setStringArrayField(new String[]{"value1", "value2"})
+                .setStringListField(Arrays.asList("9", "8"))
+                .setGeoPointField(new GeoPoint(1, 2));
+
+        TestSearchEntity result = documentReader.read(documentBuilder.apply("id1", entity), TestSearchEntity.class, TestSearchEntity.class);
+
+        assertThat(result.getId()).isEqualTo("id1");
+        assertThat(result.getStringField()).isEqualTo("String value 1");
+        assertThat(result.getLongField()).isEqualTo(1234567890L);
+        assertThat(result.getStringArrayField()).containsExactlyInAnyOrder("value1", "value2");
+        assertThat(result.getStringListField()).containsExactlyInAnyOrder("9", "8");
+        assertThat(result.getGeoPointField()).extracting("latitude", "longitude").containsExactly(1d, 2d);
+    }
+
+    @Test
+    public void read_willOnlyPopulateProjectedFields() {
+        Document document = documentBuilder.apply("id1", new TestSearchEntity("id1").setStringField("value").setLongField(5));
+
+        Summary result = documentReader.read(document, TestSearchEntity.class, Summary.class);
+
+        assertThat(result.key).isEqualTo("id1");
+        assertThat(result.longField).isEqualTo(5);
+        assertThat(result.stringListField).isNull();
+    }
+
+    @Test
+    public void read_willConvertDates() {
+        OffsetDateTime value = OffsetDateTime.parse("2017-01-02T03:04:05Z");
+
+        DateEntity result = documentReader.read(documentBuilder.apply("id1", new DateEntity(value)), DateEntity.class, DateEntity.class);
+
+        assertThat(result.value).isEqualTo(value);
+    }
+
+    private static class Summary {
+        @SearchId
+        private String key;
+        private Integer longField;
+        private List<String> stringListField;
+    }
+
+    private static class DateEntity {
+        @SearchIndex
+        private OffsetDateTime value;
+
+        DateEntity() {
+        }
+
+        DateEntity(OffsetDateTime value) {
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,351 @@
+package contrib.springframework.data.gcp.search.memory;
+
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.search.IndexAlias;
+import contrib.springframework.data.gcp.search.SearchId;
+import contrib.springframework.data.gcp.search.SearchIndex;
+import contrib.springframework.data.gcp.search.SearchTest;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.query.MultiResult;
+import contrib.springframework.data.gcp.search.query.Query;
+import contrib.springframework.data.gcp.search.query.Result;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static contrib.springframework.data.gcp.search.Operator.EQUAL;
+import static contrib.springframework.data.gcp.search.Operator.GREATER_THAN;
+import static contrib.springframework.data.gcp.search.Operator.GREATER_THAN_OR_EQUAL;
+import static contrib.springframework.data.gcp.search.Operator.IS;
+import static contrib.springframework.data.gcp.search.Operator.LESS_THAN;
+import static contrib.springframework.data.gcp.search.Operator.STEM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InMemorySearchServiceTest extends SearchTest {
+
+    private InMemorySearchService searchService;
+
+    @Before
+    public void setUp() {
+        searchService = new InMemorySearchService(searchMetadata, new DefaultSearchConversionService());
+    }
+
+    @Test
+    public void execute_willMatchTextTokens() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("The quick brown fox"),
+                new TestSearchEntity("id2").setStringField("The lazy dog"),
+                new TestSearchEntity("id3").setStringField("A quick dog")
+        ));
+
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).filter("stringField", EQUAL, "quick").build()))
+                .containsExactlyInAnyOrder("id1", "id3");
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).filter("stringField", IS, "QUICK dog").build()))
+                .containsExactly("id3");
+    }
+
+    @Test
+    public void execute_willMatchAnyValue_whenValueIsCollection() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("red"),
+                new TestSearchEntity("id2").setStringField("green"),
+                new TestSearchEntity("id3").setStringField("blue")
+        ));
+
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class)
+                .filterIn("stringField", "red", "blue")
+                .build();
+
+        assertThat(ids(query)).containsExactlyInAnyOrder("id1", "id3");
+    }
+
+    @Test
+    public void execute_willMatchAnyValue_whenValueIsPrimitiveArray() {
+        searchService.index(IntStream.range(0, 5)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class)
+                .filter("longField", EQUAL, new long[]{1, 3})
+                .build();
+
+        assertThat(ids(query)).containsExactlyInAnyOrder("id1", "id3");
+    }
+
+    @Test
+    public void execute_willMatchStems() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("cats"),
+                new TestSearchEntity("id2").setStringField("dogs")
+        ));
+
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class)
+                .filter("stringField", STEM, "cat")
+                .build();
+
+        assertThat(ids(query)).containsExactly("id1");
+    }
+
+    @Test
+    public void execute_willCompareNumbers_andSortWithOffset() {
+        searchService.index(IntStream.range(0, 10)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class)
+                .filter("longField", GREATER_THAN_OR_EQUAL, 2)
+                .filter("longField", LESS_THAN, 8)
+                .order("longField", Sort.Direction.DESC)
+                .skip(1)
+                .limit(3)
+                .build();
+
+        assertThat(ids(query)).containsExactly("id6", "id5", "id4");
+        assertThat(searchService.execute(query).getMetadata().getNumberFound()).isEqualTo(6);
+    }
+
+    @Test
+    public void execute_willCompareDates_byDay() {
+        searchService.index(Arrays.asList(
+                new DateEntity("id1", OffsetDateTime.parse("2017-01-01T01:02:03Z")),
+                new DateEntity("id2", OffsetDateTime.parse("2017-01-02T01:02:03Z")),
+                new DateEntity("id3", OffsetDateTime.parse("2017-01-02T01:02:04Z")),
+                new DateEntity("id4", OffsetDateTime.parse("2017-01-03T01:02:03Z"))
+        ));
+
+        Query<DateEntity> query = searchService.createQuery(DateEntity.class)
+                .filter("value", GREATER_THAN, OffsetDateTime.parse("2017-01-02T01:02:03Z"))
+                .build();
+
+        assertThat(ids(query)).containsExactly("id4");
+    }
+
+    @Test
+    public void execute_willApplyRawTermsAndKeywords() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("apple"),
+                new TestSearchEntity("id2").setStringField("banana"),
+                new TestSearchEntity("id3").setStringField("cherry")
+        ));
+
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).filter("apple OR banana").build()))
+                .containsExactlyInAnyOrder("id1", "id2");
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).filter("NOT apple").build()))
+                .containsExactlyInAnyOrder("id2", "id3");
+    }
+
+    @Test
+    public void execute_willThrowException_whenRawFragmentUsesUnsupportedSyntax() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported query syntax 'stringField:apple'");
+
+        searchService.execute(searchService.createQuery(TestSearchEntity.class).filter("stringField:apple").build());
+    }
+
+    @Test
+    public void execute_willReturnMostRecentlyIndexedFirst_andDefaultToApiLimit() {
+        searchService.index(IntStream.range(0, 30)
+                .mapToObj(i -> new TestSearchEntity("id" + i))
+                .collect(Collectors.toList()));
+        searchService.index(new TestSearchEntity("id5"));
+
+        List<String> ids = ids(searchService.createQuery(TestSearchEntity.class).build());
+
+        assertThat(ids).hasSize(20);
+        assertThat(ids.get(0)).isEqualTo("id5");
+    }
+
+    @Test
+    public void execute_willPageWithCursors() {
+        searchService.index(IntStream.range(0, 5)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        Result<ScoredDocument> first = searchService.execute(query(null));
+        Result<ScoredDocument> second = searchService.execute(query(first.getNextCursor()));
+        Result<ScoredDocument> last = searchService.execute(query(second.getNextCursor()));
+
+        assertThat(first.getList()).extracting("id").containsExactly("id0", "id1");
+        assertThat(second.getList()).extracting("id").containsExactly("id2", "id3");
+        assertThat(last.getList()).extracting("id").containsExactly("id4");
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void unindex_willRemoveDocuments_acrossCompaction() {
+        searchService.index(IntStream.range(0, 40)
+                .mapToObj(i -> new TestSearchEntity("id" + i).setLongField(i))
+                .collect(Collectors.toList()));
+
+        searchService.unindex(TestSearchEntity.class, IntStream.range(0, 30).mapToObj(i -> "id" + i));
+        searchService.index(new TestSearchEntity("id35").setLongField(100));
+
+        Query<TestSearchEntity> query = searchService.createQuery(TestSearchEntity.class)
+                .filter("longField", GREATER_THAN_OR_EQUAL, 0)
+                .order("longField", Sort.Direction.ASC)
+                .build();
+
+        assertThat(ids(query)).containsExactly("id30", "id31", "id32", "id33", "id34", "id36", "id37", "id38", "id39", "id35");
+        assertThat(searchService.getIndex(TestSearchEntity.class).getDocumentCount()).isEqualTo(10);
+    }
+
+    @Test
+    public void execute_willReturnDocumentFields_unlessIdsOnly() {
+        searchService.index(new TestSearchEntity("id1").setStringField("red").setLongField(7));
+
+        ScoredDocument all = searchService.execute(searchService.createQuery(TestSearchEntity.class).build()).getList().get(0);
+        ScoredDocument idsOnly = searchService.execute(searchService.createQuery(TestSearchEntity.class).retrieveIdsOnly().build()).getList().get(0);
+        ScoredDocument returned = searchService.execute(searchService.createQuery(TestSearchEntity.class).returnFields("longField").build()).getList().get(0);
+
+        assertThat(all.getOnlyField("stringField").getText()).isEqualTo("red");
+        assertThat(idsOnly.getFieldNames()).isEmpty();
+        assertThat(returned.getFieldNames()).containsExactly("longField");
+    }
+
+    @Test
+    public void executeAll_willMergeResultsBySortKey() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setLongField(1),
+                new TestSearchEntity("id4").setLongField(4)
+        ));
+        searchService.index(new NumberEntity(2), "other2");
+        searchService.index(new NumberEntity(3), "other3");
+
+        MultiResult result = searchService.executeAll(Arrays.asList(
+                searchService.createQuery(TestSearchEntity.class).order("longField", Sort.Direction.DESC).build(),
+                searchService.createQuery(NumberEntity.class).order("longField", Sort.Direction.DESC).build()
+        ), 3);
+
+        assertThat(result.getList()).extracting("id").containsExactly("id4", "other3", "other2");
+        assertThat(result.getResultType(result.getList().get(1))).isEqualTo(NumberEntity.class);
+        assertThat(result.getTotal()).isEqualTo(4);
+    }
+
+    @Test
+    public void project_willReadReturnedFields() {
+        searchService.index(new TestSearchEntity("id1").setStringField("red").setLongField(7).setStringListField(Arrays.asList("a", "b")));
+
+        Result<Summary> result = searchService.project(searchService.createQuery(TestSearchEntity.class)
+                .retrieveIdsOnly()
+                .returnFields("stringField", "longField")
+                .build(), Summary.class);
+
+        assertThat(result.getList()).hasSize(1);
+        assertThat(result.getList().get(0).id).isEqualTo("id1");
+        assertThat(result.getList().get(0).stringField).isEqualTo("red");
+        assertThat(result.getList().get(0).longField).isEqualTo(7);
+        assertThat(result.getList().get(0).stringListField).isNull();
+    }
+
+    @Test
+    public void reindex_willWriteToBothIndexes_andSwitchQueriesOnComplete() {
+        searchService.index(new TestSearchEntity("id1").setLongField(1));
+
+        IndexAlias alias = searchService.beginReindex(TestSearchEntity.class, "v2");
+        searchService.index(new TestSearchEntity("id2").setLongField(2));
+        searchService.reindexAsync(Collections.singletonMap("id3", new TestSearchEntity("id3").setLongField(3))).run();
+
+        assertThat(alias.getPending()).isNotEqualTo(alias.getCurrent());
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).build())).containsExactlyInAnyOrder("id1", "id2");
+
+        IndexAlias completed = searchService.completeReindex(TestSearchEntity.class);
+
+        assertThat(completed.getCurrent()).isEqualTo(alias.getPending());
+        assertThat(completed.isRebuilding()).isFalse();
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).build())).containsExactlyInAnyOrder("id2", "id3");
+    }
+
+    @Test
+    public void abortReindex_willKeepQueriesOnCurrentIndex() {
+        searchService.index(new TestSearchEntity("id1").setLongField(1));
+        searchService.beginReindex(TestSearchEntity.class, "v2");
+        searchService.reindexAsync(Collections.singletonMap("id2", new TestSearchEntity("id2").setLongField(2))).run();
+
+        IndexAlias aborted = searchService.abortReindex(TestSearchEntity.class);
+
+        assertThat(aborted.isRebuilding()).isFalse();
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).build())).containsExactly("id1");
+    }
+
+    @Test
+    public void beginReindex_willThrowException_whenRebuildingIntoAnotherVersion() {
+        searchService.beginReindex(TestSearchEntity.class, "v2");
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("is already being rebuilt into");
+
+        searchService.beginReindex(TestSearchEntity.class, "v3");
+    }
+
+    @Test
+    public void reindexAsync_willThrowException_whenNotRebuilding() {
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("is not being rebuilt");
+
+        searchService.reindexAsync(Collections.singletonMap("id1", new TestSearchEntity("id1")));
+    }
+
+    @Test
+    public void clear_willRemoveAllDocuments() {
+        searchService.index(new TestSearchEntity("id1"), new TestSearchEntity("id2"));
+
+        assertThat(searchService.clear(TestSearchEntity.class)).isEqualTo(2);
+        assertThat(ids(searchService.createQuery(TestSearchEntity.class).build())).isEmpty();
+    }
+
+    private Query<TestSearchEntity> query(String cursor) {
+        return searchService.createQuery(TestSearchEntity.class)
+                .order("longField", Sort.Direction.ASC)
+                .limit(2)
+                .cursor(cursor)
+                .build();
+    }
+
+    private List<String> ids(Query<?> query) {
+        return searchService.execute(query).getList().stream()
+                .map(ScoredDocument::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static final class Summary {
+        @SearchId
+        private String id;
+        private String stringField;
+        private long longField;
+        private List<String> stringListField;
+    }
+
+    @SuppressWarnings("unused")
+    private static final class NumberEntity {
+
+        @SearchIndex
+        private long longField;
+
+        NumberEntity(long longField) {
+            this.longField = longField;
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private static final class DateEntity {
+
+        @SearchId
+        private String id;
+
+        @SearchIndex
+        private OffsetDateTime value;
+
+        DateEntity(String id, OffsetDateTime value) {
+            this.id = id;
+            this.value = value;
+        }
+    }
+}
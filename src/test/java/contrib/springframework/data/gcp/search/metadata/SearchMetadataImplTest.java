@@ -121,6 +121,21 @@ public class SearchMetadataImplTest {
         assertThat(searchMetadata.hasIndexedFields(String.class)).isFalse();
     }
 
+    @Test
+    public void getIndexNamingStrategy_willUseIndexName_byDefault() {
+        SearchMetadata metadata = Mockito.mock(DefaultNamingMetadata.class, Mockito.CALLS_REAL_METHODS);
+        Mockito.doReturn("index").when(metadata).getIndexName(TestSearchEntity.class);
+
+        assertThat(metadata.getIndexNamingStrategy().apply(TestSearchEntity.class)).isEqualTo("index");
+        assertThat(metadata.getIndexNamingStrategy().getVersionedName(TestSearchEntity.class, "2")).isEqualTo("index_v2");
+    }
+
+    /**
+     * Inherits the default methods of {@link SearchMetadata}, so a mock can call them.
+     */
+    private abstract static class DefaultNamingMetadata implements SearchMetadata {
+    }
+
     @SuppressWarnings("unused")
     private static class TestEntityWithBadFieldNames {
         @SearchIndex
@@ -0,0 +1,138 @@
+package contrib.springframework.data.gcp.search.metadata.impl;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.isA;
+
+public class MemberAccessorsTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void forField() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forField(PublicClass.class.getDeclaredField("privateField"));
+
+        assertThat(accessor.apply(new PublicClass())).isEqualTo("privateFieldValue");
+    }
+
+    @Test
+    public void forField_willBoxPrimitives() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forField(PublicClass.class.getDeclaredField("primitiveField"));
+
+        assertThat(accessor.apply(new PublicClass())).isEqualTo(42L);
+    }
+
+    @Test
+    public void forMethod_willUseGeneratedLambda_whenMethodIsPublic() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PublicClass.class.getMethod("getPublicValue"));
+
+        assertThat(accessor.getClass().getSimpleName()).isEqualTo("LambdaAccessor");
+        assertThat(accessor.apply(new PublicClass())).isEqualTo("publicValue");
+    }
+
+    @Test
+    public void forMethod_willBoxPrimitives() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PublicClass.class.getMethod("getPrimitiveValue"));
+
+        assertThat(accessor.apply(new PublicClass())).isEqualTo(7);
+    }
+
+    @Test
+    public void forMethod_willUseMethodHandle_whenMethodIsPrivate() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PublicClass.class.getDeclaredMethod("getPrivateValue"));
+
+        assertThat(accessor.getClass().getSimpleName()).isEqualTo("MethodHandleAccessor");
+        assertThat(accessor.apply(new PublicClass())).isEqualTo("privateValue");
+    }
+
+    @Test
+    public void forMethod_willUseMethodHandle_whenClassIsNotPublic() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PrivateClass.class.getMethod("getValue"));
+
+        assertThat(accessor.getClass().getSimpleName()).isEqualTo("MethodHandleAccessor");
+        assertThat(accessor.apply(new PrivateClass())).isEqualTo("value");
+    }
+
+    @Test
+    public void forMethod_willRethrowUncheckedExceptions() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PublicClass.class.getMethod("getFailure"));
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("failure");
+        accessor.apply(new PublicClass());
+    }
+
+    @Test
+    public void forMethod_willWrapCheckedExceptions() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PublicClass.class.getMethod("getCheckedFailure"));
+
+        thrown.expect(UnsupportedOperationException.class);
+        thrown.expectCause(isA(IOException.class));
+        accessor.apply(new PublicClass());
+    }
+
+    @Test
+    public void forMethod_willRethrowUncheckedExceptions_fromMethodHandle() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PrivateClass.class.getMethod("getFailure"));
+
+        thrown.expect(IllegalStateException.class);
+        thrown.expectMessage("failure");
+        accessor.apply(new PrivateClass());
+    }
+
+    @Test
+    public void forMethod_willWrapCheckedExceptions_fromMethodHandle() throws Exception {
+        Function<Object, Object> accessor = MemberAccessors.forMethod(PrivateClass.class.getMethod("getCheckedFailure"));
+
+        thrown.expect(UnsupportedOperationException.class);
+        thrown.expectCause(isA(IOException.class));
+        accessor.apply(new PrivateClass());
+    }
+
+    @SuppressWarnings("unused")
+    public static class PublicClass {
+        private String privateField = "privateFieldValue";
+        private long primitiveField = 42L;
+
+        public String getPublicValue() {
+            return "publicValue";
+        }
+
+        public int getPrimitiveValue() {
+            return 7;
+        }
+
+        public String getFailure() {
+            throw new IllegalStateException("failure");
+        }
+
+        public String getCheckedFailure() throws IOException {
+            throw new IOException("failure");
+        }
+
+        private String getPrivateValue() {
+            return "privateValue";
+        }
+    }
+
+    private static class PrivateClass {
+        public String getValue() {
+            return "value";
+        }
+
+        public String getFailure() {
+            throw new IllegalStateException("failure");
+        }
+
+        public String getCheckedFailure() throws IOException {
+            throw new IOException("failure");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicrometerSearchMetricsTest {
+
+    private MeterRegistry registry;
+    private MicrometerSearchMetrics metrics;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new MicrometerSearchMetrics(registry);
+    }
+
+    @Test
+    public void recordOperation_willTimePerIndexOperationAndOutcome() {
+        metrics.recordOperation("Index", SearchOperation.PUT, TimeUnit.MILLISECONDS.toNanos(5), true);
+        metrics.recordOperation("Index", SearchOperation.PUT, TimeUnit.MILLISECONDS.toNanos(7), true);
+        metrics.recordOperation("Index", SearchOperation.PUT, TimeUnit.MILLISECONDS.toNanos(9), false);
+
+        assertThat(registry.find("search.operation").tags("index", "Index", "operation", "put", "outcome", "success").timer().count()).isEqualTo(2);
+        assertThat(registry.find("search.operation").tags("index", "Index", "operation", "put", "outcome", "failure").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordSearchResult_willRecordFoundAndReturned() {
+        metrics.recordSearchResult("Index", 120, 20);
+
+        assertThat(registry.find("search.results.found").tags("index", "Index").summary().totalAmount()).isEqualTo(120);
+        assertThat(registry.find("search.results.returned").tags("index", "Index").summary().totalAmount()).isEqualTo(20);
+    }
+
+    @Test
+    public void recordPut_willRecordDocumentsPerPut() {
+        metrics.recordPut("Index", 200);
+        metrics.recordDocumentSize("Index", 1024);
+
+        assertThat(registry.find("search.put.documents").tags("index", "Index").summary().totalAmount()).isEqualTo(200);
+        assertThat(registry.find("search.document.size").tags("index", "Index").summary().totalAmount()).isEqualTo(1024);
+    }
+
+    @Test
+    public void recordDocumentBuild_willTimePerEntity() {
+        metrics.recordDocumentBuild(String.class, 1000);
+        metrics.recordQueryCompile(String.class, 2000);
+
+        assertThat(registry.find("search.document.build").tags("entity", "java.lang.String").timer().totalTime(TimeUnit.NANOSECONDS)).isEqualTo(1000);
+        assertThat(registry.find("search.query.compile").tags("entity", "java.lang.String").timer().totalTime(TimeUnit.NANOSECONDS)).isEqualTo(2000);
+    }
+
+    @Test
+    public void recordDocumentBuild_willTimeEntitiesWithTheSameSimpleNameSeparately() {
+        metrics.recordDocumentBuild(java.util.Date.class, 1000);
+        metrics.recordDocumentBuild(java.sql.Date.class, 2000);
+
+        assertThat(registry.find("search.document.build").tags("entity", "java.util.Date").timer().totalTime(TimeUnit.NANOSECONDS)).isEqualTo(1000);
+        assertThat(registry.find("search.document.build").tags("entity", "java.sql.Date").timer().totalTime(TimeUnit.NANOSECONDS)).isEqualTo(2000);
+    }
+}
@@ -0,0 +1,75 @@
+package contrib.springframework.data.gcp.search.metrics;
+
+import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import contrib.springframework.data.gcp.search.SearchTest;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class SearchServiceMetricsTest extends SearchTest {
+
+    private SearchMetrics metrics;
+    private SearchServiceImpl searchService;
+    private String indexName;
+
+    @Before
+    public void setUp() {
+        metrics = mock(SearchMetrics.class);
+        searchService = new SearchServiceImpl(searchMetadata, new DefaultSearchConversionService()).setMetrics(metrics);
+        indexName = searchMetadata.getIndexName(TestSearchEntity.class);
+    }
+
+    @Test
+    public void index_willRecordPutAndDocumentMetrics() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        verify(metrics).recordDocumentBuild(eq(TestSearchEntity.class), anyLong());
+        verify(metrics).recordPut(indexName, 1);
+        verify(metrics).recordDocumentSize(eq(indexName), anyLong());
+        verify(metrics).recordOperation(eq(indexName), eq(SearchOperation.PUT), anyLong(), eq(true));
+    }
+
+    @Test
+    public void execute_willRecordSearchMetrics() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        searchService.execute(searchService.createQuery(TestSearchEntity.class).build());
+
+        verify(metrics).recordQueryCompile(eq(TestSearchEntity.class), anyLong());
+        verify(metrics).recordOperation(eq(indexName), eq(SearchOperation.SEARCH), anyLong(), eq(true));
+        verify(metrics).recordSearchResult(indexName, 1, 1);
+    }
+
+    @Test
+    public void unindexAndClear_willRecordDeleteAndGetRangeMetrics() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        searchService.unindex(TestSearchEntity.class, "id1");
+        searchService.clear(TestSearchEntity.class);
+
+        verify(metrics).recordOperation(eq(indexName), eq(SearchOperation.DELETE), anyLong(), eq(true));
+        verify(metrics, atLeastOnce()).recordOperation(eq(indexName), eq(SearchOperation.GET_RANGE), anyLong(), eq(true));
+    }
+
+    @Test
+    public void indexAsync_willRecordPutOnCompletion_whenResultIsNotCollected() throws Exception {
+        ExecutorService metricsExecutor = Executors.newCachedThreadPool();
+        searchService.setMetricsExecutor(metricsExecutor);
+
+        searchService.indexAsync(new TestSearchEntity("id1").setStringField("value"));
+        searchService.close();
+
+        assertThat(metricsExecutor.isShutdown()).isTrue();
+        verify(metrics).recordOperation(eq(indexName), eq(SearchOperation.PUT), anyLong(), eq(true));
+    }
+}
@@ -0,0 +1,76 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class BatchPipelineTest {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void submit_willKeepWindowBounded() throws Exception {
+        BatchPipeline pipeline = new BatchPipeline(2);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 5; i++) {
+            Future<?> future = mock(Future.class);
+            futures.add(future);
+            pipeline.submit(() -> future);
+            assertThat(pipeline.getInFlight()).isLessThanOrEqualTo(2);
+        }
+
+        verify(futures.get(0)).get();
+        verify(futures.get(1)).get();
+        verify(futures.get(2)).get();
+
+        pipeline.complete().run();
+
+        verify(futures.get(3)).get();
+        verify(futures.get(4)).get();
+    }
+
+    @Test
+    public void complete_willThrowIndexException_whenBatchFails() throws Exception {
+        Future<?> future = mock(Future.class);
+        when(future.get()).thenThrow(new ExecutionException(new RuntimeException("failed")));
+
+        Runnable operation = new BatchPipeline(1)
+                .submit(() -> future)
+                .complete();
+
+        thrown.expect(IndexException.class);
+        operation.run();
+    }
+
+    @Test
+    public void complete_willDoNothing_whenNoBatchesSubmitted() {
+        new BatchPipeline(1).complete().run();
+    }
+
+    @Test
+    public void constructor_willThrowException_whenWindowIsNotPositive() {
+        thrown.expect(IllegalArgumentException.class);
+        new BatchPipeline(0);
+    }
+
+    @Test
+    public void submit_willIssueBatch_whenWindowHasRoom() {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        BatchPipeline pipeline = new BatchPipeline(3).submit(() -> future);
+
+        assertThat(pipeline.getInFlight()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,154 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
+import com.google.appengine.api.search.Index;
+import contrib.springframework.data.gcp.search.SearchServiceImpl;
+import contrib.springframework.data.gcp.search.SearchTest;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentFingerprintCacheTest extends SearchTest {
+
+    private DocumentFingerprintCache fingerprintCache;
+    private SearchServiceImpl searchService;
+
+    @Before
+    public void setUp() {
+        fingerprintCache = new DocumentFingerprintCache(100, MemcacheServiceFactory.getMemcacheService());
+        searchService = createSearchService(fingerprintCache);
+    }
+
+    @Test
+    public void index_willSkipPut_whenDocumentIsUnchanged() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        getIndex(TestSearchEntity.class).delete("id1");
+
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNull();
+        assertThat(fingerprintCache.getHitCount()).isEqualTo(1);
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void index_willPut_whenDocumentHasChanged() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        searchService.index(new TestSearchEntity("id1").setStringField("changed"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1").getOnlyField("stringField").getText()).isEqualTo("changed");
+        assertThat(fingerprintCache.getHitCount()).isEqualTo(1);
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void indexMultiple_willOnlyPutChangedDocuments() {
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("value1"),
+                new TestSearchEntity("id2").setStringField("value2")
+        ));
+
+        searchService.index(Arrays.asList(
+                new TestSearchEntity("id1").setStringField("value1"),
+                new TestSearchEntity("id2").setStringField("changed"),
+                new TestSearchEntity("id3").setStringField("value3")
+        ));
+
+        Index index = getIndex(TestSearchEntity.class);
+        assertThat(index.get("id2").getOnlyField("stringField").getText()).isEqualTo("changed");
+        assertThat(index.get("id3")).isNotNull();
+        assertThat(fingerprintCache.getHitCount()).isEqualTo(2);
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void index_willNotRemember_untilPutHasCompleted() {
+        Runnable operation = searchService.indexAsync(new TestSearchEntity("id1").setStringField("value"), "id1");
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        operation.run();
+
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void index_willNotRemember_whenIndexIsClearedDuringPut() {
+        Runnable operation = searchService.indexAsync(new TestSearchEntity("id1").setStringField("value"), "id1");
+        searchService.clear(TestSearchEntity.class);
+        operation.run();
+
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void unindex_willForgetFingerprint() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        searchService.unindex(TestSearchEntity.class, "id1");
+
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+        assertThat(fingerprintCache.getSkipCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void clear_willForgetAllFingerprints_includingSharedFingerprints() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+        searchService.clear(TestSearchEntity.class);
+
+        DocumentFingerprintCache otherInstance = new DocumentFingerprintCache(100, MemcacheServiceFactory.getMemcacheService());
+        createSearchService(otherInstance).index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+        assertThat(otherInstance.getHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void index_willPut_whenAnotherInstanceHasUnindexedOrClearedTheDocument() {
+        DocumentFingerprintCache otherInstance = new DocumentFingerprintCache(100, MemcacheServiceFactory.getMemcacheService());
+        SearchServiceImpl otherService = createSearchService(otherInstance);
+        otherService.index(new TestSearchEntity("id1").setStringField("value"));
+        otherService.index(new TestSearchEntity("id2").setStringField("value"));
+
+        searchService.unindex(TestSearchEntity.class, "id1");
+        otherService.index(new TestSearchEntity("id1").setStringField("value"));
+        assertThat(getIndex(TestSearchEntity.class).get("id1")).isNotNull();
+
+        searchService.clear(TestSearchEntity.class);
+        otherService.index(new TestSearchEntity("id2").setStringField("value"));
+        assertThat(getIndex(TestSearchEntity.class).get("id2")).isNotNull();
+        assertThat(otherInstance.getSkipCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void index_willSkipPut_whenUsingLocalCacheOnly() {
+        DocumentFingerprintCache localOnly = new DocumentFingerprintCache(100, null);
+        SearchServiceImpl localService = createSearchService(localOnly);
+        localService.index(new TestSearchEntity("id1").setStringField("value"));
+        localService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(localOnly.getSkipCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void index_willShareFingerprints_throughMemcache() {
+        searchService.index(new TestSearchEntity("id1").setStringField("value"));
+
+        DocumentFingerprintCache otherInstance = new DocumentFingerprintCache(100, MemcacheServiceFactory.getMemcacheService());
+        createSearchService(otherInstance).index(new TestSearchEntity("id1").setStringField("value"));
+
+        assertThat(otherInstance.getSkipCount()).isEqualTo(1);
+    }
+
+    private SearchServiceImpl createSearchService(DocumentFingerprintCache fingerprintCache) {
+        return new SearchServiceImpl(searchMetadata, new DefaultSearchConversionService())
+                .setFingerprintCache(fingerprintCache);
+    }
+}
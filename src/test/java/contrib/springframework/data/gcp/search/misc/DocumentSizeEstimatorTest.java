@@ -0,0 +1,51 @@
+package contrib.springframework.data.gcp.search.misc;
+
+import com.google.appengine.api.search.Document;
+import com.google.appengine.api.search.Facet;
+import com.google.appengine.api.search.Field;
+import com.google.appengine.api.search.GeoPoint;
+import com.google.apphosting.api.search.DocumentPb;
+import com.google.common.base.Strings;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DocumentSizeEstimatorTest {
+
+    @Test
+    public void estimate_willNotBeLessThanSerializedSize() throws Exception {
+        Document document = Document.newBuilder()
+                .setId("id1")
+                .addField(Field.newBuilder().setName("text").setText(Strings.repeat("\u00e9", 300)))
+                .addField(Field.newBuilder().setName("html").setHTML("<p>value</p>"))
+                .addField(Field.newBuilder().setName("atom").setAtom("value"))
+                .addField(Field.newBuilder().setName("number").setNumber(-1.2345678901234567E-300))
+                .addField(Field.newBuilder().setName("date").setDate(new Date(Long.MAX_VALUE / 1000)))
+                .addField(Field.newBuilder().setName("geo").setGeoPoint(new GeoPoint(-33.8688, 151.2093)))
+                .addField(Field.newBuilder().setName("untokenized").setUntokenizedPrefix("value"))
+                .addFacet(Facet.withAtom("atom", "value"))
+                .addFacet(Facet.withNumber("number", -1.2345678901234567E-300))
+                .build();
+
+        assertThat(DocumentSizeEstimator.estimate(document)).isGreaterThanOrEqualTo(serializedSize(document));
+    }
+
+    @Test
+    public void estimate_willCountFacets() {
+        Document.Builder document = Document.newBuilder().setId("id1").addField(Field.newBuilder().setName("atom").setAtom("value"));
+        long withoutFacets = DocumentSizeEstimator.estimate(document.build());
+
+        long withFacets = DocumentSizeEstimator.estimate(document.addFacet(Facet.withAtom("atom", "value")).build());
+
+        assertThat(withFacets).isEqualTo(withoutFacets + DocumentSizeEstimator.estimate(Facet.withAtom("atom", "value")));
+    }
+
+    private static long serializedSize(Document document) throws Exception {
+        Method copyToProtocolBuffer = Document.class.getDeclaredMethod("copyToProtocolBuffer");
+        copyToProtocolBuffer.setAccessible(true);
+        return ((DocumentPb.Document) copyToProtocolBuffer.invoke(document)).getSerializedSize();
+    }
+}
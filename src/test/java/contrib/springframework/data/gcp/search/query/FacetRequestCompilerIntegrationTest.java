@@ -0,0 +1,58 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.FacetRequest;
+import contrib.springframework.data.gcp.objectify.ObjectifyTest;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+public class FacetRequestCompilerIntegrationTest extends ObjectifyTest {
+
+    @Autowired
+    private SearchMetadata searchMetadata;
+
+    private FacetRequestCompiler compiler;
+
+    @Before
+    public void setUp() throws Exception {
+        compiler = new FacetRequestCompiler(searchMetadata);
+    }
+
+    @Test
+    public void apply() {
+        Query<TestSearchEntity> query = query()
+                .facet("stringField", 5)
+                .rangeFacet("longField", Double.NEGATIVE_INFINITY, 10, 20, Double.POSITIVE_INFINITY)
+                .build();
+
+        List<FacetRequest> requests = compiler.apply(query);
+
+        assertThat(requests).extracting("name").containsExactly("stringField", "longField");
+        assertThat(requests.get(0).getValueLimit()).isEqualTo(5);
+        assertThat(requests.get(0).getRanges()).isEmpty();
+        assertThat(requests.get(1).getValueLimit()).isNull();
+        assertThat(requests.get(1).getRanges()).extracting("start", "end").containsExactly(
+                tuple(null, "10.0"),
+                tuple("10.0", "20.0"),
+                tuple("20.0", null));
+    }
+
+    @Test
+    public void rangeFacet_willThrowException_whenBoundsAreNotAscending() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Range facet bounds must be in ascending order");
+
+        query().rangeFacet("longField", 10, 5);
+    }
+
+    private QueryImpl<TestSearchEntity> query() {
+        return new QueryImpl<>(TestSearchEntity.class);
+    }
+}
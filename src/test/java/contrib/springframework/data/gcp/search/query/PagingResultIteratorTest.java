@@ -0,0 +1,93 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.Cursor;
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class PagingResultIteratorTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private final List<Query<?>> requested = new ArrayList<>();
+
+    @Test
+    public void next_willPrefetchNextPage_whileCurrentPageIsConsumed() {
+        Iterator<String> iterator = new PagingResultIterator<>(query().limit(2).build(), this::search, this::ids);
+
+        assertThat(requested).isEmpty();
+
+        assertThat(iterator.next()).isEqualTo("a");
+        assertThat(requested).extracting(q -> q.getCursor().get()).containsExactly("", "true:page2");
+
+        assertThat(iterator.next()).isEqualTo("b");
+        assertThat(iterator.next()).isEqualTo("c");
+        assertThat(requested).hasSize(3);
+        assertThat(iterator.hasNext()).isFalse();
+        assertThat(requested).hasSize(3);
+    }
+
+    @Test
+    public void stream_willApplyDefaultPageSize() {
+        List<String> ids = PagingResultIterator.stream(query().build(), this::search, this::ids).collect(Collectors.toList());
+
+        assertThat(ids).containsExactly("a", "b", "c");
+        assertThat(requested).extracting(q -> q.getLimit().get()).containsOnly(PagingResultIterator.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    public void new_willThrowException_whenQueryUsesSkip() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("A streamed query can not use skip");
+
+        new PagingResultIterator<>(query().skip(1).build(), this::search, this::ids);
+    }
+
+    /**
+     * Three pages: "a", "b", then "c".
+     */
+    private Supplier<Results<ScoredDocument>> search(Query<?> query) {
+        requested.add(query);
+        switch (query.getCursor().get()) {
+            case "":
+                return page("a", "true:page2");
+            case "true:page2":
+                return page("b", "true:page3");
+            default:
+                return page("c", null);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Results<ScoredDocument>> page(String id, String nextCursor) {
+        Results<ScoredDocument> results = mock(Results.class);
+        ScoredDocument.Builder document = ScoredDocument.newBuilder();
+        document.setId(id);
+        List<ScoredDocument> documents = new ArrayList<>();
+        documents.add(document.build());
+        when(results.getResults()).thenReturn(documents);
+        when(results.getNumberReturned()).thenReturn(1);
+        when(results.getCursor()).thenReturn(nextCursor != null ? Cursor.newBuilder().build(nextCursor) : null);
+        return () -> results;
+    }
+
+    private List<String> ids(Results<ScoredDocument> results) {
+        return results.getResults().stream().map(ScoredDocument::getId).collect(Collectors.toList());
+    }
+
+    private QueryImpl<Object> query() {
+        return new QueryImpl<>(Object.class);
+    }
+}
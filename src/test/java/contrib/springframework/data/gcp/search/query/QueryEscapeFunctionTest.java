@@ -1,5 +1,6 @@
 package contrib.springframework.data.gcp.search.query;
 
+import org.apache.commons.text.StringEscapeUtils;
 import org.junit.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -17,6 +18,13 @@ public class QueryEscapeFunctionTest {
         assertThat(function.apply("Some string \"with\" quotes.")).isEqualTo("\"Some string \\\"with\\\" quotes.\"");
     }
 
+    @Test
+    public void apply_willEscapeLikeJavaStrings() {
+        String input = "back\\slash \b\t\n\f\r \u0001 caf\u00e9 \uD83D\uDE00 \u007f";
+
+        assertThat(function.apply(input)).isEqualTo("\"" + StringEscapeUtils.escapeJava(input) + "\"");
+    }
+
     @Test
     public void apply_willReturnNull_whenInputIsNull() {
         assertThat(function.apply(null)).isNull();
@@ -77,4 +77,11 @@ public class QueryFragmentCompilerTest {
 
         assertThat(compiler.apply(fragment)).isEqualTo("field:(\"value1\" OR \"value2\" OR \"\\\"quote\\\"\")");
     }
+
+    @Test
+    public void apply_willConvert_whenInputIsPredicateFragmentWithListValue() {
+        Query.Fragment fragment = new PredicateQueryFragment("field", Operator.EQUAL, Arrays.asList("value1", "value2"));
+
+        assertThat(compiler.apply(fragment)).isEqualTo("field:(\"value1\" OR \"value2\")");
+    }
 }
@@ -0,0 +1,99 @@
+package contrib.springframework.data.gcp.search.query;
+
+import contrib.springframework.data.gcp.objectify.ObjectifyTest;
+import contrib.springframework.data.gcp.search.Operator;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.conversion.DefaultSearchConversionService;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static contrib.springframework.data.gcp.search.query.QueryParameter.param;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.domain.Sort.Direction.DESC;
+
+public class QueryPlanIntegrationTest extends ObjectifyTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Autowired
+    private SearchMetadata searchMetadata;
+
+    private QueryCompiler compiler;
+
+    @Before
+    public void setUp() throws Exception {
+        compiler = new QueryCompiler(searchMetadata, new DefaultSearchConversionService());
+    }
+
+    @Test
+    public void bind_willProduceSameQueryAsCompiler() {
+        QueryPlan plan = compiler.prepare(query()
+                .filter("stringField", Operator.EQUAL, param("string"))
+                .filter("longField", Operator.GREATER_THAN, param("long"))
+                .filter("stringArrayField", Operator.STEM, "likeValue")
+                .filter(param("raw"))
+                .order("stringField", DESC)
+                .limit(3)
+                .build());
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("string", "string \"value\"");
+        parameters.put("long", 3);
+        parameters.put("raw", "word");
+
+        com.google.appengine.api.search.Query expected = compiler.apply(query()
+                .filter("stringField", Operator.EQUAL, "string \"value\"")
+                .filter("longField", Operator.GREATER_THAN, 3)
+                .filter("stringArrayField", Operator.STEM, "likeValue")
+                .filter("word")
+                .order("stringField", DESC)
+                .limit(3)
+                .build());
+
+        assertThat(plan.getParameterNames()).containsExactly("string", "long", "raw");
+        assertThat(plan.bind(parameters).toString()).isEqualTo(expected.toString());
+    }
+
+    @Test
+    public void bind_willMatchAnyValue_whenValueIsCollection() {
+        QueryPlan plan = compiler.prepare(query().filter("id", Operator.EQUAL, param("ids")).build());
+
+        assertThat(plan.bind(Collections.singletonMap("ids", Arrays.asList("id1", "id2"))).getQueryString())
+                .isEqualTo("id:(\"id1\" OR \"id2\")");
+    }
+
+    @Test
+    public void prepare_willCachePlan_byQueryShape() {
+        QueryPlan plan = compiler.prepare(query().filter("stringField", Operator.EQUAL, param("value")).limit(5).build());
+
+        assertThat(compiler.prepare(query().filter("stringField", Operator.EQUAL, param("value")).limit(5).build()))
+                .isSameAs(plan);
+        assertThat(compiler.prepare(query().filter("stringField", Operator.EQUAL, param("value")).limit(6).build()))
+                .isNotSameAs(plan);
+        assertThat(compiler.prepare(query().filter("stringField", Operator.EQUAL, "value").limit(5).build()))
+                .isNotSameAs(plan);
+    }
+
+    @Test
+    public void bind_willThrowException_whenParameterIsNotBound() {
+        QueryPlan plan = compiler.prepare(query().filter("stringField", Operator.EQUAL, param("value")).build());
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("No value bound for query parameter 'value'");
+
+        plan.bind(Collections.emptyMap());
+    }
+
+    private QueryImpl<TestSearchEntity> query() {
+        return new QueryImpl<>(TestSearchEntity.class);
+    }
+}
@@ -0,0 +1,100 @@
+package contrib.springframework.data.gcp.search.query;
+
+import com.google.appengine.api.search.Results;
+import com.google.appengine.api.search.ScoredDocument;
+import contrib.springframework.data.gcp.objectify.ObjectifyTest;
+import contrib.springframework.data.gcp.search.TestSearchEntity;
+import contrib.springframework.data.gcp.search.metadata.SearchMetadata;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ResultMergerTest extends ObjectifyTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Autowired
+    private SearchMetadata searchMetadata;
+
+    private ResultMerger merger;
+
+    @Before
+    public void setUp() throws Exception {
+        merger = new ResultMerger(searchMetadata);
+    }
+
+    @Test
+    public void merge_willOrderByRank_whenQueriesAreNotSorted() {
+        MultiResult result = merger.merge(
+                Arrays.asList(query().build(), new QueryImpl<>(String.class).build()),
+                Arrays.asList(result(document("a3", 3), document("a1", 1)), result(document("b4", 4), document("b2", 2))),
+                10);
+
+        assertThat(result.getList()).extracting("id").containsExactly("b4", "a3", "b2", "a1");
+        assertThat(result.getResultType(result.getList().get(0))).isEqualTo(String.class);
+        assertThat(result.getTotals()).containsEntry(TestSearchEntity.class, 2L).containsEntry(String.class, 2L);
+    }
+
+    @Test
+    public void merge_willApplyLimit() {
+        MultiResult result = merger.merge(
+                Arrays.asList(query().build(), query().build()),
+                Arrays.asList(result(document("a2", 2), document("a1", 1)), result(document("b3", 3))),
+                2);
+
+        assertThat(result.getList()).extracting("id").containsExactly("b3", "a2");
+        assertThat(result.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    public void merge_willThrowException_whenQueriesAreSortedDifferently() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Merged queries must be sorted by the same properties and directions");
+
+        merger.merge(
+                Arrays.asList(query().order("longField").build(), query().order("stringField").build()),
+                Arrays.asList(result(), result()),
+                10);
+    }
+
+    @Test
+    public void merge_willThrowException_whenSortedQueriesOnlyRetrieveIds() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Sorted queries that only retrieve ids can not be merged");
+
+        merger.merge(
+                Arrays.asList(query().order("longField").setRetrieveIdsOnly(true).build(), query().order("longField").build()),
+                Arrays.asList(result(), result()),
+                10);
+    }
+
+    private QueryImpl<TestSearchEntity> query() {
+        return new QueryImpl<>(TestSearchEntity.class);
+    }
+
+    private static ScoredDocument document(String id, int rank) {
+        ScoredDocument.Builder document = ScoredDocument.newBuilder();
+        document.setId(id);
+        document.setRank(rank);
+        return document.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Result<ScoredDocument> result(ScoredDocument... documents) {
+        List<ScoredDocument> list = new ArrayList<>(Arrays.asList(documents));
+        Results<ScoredDocument> results = mock(Results.class);
+        when(results.getResults()).thenReturn(list);
+        when(results.getNumberFound()).thenReturn((long) list.size());
+        return new ResultImpl<>(results, x -> new ArrayList<>(x.getResults()));
+    }
+}